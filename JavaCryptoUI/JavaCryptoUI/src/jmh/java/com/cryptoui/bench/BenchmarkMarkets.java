@@ -0,0 +1,62 @@
+package com.cryptoui.bench;
+
+import com.cryptoui.market.GeometricBrownianModel;
+import com.cryptoui.market.JumpDiffusionModel;
+import com.cryptoui.market.MeanReversionModel;
+import com.cryptoui.market.PriceModel;
+import com.cryptoui.market.RandomWalkModel;
+import com.cryptoui.model.MarketService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds market universes of a given size for the benchmarks
+ */
+final class BenchmarkMarkets {
+    // Symbols every MarketService lists on construction
+    static final int BUILT_IN_SYMBOLS = 5;
+    
+    private BenchmarkMarkets() {
+    }
+    
+    /**
+     * Create a market service listing at least the given number of symbols
+     * @param symbolCount Total number of symbols, including the built-in ones
+     * @param workers Number of tick threads
+     * @param tickIntervalNanos Time between background ticks
+     * @return Market service that is not ticking yet
+     */
+    static MarketService create(int symbolCount, int workers, long tickIntervalNanos) {
+        MarketService market = new MarketService(workers, tickIntervalNanos,
+                                                 Math.max(symbolCount, BUILT_IN_SYMBOLS));
+        for (int i = BUILT_IN_SYMBOLS; i < symbolCount; i++) {
+            market.addCryptocurrency("SYM" + i, "Synthetic " + i, "Benchmark symbol",
+                                     1.0 + i, 0.0, 1_000_000.0);
+        }
+        return market;
+    }
+    
+    /**
+     * Create a price model by benchmark parameter name
+     * @param name One of walk, gbm, meanReversion or jumpDiffusion
+     * @param capacity Number of rows the model must support
+     */
+    static PriceModel priceModel(String name, int capacity) {
+        switch (name) {
+            case "walk":
+                return new RandomWalkModel();
+            case "gbm":
+                return new GeometricBrownianModel(0, 0.01);
+            case "meanReversion":
+                return new MeanReversionModel(capacity, 0.05, 0.01);
+            case "jumpDiffusion":
+                return new JumpDiffusionModel(0, 0.01, 0.001, -0.02, 0.05);
+            default:
+                throw new IllegalArgumentException("Unknown price model: " + name);
+        }
+    }
+    
+    static MarketService create(int symbolCount) {
+        return create(symbolCount, 1, TimeUnit.SECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,61 @@
+package com.cryptoui.bench;
+
+import com.cryptoui.ui.DecimatedSeries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Price chart decimation benchmarks: the per-tick append and the per-frame copy
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChartBenchmark {
+    @Param({"100000", "4194304"})
+    public int points;
+    
+    private DecimatedSeries series;
+    private long[] times;
+    private double[] values;
+    private long time;
+    private double price;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        series = new DecimatedSeries(2048, 1L << 22);
+        times = new long[series.maxPoints()];
+        values = new double[series.maxPoints()];
+        price = 100;
+        for (time = 0; time < points; time++) {
+            price += Math.sin(time * 0.001);
+            series.append(time, price);
+        }
+    }
+    
+    @Benchmark
+    public long append() {
+        price += Math.sin(time * 0.001);
+        series.append(time++, price);
+        return series.getPointCount();
+    }
+    
+    @Benchmark
+    public int copyPoints() {
+        return series.copyPoints(times, values);
+    }
+}
@@ -0,0 +1,53 @@
+package com.cryptoui.bench;
+
+import com.cryptoui.text.NumberFormatter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Price formatting benchmarks: String.format against the number formatter,
+ * for changing values and for a cell re-rendering an unchanged one
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FormatBenchmark {
+    private final NumberFormatter formatter = NumberFormatter.currency();
+    private final char[] buffer = new char[formatter.getMaxLength()];
+    private double price = 27086.5;
+    
+    @Benchmark
+    public String stringFormat() {
+        price += 0.01;
+        return String.format("$%.2f", price);
+    }
+    
+    @Benchmark
+    public String formatterText() {
+        price += 0.01;
+        return formatter.text(price);
+    }
+    
+    @Benchmark
+    public int formatterIntoBuffer() {
+        price += 0.01;
+        return formatter.formatTo(price, buffer, 0);
+    }
+    
+    @Benchmark
+    public String formatterUnchanged() {
+        return formatter.text(price);
+    }
+}
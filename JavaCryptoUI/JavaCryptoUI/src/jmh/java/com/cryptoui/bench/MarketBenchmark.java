@@ -0,0 +1,113 @@
+package com.cryptoui.bench;
+
+import com.cryptoui.market.MarketState;
+import com.cryptoui.market.TickEngine;
+import com.cryptoui.model.Cryptocurrency;
+import com.cryptoui.model.MarketService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Price update benchmarks: a single {@link Cryptocurrency#updatePrice()} and full-universe
+ * ticks of a {@link MarketService}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarketBenchmark {
+    
+    /**
+     * Universe ticked synchronously on the benchmark thread
+     */
+    @State(Scope.Benchmark)
+    public static class Universe {
+        @Param({"5", "100", "10000"})
+        public int symbolCount;
+        
+        @Param({"walk", "gbm", "meanReversion", "jumpDiffusion"})
+        public String priceModel;
+        
+        MarketService market;
+        Cryptocurrency bitcoin;
+        
+        @Setup(Level.Trial)
+        public void setUp() {
+            market = BenchmarkMarkets.create(symbolCount);
+            MarketState state = market.getMarketState();
+            state.setPriceModel(BenchmarkMarkets.priceModel(priceModel, state.capacity()));
+            state.seed(42);
+            bitcoin = market.getCryptocurrency("BTC");
+        }
+    }
+    
+    /**
+     * Universe ticked back to back by a running engine with a number of workers
+     */
+    @State(Scope.Benchmark)
+    public static class RunningUniverse {
+        @Param({"100", "10000", "100000"})
+        public int symbolCount;
+        
+        @Param({"1", "2", "4"})
+        public int workers;
+        
+        MarketService market;
+        TickEngine engine;
+        
+        @Setup(Level.Trial)
+        public void setUp() {
+            // A 1ns interval makes the driver fall behind and tick continuously
+            market = BenchmarkMarkets.create(symbolCount, workers, 1);
+            engine = market.getTickEngine();
+            market.startMarketUpdates();
+        }
+        
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            market.stopMarketUpdates();
+        }
+    }
+    
+    @Benchmark
+    public double updatePrice(Universe universe) {
+        universe.bitcoin.updatePrice();
+        return universe.bitcoin.getPrice();
+    }
+    
+    @Benchmark
+    public long tickUniverse(Universe universe) {
+        TickEngine engine = universe.market.getTickEngine();
+        engine.tickOnce();
+        return engine.getSequence();
+    }
+    
+    /**
+     * Wall time of one parallel tick, measured as the time until the engine publishes
+     * the next sequence
+     */
+    @Benchmark
+    public long tickUniverseParallel(RunningUniverse universe) {
+        TickEngine engine = universe.engine;
+        long target = engine.getSequence() + 1;
+        long sequence;
+        while ((sequence = engine.getSequence()) < target) {
+            Thread.yield();
+        }
+        return sequence;
+    }
+}
@@ -0,0 +1,82 @@
+package com.cryptoui.bench;
+
+import com.cryptoui.exchange.OrderBook;
+import com.cryptoui.exchange.OrderType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-symbol matching benchmarks on a book with a given number of levels per side.
+ * Run with {@code -prof gc} to confirm the steady state allocates nothing.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OrderBookBenchmark {
+    private static final long MID = OrderBook.toFixed(100.0);
+    private static final long TICK = OrderBook.toFixed(0.01);
+    private static final long LEVEL_QUANTITY = OrderBook.toFixed(1.0);
+    private static final long ORDER_QUANTITY = OrderBook.toFixed(0.1);
+    
+    @Param({"1", "16", "256"})
+    public int depth;
+    
+    private OrderBook book;
+    private int cursor;
+    
+    @Setup(Level.Iteration)
+    public void setUp() {
+        book = new OrderBook((makerOrderId, makerOwner, takerOwner, takerBuys, price, quantity) -> { });
+        for (int level = 1; level <= depth; level++) {
+            book.submit(1, true, OrderType.LIMIT, MID - level * TICK, LEVEL_QUANTITY);
+            book.submit(1, false, OrderType.LIMIT, MID + level * TICK, LEVEL_QUANTITY);
+        }
+    }
+    
+    /**
+     * Rest a passive order somewhere inside the book and cancel it again
+     */
+    @Benchmark
+    public long postAndCancel() {
+        int level = 1 + (cursor++ % depth);
+        long orderId = book.submit(2, true, OrderType.LIMIT, MID - level * TICK, ORDER_QUANTITY);
+        return book.cancel(orderId);
+    }
+    
+    /**
+     * Take liquidity from the best ask with an IOC order and replenish it; two orders per call
+     */
+    @Benchmark
+    public long matchAndReplenish() {
+        book.submit(2, true, OrderType.IOC, MID + TICK, ORDER_QUANTITY);
+        book.submit(1, false, OrderType.LIMIT, MID + TICK, ORDER_QUANTITY);
+        return book.getLastTradePrice();
+    }
+    
+    /**
+     * Sweep the whole ask side with a market order and rebuild it
+     */
+    @Benchmark
+    public long sweepAndRebuild() {
+        book.submit(2, true, OrderType.MARKET, 0, depth * LEVEL_QUANTITY);
+        for (int level = 1; level <= depth; level++) {
+            book.submit(1, false, OrderType.LIMIT, MID + level * TICK, LEVEL_QUANTITY);
+        }
+        return book.getLastTradePrice();
+    }
+}
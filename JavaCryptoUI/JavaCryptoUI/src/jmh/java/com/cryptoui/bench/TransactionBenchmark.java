@@ -0,0 +1,45 @@
+package com.cryptoui.bench;
+
+import com.cryptoui.model.Transaction;
+import com.cryptoui.model.Transaction.TransactionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transaction formatting benchmarks
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TransactionBenchmark {
+    private Transaction transaction;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        transaction = new Transaction("bench", "BTC", 0.125, 42150.75, TransactionType.BUY);
+    }
+    
+    @Benchmark
+    public String toStringFormat() {
+        return transaction.toString();
+    }
+    
+    @Benchmark
+    public String getFormattedTimestamp() {
+        return transaction.getFormattedTimestamp();
+    }
+}
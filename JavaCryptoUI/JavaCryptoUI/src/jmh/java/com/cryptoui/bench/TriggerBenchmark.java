@@ -0,0 +1,113 @@
+package com.cryptoui.bench;
+
+import com.cryptoui.market.MarketSnapshot;
+import com.cryptoui.market.MarketState;
+import com.cryptoui.model.MarketService;
+import com.cryptoui.model.Transaction.TransactionType;
+import com.cryptoui.model.User;
+import com.cryptoui.triggers.AlertEngine;
+import com.cryptoui.triggers.Condition;
+import com.cryptoui.triggers.ConditionalOrderType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-tick cost of the alert engine with a given number of resting alerts or trailing
+ * stops on one symbol. The quiet tick should not depend on how many rest.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Thread)
+public class TriggerBenchmark {
+    private static final String SYMBOL = "BTC";
+    // Resting alerts lie between 1% and 50% away from the price
+    private static final double NEAREST = 0.01;
+    private static final double FARTHEST = 0.5;
+    private static final double STOP_AMOUNT = 0.001;
+    
+    @Param({"0", "1000", "1000000"})
+    public int resting;
+    
+    @Param({"alerts", "trailing"})
+    public String kind;
+    
+    private AlertEngine engine;
+    private User user;
+    private double price;
+    private MarketSnapshot quiet;
+    private MarketSnapshot crossing;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        MarketService market = BenchmarkMarkets.create(BenchmarkMarkets.BUILT_IN_SYMBOLS, 1, 1_000_000_000L);
+        MarketState state = market.getMarketState();
+        engine = new AlertEngine(state, market.getExchange());
+        user = new User("bench");
+        
+        int id = state.idOf(SYMBOL);
+        price = state.getPrice(id);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < resting; i++) {
+            double distance = NEAREST + random.nextDouble() * (FARTHEST - NEAREST);
+            if (kind.equals("trailing")) {
+                TransactionType side = random.nextBoolean() ? TransactionType.BUY : TransactionType.SELL;
+                engine.placeConditionalOrder(user, SYMBOL, side, ConditionalOrderType.TRAILING_STOP,
+                                             price * distance, 0, STOP_AMOUNT);
+            } else if (random.nextBoolean()) {
+                engine.addAlert(user, SYMBOL, Condition.ABOVE, price * (1 + distance));
+            } else {
+                engine.addAlert(user, SYMBOL, Condition.BELOW, price * (1 - distance));
+            }
+        }
+        
+        quiet = snapshot(state, id, price);
+        crossing = snapshot(state, id, price * (1 + NEAREST / 2));
+        // Merge the registrations before measuring
+        engine.onSnapshot(quiet);
+    }
+    
+    /**
+     * A tick that crosses no alert
+     */
+    @Benchmark
+    public void quietTick() {
+        engine.onSnapshot(quiet);
+    }
+    
+    /**
+     * Add an alert just inside the price move, fire it with a tick and return to the price
+     */
+    @Benchmark
+    public void fireOne() {
+        engine.addAlert(user, SYMBOL, Condition.ABOVE, price * (1 + NEAREST / 4));
+        engine.onSnapshot(crossing);
+        engine.onSnapshot(quiet);
+    }
+    
+    private static MarketSnapshot snapshot(MarketState state, int id, double symbolPrice) {
+        int size = state.size();
+        String[] symbols = new String[size];
+        double[] prices = new double[size];
+        for (int i = 0; i < size; i++) {
+            symbols[i] = state.getSymbol(i);
+            prices[i] = i == id ? symbolPrice : state.getPrice(i);
+        }
+        return new MarketSnapshot(1, 0, symbols, prices, new double[size]);
+    }
+}
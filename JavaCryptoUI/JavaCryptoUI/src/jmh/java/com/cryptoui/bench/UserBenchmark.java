@@ -0,0 +1,110 @@
+package com.cryptoui.bench;
+
+import com.cryptoui.market.MarketState;
+import com.cryptoui.model.MarketService;
+import com.cryptoui.model.PortfolioValuator;
+import com.cryptoui.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Account benchmarks: trading and portfolio valuation.
+ * All benchmark threads share one account, so running with {@code -t N} measures
+ * contention on it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserBenchmark {
+    private static final double TRADE_AMOUNT = 0.001;
+    
+    @State(Scope.Benchmark)
+    public static class Account {
+        @Param({"1", "16", "256"})
+        public int holdingsCount;
+        
+        MarketState marketState;
+        User user;
+        String[] symbols;
+        double[] prices;
+        
+        @Setup(Level.Trial)
+        public void setUp() {
+            MarketService market = BenchmarkMarkets.create(holdingsCount);
+            marketState = market.getMarketState();
+            PortfolioValuator valuator = new PortfolioValuator(marketState);
+            
+            user = new User("bench");
+            valuator.attach(user);
+            user.setBalance(5e10);
+            
+            symbols = new String[holdingsCount];
+            prices = new double[holdingsCount];
+            for (int i = 0; i < holdingsCount; i++) {
+                symbols[i] = marketState.getSymbol(i);
+                prices[i] = marketState.getPrice(i);
+                user.buyCrypto(symbols[i], 1.0, prices[i]);
+            }
+        }
+    }
+    
+    /**
+     * Per-thread cursor so threads trade across the held symbols
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+        
+        int advance(int count) {
+            int index = next;
+            next = index + 1 == count ? 0 : index + 1;
+            return index;
+        }
+    }
+    
+    @Benchmark
+    public boolean buyCrypto(Account account, Cursor cursor) {
+        int i = cursor.advance(account.holdingsCount);
+        return account.user.buyCrypto(account.symbols[i], TRADE_AMOUNT, account.prices[i]);
+    }
+    
+    /**
+     * Buy followed by a sell of the same amount, keeping the account in steady state
+     */
+    @Benchmark
+    public boolean buyThenSellCrypto(Account account, Cursor cursor) {
+        int i = cursor.advance(account.holdingsCount);
+        return account.user.buyCrypto(account.symbols[i], TRADE_AMOUNT, account.prices[i])
+            && account.user.sellCrypto(account.symbols[i], TRADE_AMOUNT, account.prices[i]);
+    }
+    
+    /**
+     * Incrementally maintained value
+     */
+    @Benchmark
+    public double getPortfolioValue(Account account) {
+        return account.user.getPortfolioValue();
+    }
+    
+    /**
+     * Full revaluation of every holding against the market state
+     */
+    @Benchmark
+    public double revaluePortfolio(Account account) {
+        return account.user.getPortfolioValue(account.marketState);
+    }
+}
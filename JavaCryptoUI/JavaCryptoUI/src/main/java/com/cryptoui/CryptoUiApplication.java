@@ -1,57 +1,72 @@
-package com.cryptoui;
-
-import com.cryptoui.controller.CryptoController;
-import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
-import javafx.scene.image.Image;
-import javafx.stage.Stage;
-
-import java.io.IOException;
-
-/**
- * Main JavaFX application class for the Crypto UI
- */
-public class CryptoUiApplication extends Application {
-    
-    @Override
-    public void start(Stage primaryStage) {
-        try {
-            // Load the FXML file
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/main.fxml"));
-            Parent root = loader.load();
-            
-            // Get the controller
-            CryptoController controller = loader.getController();
-            
-            // Set up the scene
-            Scene scene = new Scene(root);
-            
-            // Set up the stage
-            primaryStage.setTitle("Cryptocurrency Trading Simulator");
-            primaryStage.setScene(scene);
-            primaryStage.setMinWidth(1000);
-            primaryStage.setMinHeight(700);
-            
-            // Set up application shutdown handling
-            primaryStage.setOnCloseRequest(event -> {
-                controller.shutdown();
-            });
-            
-            // Show the stage
-            primaryStage.show();
-            
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-    }
-    
-    /**
-     * The main method is only needed for the IDE with limited JavaFX support.
-     * It is not needed for running from the command line.
-     */
-    public static void main(String[] args) {
-        launch(args);
-    }
+package com.cryptoui;
+
+import com.cryptoui.controller.CryptoController;
+import javafx.animation.PauseTransition;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.image.Image;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+
+import java.io.IOException;
+
+/**
+ * Main JavaFX application class for the Crypto UI
+ */
+public class CryptoUiApplication extends Application {
+    // Quit on its own once running, e.g. -Dcryptoui.exitAfterMillis=8000 for the CDS training run
+    private static final String EXIT_AFTER_PROPERTY = "cryptoui.exitAfterMillis";
+    
+    @Override
+    public void start(Stage primaryStage) {
+        try {
+            // Load the FXML file
+            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/main.fxml"));
+            Parent root = loader.load();
+            
+            // Get the controller
+            CryptoController controller = loader.getController();
+            
+            // Set up the scene
+            Scene scene = new Scene(root);
+            
+            // Set up the stage
+            primaryStage.setTitle("Cryptocurrency Trading Simulator");
+            primaryStage.setScene(scene);
+            primaryStage.setMinWidth(1000);
+            primaryStage.setMinHeight(700);
+            
+            // Set up application shutdown handling
+            primaryStage.setOnCloseRequest(event -> {
+                controller.shutdown();
+            });
+            
+            // Show the stage
+            primaryStage.show();
+            
+            String exitAfter = System.getProperty(EXIT_AFTER_PROPERTY);
+            if (exitAfter != null) {
+                PauseTransition run = new PauseTransition(Duration.millis(Long.parseLong(exitAfter)));
+                run.setOnFinished(event -> {
+                    controller.shutdown();
+                    Platform.exit();
+                });
+                run.play();
+            }
+            
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * The main method is only needed for the IDE with limited JavaFX support.
+     * It is not needed for running from the command line.
+     */
+    public static void main(String[] args) {
+        launch(args);
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.cryptoui.backtest;
+
+import com.cryptoui.market.GeometricBrownianModel;
+import com.cryptoui.market.MarketState;
+import com.cryptoui.model.MarketService;
+import com.cryptoui.replay.TickSource;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Command-line backtest that sweeps {@link MovingAverageCrossStrategy} over a grid of
+ * fast and slow periods, without starting JavaFX:
+ * <pre>
+ * java -cp target/java-crypto-ui-1.0-SNAPSHOT.jar com.cryptoui.backtest.BacktestApp [ticks.csv|ticks.jsonl|ticks.bin]
+ * </pre>
+ * Without a file, a week of one-second ticks is simulated for the listed symbols.
+ */
+public class BacktestApp {
+    private static final int SIMULATED_STEPS = 7 * 24 * 60 * 60;
+    private static final long SIMULATION_SEED = 42;
+    private static final double ALLOCATION = 0.25;
+    
+    public static void main(String[] args) throws IOException {
+        MarketState market = new MarketService().getMarketState();
+        TickTape tape;
+        if (args.length > 0) {
+            tape = TickTape.load(TickSource.open(Paths.get(args[0]), market), market);
+        } else {
+            tape = simulate(market);
+        }
+        System.out.printf("Loaded %,d ticks for %d symbols%n", tape.size(), tape.getSymbolCount());
+        
+        List<Periods> grid = new ArrayList<>();
+        for (int fast = 5; fast <= 100; fast += 5) {
+            for (int slow = fast * 2; slow <= 1000; slow += 50) {
+                grid.add(new Periods(fast, slow));
+            }
+        }
+        
+        BacktestRunner runner = new BacktestRunner(tape, Collections.singletonList("backtest"));
+        runner.setFeeRate(0.001);
+        BacktestSweep sweep = runner.sweep(grid,
+            periods -> new MovingAverageCrossStrategy(periods.fast, periods.slow, ALLOCATION));
+        System.out.print(sweep.report(10));
+    }
+    
+    private static TickTape simulate(MarketState market) {
+        String[] symbols = new String[market.size()];
+        double[] prices = new double[market.size()];
+        for (int id = 0; id < symbols.length; id++) {
+            symbols[id] = market.getSymbol(id);
+            prices[id] = market.getPrice(id);
+        }
+        // 80% annual volatility, scaled to one-second steps
+        double volatility = 0.8 / Math.sqrt(365.0 * 24 * 60 * 60);
+        return TickTape.simulate(symbols, prices, new GeometricBrownianModel(0, volatility), SIMULATION_SEED,
+                                 SIMULATED_STEPS, System.currentTimeMillis(), 1000);
+    }
+    
+    /**
+     * One point of the parameter grid
+     */
+    private static final class Periods {
+        final int fast;
+        final int slow;
+        
+        Periods(int fast, int slow) {
+            this.fast = fast;
+            this.slow = slow;
+        }
+        
+        @Override
+        public String toString() {
+            return "EMA " + fast + "/" + slow;
+        }
+    }
+}
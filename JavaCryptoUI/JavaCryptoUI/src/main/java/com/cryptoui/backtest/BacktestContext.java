@@ -0,0 +1,164 @@
+package com.cryptoui.backtest;
+
+import com.cryptoui.market.Fixed;
+import com.cryptoui.model.PortfolioValuator;
+import com.cryptoui.model.User;
+
+import java.util.List;
+
+/**
+ * View of one backtest run handed to its {@link Strategy}: the current time and prices
+ * of the tape, the run's accounts, and order entry at the current price.
+ * <p>
+ * Orders fill immediately and in full at the last price, adjusted by the runner's fee
+ * rate, against the {@link User} accounts of the run.
+ */
+public final class BacktestContext {
+    private final TickTape tape;
+    private final List<User> accounts;
+    private final PortfolioValuator valuator;
+    private final double feeRate;
+    private final double[] prices;
+    private long timeMillis;
+    private long trades;
+    
+    BacktestContext(TickTape tape, List<User> accounts, PortfolioValuator valuator, double feeRate) {
+        this.tape = tape;
+        this.accounts = accounts;
+        this.valuator = valuator;
+        this.feeRate = feeRate;
+        this.prices = new double[tape.getSymbolCount()];
+    }
+    
+    /**
+     * Move the run to a tick and re-mark the accounts holding its symbol
+     */
+    void advance(long timeMillis, int symbolId, double price) {
+        this.timeMillis = timeMillis;
+        prices[symbolId] = price;
+        valuator.mark(symbolId, price);
+    }
+    
+    /**
+     * Get the recorded time of the current tick
+     * @return Epoch milliseconds
+     */
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+    
+    /**
+     * Get the last price of a symbol
+     * @return Price per unit, or 0 if the symbol has not ticked yet
+     */
+    public double getPrice(int symbolId) {
+        return prices[symbolId];
+    }
+    
+    public int getSymbolCount() {
+        return prices.length;
+    }
+    
+    public String getSymbol(int symbolId) {
+        return tape.getSymbol(symbolId);
+    }
+    
+    /**
+     * Get the accounts trading in this run, in the order they were configured
+     */
+    public List<User> getAccounts() {
+        return accounts;
+    }
+    
+    /**
+     * Buy at the current price plus fees
+     * @return false if the symbol has no price yet or the account cannot afford it
+     */
+    public boolean buy(User user, int symbolId, double amount) {
+        double price = prices[symbolId];
+        if (!(price > 0) || !(amount > 0)) {
+            return false;
+        }
+        return buyUnits(user, symbolId, Fixed.of(amount), Fixed.of(price * (1 + feeRate)));
+    }
+    
+    /**
+     * Spend a cash amount, including fees, on a symbol
+     * @return false if the symbol has no price yet or the account cannot afford it
+     */
+    public boolean buyWorth(User user, int symbolId, double cash) {
+        double price = prices[symbolId] * (1 + feeRate);
+        if (!(price > 0) || !(cash > 0)) {
+            return false;
+        }
+        long priceUnits = Fixed.of(price);
+        long cashUnits = Fixed.of(cash);
+        long amount = Fixed.divide(cashUnits, priceUnits);
+        if (Fixed.multiplyUp(amount, priceUnits) > cashUnits) {
+            // The cost is rounded up, which must not push it past the cash on hand
+            amount--;
+        }
+        return amount > 0 && buyUnits(user, symbolId, amount, priceUnits);
+    }
+    
+    private boolean buyUnits(User user, int symbolId, long amount, long price) {
+        if (!user.buyUnits(tape.getSymbol(symbolId), amount, price)) {
+            return false;
+        }
+        trades++;
+        return true;
+    }
+    
+    /**
+     * Sell at the current price minus fees
+     * @return false if the symbol has no price yet or the account does not hold the amount
+     */
+    public boolean sell(User user, int symbolId, double amount) {
+        return amount > 0 && sellUnits(user, symbolId, Fixed.of(amount));
+    }
+    
+    /**
+     * Sell an account's entire holding of a symbol
+     * @return false if there was nothing to sell
+     */
+    public boolean sellAll(User user, int symbolId) {
+        return sellUnits(user, symbolId, user.getCryptoUnits(tape.getSymbol(symbolId)));
+    }
+    
+    private boolean sellUnits(User user, int symbolId, long amount) {
+        double price = prices[symbolId];
+        if (!(price > 0) || amount <= 0) {
+            return false;
+        }
+        if (!user.sellUnits(tape.getSymbol(symbolId), amount, Fixed.of(price * (1 - feeRate)))) {
+            return false;
+        }
+        trades++;
+        return true;
+    }
+    
+    /**
+     * Get an account's cash plus holdings at the current prices
+     */
+    public double getEquity(User user) {
+        return user.getBalance() + user.getPortfolioValue();
+    }
+    
+    /**
+     * Get the combined equity of every account in the run
+     */
+    public double getTotalEquity() {
+        double equity = 0;
+        for (int i = 0; i < accounts.size(); i++) {
+            equity += getEquity(accounts.get(i));
+        }
+        return equity;
+    }
+    
+    /**
+     * Get the number of orders filled so far
+     */
+    public long getTrades() {
+        return trades;
+    }
+}
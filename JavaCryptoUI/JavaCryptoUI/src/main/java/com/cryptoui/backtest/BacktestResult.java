@@ -0,0 +1,97 @@
+package com.cryptoui.backtest;
+
+/**
+ * Outcome of one backtest run: profit and loss, drawdown and throughput
+ */
+public final class BacktestResult {
+    private final Object parameters;
+    private final double startingEquity;
+    private final double finalEquity;
+    private final double maxDrawdown;
+    private final double maxDrawdownPercent;
+    private final long trades;
+    private final long ticks;
+    private final long elapsedNanos;
+    
+    BacktestResult(Object parameters, double startingEquity, double finalEquity, double maxDrawdown,
+                   double maxDrawdownPercent, long trades, long ticks, long elapsedNanos) {
+        this.parameters = parameters;
+        this.startingEquity = startingEquity;
+        this.finalEquity = finalEquity;
+        this.maxDrawdown = maxDrawdown;
+        this.maxDrawdownPercent = maxDrawdownPercent;
+        this.trades = trades;
+        this.ticks = ticks;
+        this.elapsedNanos = elapsedNanos;
+    }
+    
+    /**
+     * Get the parameters the strategy was created from in a sweep
+     * @return Sweep parameters, or null for a single run
+     */
+    public Object getParameters() {
+        return parameters;
+    }
+    
+    public double getStartingEquity() {
+        return startingEquity;
+    }
+    
+    public double getFinalEquity() {
+        return finalEquity;
+    }
+    
+    /**
+     * Get the profit or loss over the run
+     * @return Final minus starting equity of all accounts
+     */
+    public double getPnl() {
+        return finalEquity - startingEquity;
+    }
+    
+    public double getReturnPercent() {
+        return startingEquity == 0 ? 0 : getPnl() / startingEquity * 100.0;
+    }
+    
+    /**
+     * Get the largest fall in total equity from a previous peak
+     * @return Drawdown in cash
+     */
+    public double getMaxDrawdown() {
+        return maxDrawdown;
+    }
+    
+    /**
+     * Get the largest fall in total equity from a previous peak, relative to that peak
+     * @return Drawdown in percent
+     */
+    public double getMaxDrawdownPercent() {
+        return maxDrawdownPercent;
+    }
+    
+    public long getTrades() {
+        return trades;
+    }
+    
+    public long getTicks() {
+        return ticks;
+    }
+    
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+    
+    /**
+     * Get the number of ticks the run processed per second of wall time
+     */
+    public double getTicksPerSecond() {
+        return elapsedNanos == 0 ? 0 : ticks * 1e9 / elapsedNanos;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s: PnL $%.2f (%.2f%%), max drawdown $%.2f (%.2f%%), %d trades, %.1fM ticks/s",
+                             parameters, getPnl(), getReturnPercent(), maxDrawdown, maxDrawdownPercent,
+                             trades, getTicksPerSecond() / 1e6);
+    }
+}
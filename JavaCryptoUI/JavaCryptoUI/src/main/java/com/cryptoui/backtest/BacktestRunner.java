@@ -0,0 +1,164 @@
+package com.cryptoui.backtest;
+
+import com.cryptoui.market.MarketState;
+import com.cryptoui.model.PortfolioValuator;
+import com.cryptoui.model.User;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Runs strategies over a {@link TickTape} without a UI.
+ * <p>
+ * Every run gets its own market, {@link PortfolioValuator} and freshly funded
+ * {@link User} accounts, so runs share nothing but the read-only tape. A sweep runs
+ * one strategy per parameter combination in parallel on a {@link ForkJoinPool}, one
+ * run per task, and collects PnL, drawdown and throughput for each.
+ */
+public class BacktestRunner {
+    private final TickTape tape;
+    private final List<String> accountNames;
+    private double startingBalance = 10_000;
+    private double feeRate;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    
+    /**
+     * Create a runner
+     * @param tape Ticks every run replays
+     * @param accountNames Usernames of the accounts created for each run
+     */
+    public BacktestRunner(TickTape tape, List<String> accountNames) {
+        if (accountNames.isEmpty()) {
+            throw new IllegalArgumentException("At least one account is required");
+        }
+        this.tape = tape;
+        this.accountNames = new ArrayList<>(accountNames);
+    }
+    
+    /**
+     * Set the cash each account starts every run with
+     */
+    public void setStartingBalance(double startingBalance) {
+        if (!(startingBalance >= 0)) {
+            throw new IllegalArgumentException("Starting balance must not be negative");
+        }
+        this.startingBalance = startingBalance;
+    }
+    
+    /**
+     * Set the fee charged on every fill, as a fraction of its value, e.g. 0.001 for 0.1%
+     */
+    public void setFeeRate(double feeRate) {
+        if (!(feeRate >= 0 && feeRate < 1)) {
+            throw new IllegalArgumentException("Fee rate must be in [0, 1)");
+        }
+        this.feeRate = feeRate;
+    }
+    
+    /**
+     * Set the number of runs a sweep executes at once
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.parallelism = parallelism;
+    }
+    
+    /**
+     * Run one strategy over the whole tape on the calling thread
+     */
+    public BacktestResult run(Strategy strategy) {
+        return run(strategy, null);
+    }
+    
+    /**
+     * Run a strategy for every parameter combination in parallel
+     * @param parameters Parameter combinations, e.g. records or arrays with a useful toString
+     * @param factory Creates a fresh strategy from one combination
+     * @return Results in the order of the parameters
+     * @throws IllegalStateException if a run fails
+     */
+    public <P> BacktestSweep sweep(List<P> parameters, Function<? super P, ? extends Strategy> factory) {
+        List<Callable<BacktestResult>> runs = new ArrayList<>(parameters.size());
+        for (P combination : parameters) {
+            runs.add(() -> run(factory.apply(combination), combination));
+        }
+        
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<Future<BacktestResult>> futures = pool.invokeAll(runs);
+            List<BacktestResult> results = new ArrayList<>(futures.size());
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Backtest failed for " + parameters.get(i), e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted during backtest sweep", e);
+                }
+            }
+            return new BacktestSweep(results, System.nanoTime() - start);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+    
+    private BacktestResult run(Strategy strategy, Object parameters) {
+        long start = System.nanoTime();
+        
+        // Private market for this run; only symbol ids and marks are used
+        MarketState market = new MarketState(Math.max(1, tape.getSymbolCount()));
+        double[] opening = tape.getOpeningPrices();
+        for (int id = 0; id < tape.getSymbolCount(); id++) {
+            String symbol = tape.getSymbol(id);
+            market.add(symbol, symbol, "", opening[id], 0, 0);
+        }
+        PortfolioValuator valuator = new PortfolioValuator(market);
+        List<User> accounts = new ArrayList<>(accountNames.size());
+        for (String name : accountNames) {
+            User user = new User(name);
+            user.setBalance(startingBalance);
+            valuator.attach(user);
+            accounts.add(user);
+        }
+        
+        BacktestContext context = new BacktestContext(tape, Collections.unmodifiableList(accounts),
+                                                      valuator, feeRate);
+        double startingEquity = startingBalance * accounts.size();
+        double peak = startingEquity;
+        double maxDrawdown = 0;
+        double maxDrawdownPercent = 0;
+        
+        strategy.onStart(context);
+        int size = tape.size();
+        for (int i = 0; i < size; i++) {
+            context.advance(tape.getTime(i), tape.getSymbolId(i), tape.getPrice(i));
+            strategy.onTick(context, tape.getSymbolId(i));
+            
+            double equity = context.getTotalEquity();
+            if (equity >= peak) {
+                peak = equity;
+                continue;
+            }
+            // The largest cash and percentage drawdowns may come from different peaks
+            double drawdown = peak - equity;
+            maxDrawdown = Math.max(maxDrawdown, drawdown);
+            if (peak > 0) {
+                maxDrawdownPercent = Math.max(maxDrawdownPercent, drawdown / peak * 100.0);
+            }
+        }
+        strategy.onFinish(context);
+        
+        return new BacktestResult(parameters, startingEquity, context.getTotalEquity(), maxDrawdown,
+                                  maxDrawdownPercent, context.getTrades(), size, System.nanoTime() - start);
+    }
+}
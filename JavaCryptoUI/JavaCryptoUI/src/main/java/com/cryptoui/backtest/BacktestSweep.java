@@ -0,0 +1,71 @@
+package com.cryptoui.backtest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Results of a parameter sweep, in the order the parameters were given
+ */
+public final class BacktestSweep {
+    private final List<BacktestResult> results;
+    private final long elapsedNanos;
+    
+    BacktestSweep(List<BacktestResult> results, long elapsedNanos) {
+        this.results = Collections.unmodifiableList(results);
+        this.elapsedNanos = elapsedNanos;
+    }
+    
+    public List<BacktestResult> getResults() {
+        return results;
+    }
+    
+    /**
+     * Get the wall time of the whole sweep
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+    
+    /**
+     * Get the ticks processed per second of wall time across all runs
+     */
+    public double getTicksPerSecond() {
+        long ticks = 0;
+        for (BacktestResult result : results) {
+            ticks += result.getTicks();
+        }
+        return elapsedNanos == 0 ? 0 : ticks * 1e9 / elapsedNanos;
+    }
+    
+    /**
+     * Get the runs with the highest PnL
+     * @param count Maximum number of runs to return
+     * @return Runs ordered from best to worst
+     */
+    public List<BacktestResult> getBest(int count) {
+        List<BacktestResult> sorted = new ArrayList<>(results);
+        sorted.sort(Comparator.comparingDouble(BacktestResult::getPnl).reversed());
+        return sorted.subList(0, Math.min(count, sorted.size()));
+    }
+    
+    /**
+     * Format a summary of the sweep and its best runs
+     * @param top Number of best runs to list
+     */
+    public String report(int top) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%d runs in %.2f s, %.1fM ticks/s%n",
+                                    results.size(), elapsedNanos / 1e9, getTicksPerSecond() / 1e6));
+        for (BacktestResult result : getBest(top)) {
+            report.append("  ").append(result).append(System.lineSeparator());
+        }
+        return report.toString();
+    }
+    
+    @Override
+    public String toString() {
+        return report(5);
+    }
+}
@@ -0,0 +1,88 @@
+package com.cryptoui.backtest;
+
+import com.cryptoui.model.User;
+
+import java.util.List;
+
+/**
+ * Trend-following example strategy: holds a symbol while its fast exponential moving
+ * average is above its slow one.
+ * <p>
+ * When the fast average crosses above the slow average each account spends a share of
+ * its cash on the symbol, and when it crosses back below the position is sold. Both
+ * averages update in O(1) per tick.
+ */
+public class MovingAverageCrossStrategy implements Strategy {
+    private final int fastPeriod;
+    private final int slowPeriod;
+    private final double allocation;
+    
+    private double[] fastAverages;
+    private double[] slowAverages;
+    private long[] ticksSeen;
+    private boolean[] holding;
+    
+    /**
+     * Create the strategy
+     * @param fastPeriod Ticks averaged by the fast average
+     * @param slowPeriod Ticks averaged by the slow average; must exceed the fast period
+     * @param allocation Fraction of the remaining cash spent on each entry, in (0, 1]
+     */
+    public MovingAverageCrossStrategy(int fastPeriod, int slowPeriod, double allocation) {
+        if (fastPeriod < 1 || slowPeriod <= fastPeriod) {
+            throw new IllegalArgumentException("Need 1 <= fast period < slow period");
+        }
+        if (!(allocation > 0 && allocation <= 1)) {
+            throw new IllegalArgumentException("Allocation must be in (0, 1]");
+        }
+        this.fastPeriod = fastPeriod;
+        this.slowPeriod = slowPeriod;
+        this.allocation = allocation;
+    }
+    
+    @Override
+    public void onStart(BacktestContext context) {
+        int symbols = context.getSymbolCount();
+        fastAverages = new double[symbols];
+        slowAverages = new double[symbols];
+        ticksSeen = new long[symbols];
+        holding = new boolean[symbols];
+    }
+    
+    @Override
+    public void onTick(BacktestContext context, int symbolId) {
+        double price = context.getPrice(symbolId);
+        long seen = ++ticksSeen[symbolId];
+        if (seen == 1) {
+            fastAverages[symbolId] = price;
+            slowAverages[symbolId] = price;
+            return;
+        }
+        fastAverages[symbolId] += (price - fastAverages[symbolId]) * 2.0 / (fastPeriod + 1);
+        slowAverages[symbolId] += (price - slowAverages[symbolId]) * 2.0 / (slowPeriod + 1);
+        if (seen < slowPeriod) {
+            // Averages have not warmed up yet
+            return;
+        }
+        
+        boolean bullish = fastAverages[symbolId] > slowAverages[symbolId];
+        if (bullish == holding[symbolId]) {
+            return;
+        }
+        holding[symbolId] = bullish;
+        List<User> accounts = context.getAccounts();
+        for (int i = 0; i < accounts.size(); i++) {
+            User user = accounts.get(i);
+            if (bullish) {
+                context.buyWorth(user, symbolId, user.getBalance() * allocation);
+            } else {
+                context.sellAll(user, symbolId);
+            }
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return "EMA cross " + fastPeriod + "/" + slowPeriod;
+    }
+}
@@ -0,0 +1,30 @@
+package com.cryptoui.backtest;
+
+/**
+ * Trading logic run by a {@link BacktestRunner}.
+ * <p>
+ * A strategy instance belongs to a single run and is called from one thread, so it
+ * may keep mutable state in plain fields. Sweeps create a fresh instance per
+ * parameter combination.
+ */
+public interface Strategy {
+    
+    /**
+     * Called once before the first tick
+     */
+    default void onStart(BacktestContext context) {
+    }
+    
+    /**
+     * Called after each tick has moved a symbol's price
+     * @param context Prices, accounts and order entry of this run
+     * @param symbolId Symbol whose price just changed
+     */
+    void onTick(BacktestContext context, int symbolId);
+    
+    /**
+     * Called once after the last tick, before the result is taken
+     */
+    default void onFinish(BacktestContext context) {
+    }
+}
@@ -0,0 +1,149 @@
+package com.cryptoui.backtest;
+
+import com.cryptoui.market.MarketState;
+import com.cryptoui.market.PriceModel;
+import com.cryptoui.market.RowRandom;
+import com.cryptoui.replay.TickSource;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Immutable, in-memory sequence of ticks that backtests run over.
+ * <p>
+ * Ticks are held in three primitive columns, so a tape of weeks of data is loaded or
+ * generated once and then shared read-only by every run of a sweep, with no file I/O
+ * or parsing per run.
+ */
+public final class TickTape {
+    private final String[] symbols;
+    private final long[] times;
+    private final int[] symbolIds;
+    private final double[] prices;
+    private final int size;
+    
+    private TickTape(String[] symbols, long[] times, int[] symbolIds, double[] prices, int size) {
+        this.symbols = symbols;
+        this.times = times;
+        this.symbolIds = symbolIds;
+        this.prices = prices;
+        this.size = size;
+    }
+    
+    /**
+     * Read every remaining tick of a recording into memory and close the source
+     * @param source Recorded ticks
+     * @param marketState Market the source resolves symbols against; its symbols, including
+     *                    any the recording lists, become the tape's
+     */
+    public static TickTape load(TickSource source, MarketState marketState) throws IOException {
+        long[] times = new long[1024];
+        int[] ids = new int[1024];
+        double[] prices = new double[1024];
+        int size = 0;
+        try (TickSource ticks = source) {
+            while (ticks.next()) {
+                if (size == times.length) {
+                    int grown = Math.max(size + 1, (int) Math.min(Integer.MAX_VALUE - 8, size * 2L));
+                    times = Arrays.copyOf(times, grown);
+                    ids = Arrays.copyOf(ids, grown);
+                    prices = Arrays.copyOf(prices, grown);
+                }
+                times[size] = ticks.getTimeMillis();
+                ids[size] = ticks.getSymbolId();
+                prices[size] = ticks.getPrice();
+                size++;
+            }
+        }
+        
+        // Read after loading, so symbols the recording listed are included
+        String[] symbols = new String[marketState.size()];
+        for (int id = 0; id < symbols.length; id++) {
+            symbols[id] = marketState.getSymbol(id);
+        }
+        return new TickTape(symbols, times, ids, prices, size);
+    }
+    
+    /**
+     * Generate a tape with one of the simulation's price models; every step ticks every symbol
+     * @param symbols Symbols to simulate
+     * @param startPrices Price of each symbol before the first step
+     * @param model Process that moves the prices
+     * @param seed Seed of the random streams; equal seeds generate equal tapes
+     * @param steps Number of steps
+     * @param startMillis Time of the first step
+     * @param stepMillis Time between steps
+     */
+    public static TickTape simulate(String[] symbols, double[] startPrices, PriceModel model, long seed,
+                                    int steps, long startMillis, long stepMillis) {
+        int count = symbols.length;
+        if (startPrices.length != count) {
+            throw new IllegalArgumentException("Need one start price per symbol");
+        }
+        long total = (long) steps * count;
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Tape would hold too many ticks: " + total);
+        }
+        
+        int size = (int) total;
+        long[] times = new long[size];
+        int[] ids = new int[size];
+        double[] prices = new double[size];
+        double[] current = startPrices.clone();
+        double[] scratch = new double[count];
+        RowRandom random = new RowRandom(count, seed);
+        
+        int tick = 0;
+        for (int step = 0; step < steps; step++) {
+            model.step(current, scratch, 0, count, random);
+            long time = startMillis + step * stepMillis;
+            for (int id = 0; id < count; id++) {
+                times[tick] = time;
+                ids[tick] = id;
+                prices[tick] = current[id];
+                tick++;
+            }
+        }
+        return new TickTape(symbols.clone(), times, ids, prices, size);
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public int getSymbolCount() {
+        return symbols.length;
+    }
+    
+    public String getSymbol(int id) {
+        return symbols[id];
+    }
+    
+    public long getTime(int index) {
+        return times[index];
+    }
+    
+    public int getSymbolId(int index) {
+        return symbolIds[index];
+    }
+    
+    public double getPrice(int index) {
+        return prices[index];
+    }
+    
+    /**
+     * Get the first price of each symbol on the tape
+     * @return Prices by symbol id; 0 for symbols that never tick
+     */
+    public double[] getOpeningPrices() {
+        double[] opening = new double[symbols.length];
+        int found = 0;
+        for (int i = 0; i < size && found < opening.length; i++) {
+            if (opening[symbolIds[i]] == 0) {
+                opening[symbolIds[i]] = prices[i];
+                found++;
+            }
+        }
+        return opening;
+    }
+}
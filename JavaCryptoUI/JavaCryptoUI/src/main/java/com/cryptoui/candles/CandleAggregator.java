@@ -0,0 +1,205 @@
+package com.cryptoui.candles;
+
+import com.cryptoui.exchange.OrderBook;
+import com.cryptoui.exchange.PrintListener;
+import com.cryptoui.market.MarketListener;
+import com.cryptoui.market.MarketSnapshot;
+import com.cryptoui.market.MarketState;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Rolls ticks and trades into 1s, 1m, 1h and 1d OHLCV candles per symbol.
+ * <p>
+ * Every snapshot price is merged into the current candle of each interval, and trades
+ * add volume. Only candles are kept, in fixed-size {@link CandleSeries} rings, so memory
+ * does not grow with the number of ticks. Closed one-minute candles can be appended to
+ * a {@link CandleArchive}, which rebuilds the minute, hour and day series on startup.
+ * <p>
+ * Whenever a minute closes, the close of the minute 24 hours earlier becomes the
+ * symbol's reference price in the {@link MarketState}, from which every tick derives
+ * change24h in O(1).
+ */
+public class CandleAggregator implements MarketListener, PrintListener, AutoCloseable {
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final CandleInterval[] INTERVALS = CandleInterval.values();
+    
+    private final MarketState marketState;
+    private final LongSupplier clock;
+    private final AtomicReferenceArray<CandleSeries[]> series;
+    private volatile CandleArchive archive;
+    
+    // Start of the newest minute in the archive by symbol; guarded by the minute series
+    private final long[] archivedMinutes;
+    
+    public CandleAggregator(MarketState marketState) {
+        this(marketState, System::currentTimeMillis);
+    }
+    
+    /**
+     * Create an aggregator with a custom clock, e.g. for replays and backtests
+     * @param marketState Market whose symbols are aggregated
+     * @param clock Source of epoch milliseconds for ticks and trades
+     */
+    public CandleAggregator(MarketState marketState, LongSupplier clock) {
+        this.marketState = marketState;
+        this.clock = clock;
+        this.series = new AtomicReferenceArray<>(marketState.capacity());
+        this.archivedMinutes = new long[marketState.capacity()];
+        Arrays.fill(archivedMinutes, Long.MIN_VALUE);
+    }
+    
+    /**
+     * Restore candles from an archive and append closed minutes to it from now on.
+     * Should be called before the market starts ticking.
+     * @param path Archive file, created if it does not exist
+     */
+    public void openArchive(Path path) throws IOException {
+        if (archive != null) {
+            throw new IllegalStateException("An archive is already open");
+        }
+        archive = CandleArchive.open(path, this::restore);
+        
+        long now = clock.getAsLong();
+        for (int id = 0; id < marketState.size(); id++) {
+            updateReference(id, now);
+        }
+    }
+    
+    @Override
+    public void onSnapshot(MarketSnapshot snapshot) {
+        long now = clock.getAsLong();
+        for (int id = 0; id < snapshot.size(); id++) {
+            double price = snapshot.getPrice(id);
+            merge(id, now, price, price, price, price, 0, true);
+        }
+    }
+    
+    @Override
+    public void onPrint(int symbolId, long price, long quantity) {
+        double tradePrice = OrderBook.toDouble(price);
+        merge(symbolId, clock.getAsLong(), tradePrice, tradePrice, tradePrice, tradePrice,
+              OrderBook.toDouble(quantity), true);
+    }
+    
+    /**
+     * Get the candles of a symbol at one interval
+     * @param id Interned symbol id
+     * @param interval Candle width
+     * @return Live series, updated as ticks arrive
+     */
+    public CandleSeries getSeries(int id, CandleInterval interval) {
+        return seriesOf(id)[interval.ordinal()];
+    }
+    
+    /**
+     * Get the candles of a symbol at one interval
+     * @throws IllegalArgumentException if the symbol is not listed
+     */
+    public CandleSeries getSeries(String symbol, CandleInterval interval) {
+        int id = marketState.idOf(symbol);
+        if (id < 0) {
+            throw new IllegalArgumentException("Symbol is not listed: " + symbol);
+        }
+        return getSeries(id, interval);
+    }
+    
+    @Override
+    public void close() throws IOException {
+        CandleArchive current = archive;
+        archive = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+    
+    private void restore(String symbol, long startMillis, double open, double high, double low,
+                         double close, double volume) {
+        int id = marketState.idOf(symbol);
+        if (id >= 0) {
+            merge(id, startMillis, open, high, low, close, volume, false);
+            CandleSeries minutes = getSeries(id, CandleInterval.MINUTE);
+            synchronized (minutes) {
+                archivedMinutes[id] = Math.max(archivedMinutes[id], startMillis);
+            }
+        }
+    }
+    
+    private void merge(int id, long epochMillis, double open, double high, double low,
+                       double close, double volume, boolean live) {
+        CandleSeries[] symbolSeries = seriesOf(id);
+        for (CandleInterval interval : INTERVALS) {
+            CandleSeries candles = symbolSeries[interval.ordinal()];
+            if (interval == CandleInterval.MINUTE) {
+                mergeMinute(id, candles, epochMillis, open, high, low, close, volume, live);
+            } else if (live || interval != CandleInterval.SECOND) {
+                // Restored minutes are too coarse for the one-second series
+                candles.merge(epochMillis, open, high, low, close, volume);
+            }
+        }
+    }
+    
+    private void mergeMinute(int id, CandleSeries minutes, long epochMillis, double open, double high,
+                             double low, double close, double volume, boolean live) {
+        boolean rolled;
+        synchronized (minutes) {
+            int last = minutes.size() - 1;
+            CandleArchive target = archive;
+            if (live && target != null && last >= 0
+                    && minutes.indexOf(epochMillis) < 0 && epochMillis > minutes.getStartMillis(last)
+                    && minutes.getStartMillis(last) > archivedMinutes[id]) {
+                // The newest minute is about to close; archive it before the ring moves on,
+                // unless it was restored from the archive and is already in it
+                long start = minutes.getStartMillis(last);
+                archivedMinutes[id] = start;
+                try {
+                    target.append(marketState.getSymbol(id), start,
+                                  minutes.getOpen(last), minutes.getHigh(last), minutes.getLow(last),
+                                  minutes.getClose(last), minutes.getVolume(last));
+                } catch (RuntimeException e) {
+                    // Losing archived history must not stop live candles
+                    e.printStackTrace();
+                }
+            }
+            rolled = minutes.merge(epochMillis, open, high, low, close, volume);
+        }
+        if (rolled && live) {
+            updateReference(id, epochMillis);
+        }
+    }
+    
+    /**
+     * Make the close 24 hours before a time the symbol's reference price, if retained
+     */
+    private void updateReference(int id, long epochMillis) {
+        CandleSeries minutes = getSeries(id, CandleInterval.MINUTE);
+        double reference;
+        synchronized (minutes) {
+            int index = minutes.indexOf(epochMillis - DAY_MILLIS);
+            if (index < 0) {
+                return;
+            }
+            reference = minutes.getClose(index);
+        }
+        if (reference > 0) {
+            marketState.setReferencePrice(id, reference);
+        }
+    }
+    
+    private CandleSeries[] seriesOf(int id) {
+        CandleSeries[] symbolSeries = series.get(id);
+        if (symbolSeries == null) {
+            CandleSeries[] created = new CandleSeries[INTERVALS.length];
+            for (CandleInterval interval : INTERVALS) {
+                created[interval.ordinal()] = new CandleSeries(interval);
+            }
+            series.compareAndSet(id, null, created);
+            symbolSeries = series.get(id);
+        }
+        return symbolSeries;
+    }
+}
@@ -0,0 +1,163 @@
+package com.cryptoui.candles;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of closed one-minute candles, so candle history survives restarts
+ * without keeping raw ticks anywhere.
+ * <p>
+ * Records are {@value #RECORD_SIZE} bytes, big-endian:
+ * <pre>
+ *  0  long   candle start (epoch millis)
+ *  8  double open
+ * 16  double high
+ * 24  double low
+ * 32  double close
+ * 40  double volume
+ * 48  byte   symbol length
+ * 49  byte[11] symbol (UTF-8, zero padded)
+ * 60  int    CRC32 of bytes 0..59
+ * </pre>
+ * On open every intact record is handed to a reader and a torn tail is truncated away.
+ */
+public class CandleArchive implements AutoCloseable {
+    public static final int RECORD_SIZE = 64;
+    
+    private static final int SYMBOL_LENGTH_OFFSET = 48;
+    private static final int SYMBOL_OFFSET = 49;
+    private static final int MAX_SYMBOL_BYTES = 11;
+    private static final int CHECKSUM_OFFSET = 60;
+    private static final int READ_RECORDS = 4096;
+    
+    /**
+     * Receives the candles recovered from an archive
+     */
+    public interface Reader {
+        void onCandle(String symbol, long startMillis, double open, double high, double low,
+                      double close, double volume);
+    }
+    
+    private final FileChannel channel;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+    
+    private CandleArchive(FileChannel channel) {
+        this.channel = channel;
+    }
+    
+    /**
+     * Open an archive and read back every intact candle in order
+     * @param path Archive file, created if it does not exist
+     * @param reader Receives each recovered candle
+     */
+    public static CandleArchive open(Path path, Reader reader) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long validLength = 0;
+            ByteBuffer chunk = ByteBuffer.allocate(READ_RECORDS * RECORD_SIZE);
+            
+            scan:
+            while (true) {
+                chunk.clear();
+                if (channel.read(chunk, validLength) <= 0) {
+                    break;
+                }
+                int records = chunk.position() / RECORD_SIZE;
+                for (int i = 0; i < records; i++) {
+                    if (!decode(chunk, i * RECORD_SIZE, reader)) {
+                        break scan;
+                    }
+                    validLength += RECORD_SIZE;
+                }
+                if (chunk.hasRemaining()) {
+                    // End of file, possibly after a partial record
+                    break;
+                }
+            }
+            
+            channel.truncate(validLength);
+            channel.position(validLength);
+            return new CandleArchive(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Append a closed candle
+     * @throws IllegalArgumentException if the symbol does not fit in a record
+     * @throws UncheckedIOException if the write fails
+     */
+    public synchronized void append(String symbol, long startMillis, double open, double high,
+                                    double low, double close, double volume) {
+        byte[] symbolBytes = symbol.getBytes(StandardCharsets.UTF_8);
+        if (symbolBytes.length > MAX_SYMBOL_BYTES) {
+            throw new IllegalArgumentException("Symbol too long for candle archive: " + symbol);
+        }
+        
+        record.clear();
+        record.putLong(startMillis)
+              .putDouble(open)
+              .putDouble(high)
+              .putDouble(low)
+              .putDouble(close)
+              .putDouble(volume)
+              .put((byte) symbolBytes.length)
+              .put(symbolBytes);
+        while (record.position() < CHECKSUM_OFFSET) {
+            record.put((byte) 0);
+        }
+        record.putInt(checksum(record, 0));
+        record.flip();
+        
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+    
+    private static boolean decode(ByteBuffer buffer, int start, Reader reader) {
+        int symbolLength = buffer.get(start + SYMBOL_LENGTH_OFFSET);
+        if (buffer.getInt(start + CHECKSUM_OFFSET) != checksum(buffer, start)
+                || symbolLength <= 0 || symbolLength > MAX_SYMBOL_BYTES) {
+            return false;
+        }
+        
+        byte[] symbolBytes = new byte[symbolLength];
+        for (int i = 0; i < symbolLength; i++) {
+            symbolBytes[i] = buffer.get(start + SYMBOL_OFFSET + i);
+        }
+        reader.onCandle(new String(symbolBytes, StandardCharsets.UTF_8),
+                        buffer.getLong(start),
+                        buffer.getDouble(start + 8),
+                        buffer.getDouble(start + 16),
+                        buffer.getDouble(start + 24),
+                        buffer.getDouble(start + 32),
+                        buffer.getDouble(start + 40));
+        return true;
+    }
+    
+    private static int checksum(ByteBuffer buffer, int start) {
+        CRC32 crc = new CRC32();
+        ByteBuffer view = buffer.duplicate();
+        view.limit(start + CHECKSUM_OFFSET).position(start);
+        crc.update(view);
+        return (int) crc.getValue();
+    }
+}
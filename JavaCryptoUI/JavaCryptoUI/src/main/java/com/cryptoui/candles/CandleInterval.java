@@ -0,0 +1,41 @@
+package com.cryptoui.candles;
+
+/**
+ * Candle widths kept by the {@link CandleAggregator}, each with the number of candles
+ * retained in memory
+ */
+public enum CandleInterval {
+    /** 15 minutes of one-second candles */
+    SECOND(1_000L, 900),
+    /** 26 hours of one-minute candles, enough to look back a full day */
+    MINUTE(60_000L, 26 * 60),
+    /** 30 days of hourly candles */
+    HOUR(3_600_000L, 30 * 24),
+    /** Two years of daily candles */
+    DAY(86_400_000L, 730);
+    
+    private final long millis;
+    private final int capacity;
+    
+    CandleInterval(long millis, int capacity) {
+        this.millis = millis;
+        this.capacity = capacity;
+    }
+    
+    public long getMillis() {
+        return millis;
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    /**
+     * Get the number of the candle containing a time
+     * @param epochMillis Time in epoch milliseconds
+     * @return Candle number since the epoch
+     */
+    public long bucketOf(long epochMillis) {
+        return Math.floorDiv(epochMillis, millis);
+    }
+}
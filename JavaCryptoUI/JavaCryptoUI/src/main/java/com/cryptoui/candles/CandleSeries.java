@@ -0,0 +1,159 @@
+package com.cryptoui.candles;
+
+/**
+ * Ring buffer of OHLCV candles of one symbol at one interval.
+ * <p>
+ * Candles are stored in primitive columns, and the candle number (time / interval)
+ * maps directly to a ring slot, so the candle at any retained time is found in O(1).
+ * Buckets skipped while no prices arrived are filled with flat candles at the last
+ * close, so every bucket between the oldest and newest retained candle is present.
+ * <p>
+ * Methods are synchronized; hold the series' monitor to read several values from the
+ * same state.
+ */
+public final class CandleSeries {
+    private final CandleInterval interval;
+    private final int capacity;
+    private final double[] opens;
+    private final double[] highs;
+    private final double[] lows;
+    private final double[] closes;
+    private final double[] volumes;
+    
+    // Candle numbers of the oldest and newest retained candles; last < first when empty
+    private long firstBucket = 0;
+    private long lastBucket = -1;
+    
+    public CandleSeries(CandleInterval interval) {
+        this(interval, interval.getCapacity());
+    }
+    
+    public CandleSeries(CandleInterval interval, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.interval = interval;
+        this.capacity = capacity;
+        this.opens = new double[capacity];
+        this.highs = new double[capacity];
+        this.lows = new double[capacity];
+        this.closes = new double[capacity];
+        this.volumes = new double[capacity];
+    }
+    
+    /**
+     * Merge price action into the candle containing a time.
+     * A single tick is merged as open = high = low = close = price.
+     * Data older than the newest candle is ignored.
+     * @return true if this started a new candle, closing the previous one
+     */
+    public synchronized boolean merge(long epochMillis, double open, double high, double low,
+                                      double close, double volume) {
+        long bucket = interval.bucketOf(epochMillis);
+        if (isEmpty()) {
+            firstBucket = bucket;
+            lastBucket = bucket;
+            set(slotOf(bucket), open, high, low, close, volume);
+            return false;
+        }
+        if (bucket < lastBucket) {
+            return false;
+        }
+        if (bucket == lastBucket) {
+            int slot = slotOf(bucket);
+            highs[slot] = Math.max(highs[slot], high);
+            lows[slot] = Math.min(lows[slot], low);
+            closes[slot] = close;
+            volumes[slot] += volume;
+            return false;
+        }
+        
+        // Carry the last close through any skipped buckets, at most one full ring
+        double lastClose = closes[slotOf(lastBucket)];
+        long fillFrom = Math.max(lastBucket + 1, bucket - capacity + 1);
+        for (long b = fillFrom; b < bucket; b++) {
+            set(slotOf(b), lastClose, lastClose, lastClose, lastClose, 0);
+        }
+        set(slotOf(bucket), open, high, low, close, volume);
+        lastBucket = bucket;
+        firstBucket = Math.max(firstBucket, bucket - capacity + 1);
+        return true;
+    }
+    
+    public synchronized boolean isEmpty() {
+        return lastBucket < firstBucket;
+    }
+    
+    /**
+     * Get the number of retained candles
+     */
+    public synchronized int size() {
+        return isEmpty() ? 0 : (int) (lastBucket - firstBucket + 1);
+    }
+    
+    /**
+     * Find the candle containing a time
+     * @param epochMillis Time in epoch milliseconds
+     * @return Index of the candle (0 is the oldest retained) or -1 if it is not retained
+     */
+    public synchronized int indexOf(long epochMillis) {
+        long bucket = interval.bucketOf(epochMillis);
+        if (isEmpty() || bucket < firstBucket || bucket > lastBucket) {
+            return -1;
+        }
+        return (int) (bucket - firstBucket);
+    }
+    
+    // Candle values by index, where 0 is the oldest retained candle
+    public synchronized long getStartMillis(int index) {
+        return bucketAt(index) * interval.getMillis();
+    }
+    
+    public synchronized double getOpen(int index) {
+        return opens[slotOf(bucketAt(index))];
+    }
+    
+    public synchronized double getHigh(int index) {
+        return highs[slotOf(bucketAt(index))];
+    }
+    
+    public synchronized double getLow(int index) {
+        return lows[slotOf(bucketAt(index))];
+    }
+    
+    public synchronized double getClose(int index) {
+        return closes[slotOf(bucketAt(index))];
+    }
+    
+    public synchronized double getVolume(int index) {
+        return volumes[slotOf(bucketAt(index))];
+    }
+    
+    public CandleInterval getInterval() {
+        return interval;
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    private long bucketAt(int index) {
+        int size = size();
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return firstBucket + index;
+    }
+    
+    private int slotOf(long bucket) {
+        return (int) Math.floorMod(bucket, (long) capacity);
+    }
+    
+    private void set(int slot, double open, double high, double low, double close, double volume) {
+        opens[slot] = open;
+        highs[slot] = high;
+        lows[slot] = low;
+        closes[slot] = close;
+        volumes[slot] = volume;
+    }
+}
@@ -1,427 +1,914 @@
-package com.cryptoui.controller;
-
-import com.cryptoui.model.*;
-import javafx.application.Platform;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.fxml.FXML;
-import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.scene.paint.Color;
-import javafx.scene.text.Text;
-
-/**
- * Main controller for the Crypto UI application
- */
-public class CryptoController {
-    
-    // Model classes
-    private MarketService marketService;
-    private User currentUser;
-    private ObservableList<Transaction> transactionHistory;
-    
-    // FXML UI controls will be injected by JavaFX
-    @FXML private Label usernameLabel;
-    @FXML private Label balanceLabel;
-    @FXML private Label portfolioValueLabel;
-    @FXML private Label totalWorthLabel;
-    
-    @FXML private TableView<Cryptocurrency> marketTableView;
-    @FXML private TableColumn<Cryptocurrency, String> symbolColumn;
-    @FXML private TableColumn<Cryptocurrency, String> nameColumn;
-    @FXML private TableColumn<Cryptocurrency, Double> priceColumn;
-    @FXML private TableColumn<Cryptocurrency, Double> changeColumn;
-    
-    @FXML private TableView<Transaction> transactionTableView;
-    @FXML private TableColumn<Transaction, String> transactionTimeColumn;
-    @FXML private TableColumn<Transaction, String> transactionTypeColumn;
-    @FXML private TableColumn<Transaction, String> transactionSymbolColumn;
-    @FXML private TableColumn<Transaction, Double> transactionAmountColumn;
-    @FXML private TableColumn<Transaction, Double> transactionPriceColumn;
-    @FXML private TableColumn<Transaction, Double> transactionTotalColumn;
-    
-    @FXML private ComboBox<String> cryptoComboBox;
-    @FXML private TextField amountTextField;
-    @FXML private Label currentPriceLabel;
-    @FXML private Label totalCostLabel;
-    @FXML private Label cryptoDescriptionLabel;
-    @FXML private Label cryptoHoldingsLabel;
-    
-    @FXML private Button buyButton;
-    @FXML private Button sellButton;
-    @FXML private Button resetAccountButton;
-    
-    /**
-     * Initialize the controller
-     */
-    @FXML
-    public void initialize() {
-        // Initialize model
-        marketService = new MarketService();
-        currentUser = new User("Demo User");
-        transactionHistory = FXCollections.observableArrayList();
-        
-        // Set up UI components
-        setupMarketTable();
-        setupTransactionTable();
-        setupCryptoSelection();
-        setupUserInfo();
-        setupButtonHandlers();
-        
-        // Start market updates
-        marketService.startMarketUpdates();
-        
-        // Set up a periodic UI update
-        Thread updateThread = new Thread(() -> {
-            while (true) {
-                try {
-                    Thread.sleep(1000); // Update UI every second
-                    Platform.runLater(this::updateUI);
-                } catch (InterruptedException e) {
-                    break;
-                }
-            }
-        });
-        updateThread.setDaemon(true);
-        updateThread.start();
-    }
-    
-    /**
-     * Set up the market data table
-     */
-    private void setupMarketTable() {
-        symbolColumn.setCellValueFactory(new PropertyValueFactory<>("symbol"));
-        nameColumn.setCellValueFactory(new PropertyValueFactory<>("name"));
-        priceColumn.setCellValueFactory(new PropertyValueFactory<>("price"));
-        changeColumn.setCellValueFactory(new PropertyValueFactory<>("change24h"));
-        
-        // Format the price column to show currency
-        priceColumn.setCellFactory(column -> new TableCell<>() {
-            @Override
-            protected void updateItem(Double price, boolean empty) {
-                super.updateItem(price, empty);
-                if (empty || price == null) {
-                    setText(null);
-                } else {
-                    setText(String.format("$%.2f", price));
-                }
-            }
-        });
-        
-        // Format the change column to show percentage and color-code it
-        changeColumn.setCellFactory(column -> new TableCell<>() {
-            @Override
-            protected void updateItem(Double change, boolean empty) {
-                super.updateItem(change, empty);
-                if (empty || change == null) {
-                    setText(null);
-                    setTextFill(Color.BLACK);
-                } else {
-                    setText(String.format("%.2f%%", change));
-                    setTextFill(change >= 0 ? Color.GREEN : Color.RED);
-                }
-            }
-        });
-        
-        // Bind the table to the market data
-        marketTableView.setItems(FXCollections.observableArrayList(
-            marketService.getMarketData().values()));
-    }
-    
-    /**
-     * Set up the transaction history table
-     */
-    private void setupTransactionTable() {
-        transactionTimeColumn.setCellValueFactory(cellData -> 
-            new javafx.beans.property.SimpleStringProperty(
-                cellData.getValue().getFormattedTimestamp()));
-        
-        transactionTypeColumn.setCellValueFactory(cellData -> 
-            new javafx.beans.property.SimpleStringProperty(
-                cellData.getValue().getTypeAsString()));
-        
-        transactionSymbolColumn.setCellValueFactory(
-            new PropertyValueFactory<>("cryptoSymbol"));
-        
-        transactionAmountColumn.setCellValueFactory(
-            new PropertyValueFactory<>("amount"));
-        
-        transactionPriceColumn.setCellValueFactory(
-            new PropertyValueFactory<>("price"));
-        
-        // Custom column for total value
-        transactionTotalColumn.setCellValueFactory(cellData -> 
-            new javafx.beans.property.SimpleDoubleProperty(
-                cellData.getValue().getTotalValue()).asObject());
-        
-        // Format price and total columns to show currency
-        transactionPriceColumn.setCellFactory(column -> new TableCell<>() {
-            @Override
-            protected void updateItem(Double price, boolean empty) {
-                super.updateItem(price, empty);
-                if (empty || price == null) {
-                    setText(null);
-                } else {
-                    setText(String.format("$%.2f", price));
-                }
-            }
-        });
-        
-        transactionTotalColumn.setCellFactory(column -> new TableCell<>() {
-            @Override
-            protected void updateItem(Double total, boolean empty) {
-                super.updateItem(total, empty);
-                if (empty || total == null) {
-                    setText(null);
-                } else {
-                    setText(String.format("$%.2f", total));
-                }
-            }
-        });
-        
-        // Bind the table to transaction history
-        transactionTableView.setItems(transactionHistory);
-    }
-    
-    /**
-     * Set up the cryptocurrency selection dropdown
-     */
-    private void setupCryptoSelection() {
-        // Populate combo box with available cryptocurrencies
-        cryptoComboBox.setItems(FXCollections.observableArrayList(
-            marketService.getMarketData().keySet()));
-        
-        // Set default selection
-        if (!cryptoComboBox.getItems().isEmpty()) {
-            cryptoComboBox.setValue(cryptoComboBox.getItems().get(0));
-            updateSelectedCrypto();
-        }
-        
-        // Add listener for selection changes
-        cryptoComboBox.setOnAction(e -> updateSelectedCrypto());
-        
-        // Add listener for amount changes
-        amountTextField.textProperty().addListener((obs, oldVal, newVal) -> {
-            try {
-                double amount = Double.parseDouble(newVal);
-                updateTotalCost(amount);
-            } catch (NumberFormatException ex) {
-                totalCostLabel.setText("$0.00");
-            }
-        });
-    }
-    
-    /**
-     * Set up user information display
-     */
-    private void setupUserInfo() {
-        usernameLabel.setText(currentUser.getUsername());
-        updateUserInfo();
-    }
-    
-    /**
-     * Set up button handlers
-     */
-    private void setupButtonHandlers() {
-        buyButton.setOnAction(e -> executeBuy());
-        sellButton.setOnAction(e -> executeSell());
-        resetAccountButton.setOnAction(e -> resetAccount());
-    }
-    
-    /**
-     * Update the UI elements with current data
-     */
-    private void updateUI() {
-        updateUserInfo();
-        marketTableView.refresh();
-        updateSelectedCrypto();
-    }
-    
-    /**
-     * Update the user information display
-     */
-    private void updateUserInfo() {
-        balanceLabel.setText(String.format("$%.2f", currentUser.getBalance()));
-        
-        double portfolioValue = currentUser.getPortfolioValue(marketService.getMarketData());
-        portfolioValueLabel.setText(String.format("$%.2f", portfolioValue));
-        
-        double totalWorth = currentUser.getBalance() + portfolioValue;
-        totalWorthLabel.setText(String.format("$%.2f", totalWorth));
-    }
-    
-    /**
-     * Update the selected cryptocurrency information
-     */
-    private void updateSelectedCrypto() {
-        String symbol = cryptoComboBox.getValue();
-        if (symbol == null) return;
-        
-        Cryptocurrency crypto = marketService.getCryptocurrency(symbol);
-        if (crypto == null) return;
-        
-        currentPriceLabel.setText(String.format("$%.2f", crypto.getPrice()));
-        cryptoDescriptionLabel.setText(crypto.getDescription());
-        
-        double ownedAmount = currentUser.getCryptoAmount(symbol);
-        cryptoHoldingsLabel.setText(String.format("%.6f %s", ownedAmount, symbol));
-        
-        // Update total cost based on current amount
-        try {
-            double amount = Double.parseDouble(amountTextField.getText());
-            updateTotalCost(amount);
-        } catch (NumberFormatException e) {
-            // Ignore invalid input
-        }
-    }
-    
-    /**
-     * Update the total cost display
-     */
-    private void updateTotalCost(double amount) {
-        String symbol = cryptoComboBox.getValue();
-        if (symbol == null) return;
-        
-        Cryptocurrency crypto = marketService.getCryptocurrency(symbol);
-        if (crypto == null) return;
-        
-        double totalCost = amount * crypto.getPrice();
-        totalCostLabel.setText(String.format("$%.2f", totalCost));
-    }
-    
-    /**
-     * Execute a buy transaction
-     */
-    private void executeBuy() {
-        String symbol = cryptoComboBox.getValue();
-        if (symbol == null) return;
-        
-        Cryptocurrency crypto = marketService.getCryptocurrency(symbol);
-        if (crypto == null) return;
-        
-        try {
-            double amount = Double.parseDouble(amountTextField.getText());
-            if (amount <= 0) {
-                showAlert(Alert.AlertType.ERROR, "Invalid Amount", 
-                          "Please enter a positive amount to buy.");
-                return;
-            }
-            
-            double price = crypto.getPrice();
-            boolean success = currentUser.buyCrypto(symbol, amount, price);
-            
-            if (success) {
-                Transaction transaction = new Transaction(
-                    currentUser.getUsername(),
-                    symbol,
-                    amount,
-                    price,
-                    Transaction.TransactionType.BUY
-                );
-                transactionHistory.add(0, transaction);
-                
-                updateUserInfo();
-                clearTransactionInput();
-                showAlert(Alert.AlertType.INFORMATION, "Transaction Successful", 
-                          String.format("Successfully purchased %.6f %s", amount, symbol));
-            } else {
-                showAlert(Alert.AlertType.ERROR, "Transaction Failed", 
-                          "Insufficient funds for this purchase.");
-            }
-        } catch (NumberFormatException e) {
-            showAlert(Alert.AlertType.ERROR, "Invalid Input", 
-                      "Please enter a valid number for amount.");
-        }
-    }
-    
-    /**
-     * Execute a sell transaction
-     */
-    private void executeSell() {
-        String symbol = cryptoComboBox.getValue();
-        if (symbol == null) return;
-        
-        Cryptocurrency crypto = marketService.getCryptocurrency(symbol);
-        if (crypto == null) return;
-        
-        try {
-            double amount = Double.parseDouble(amountTextField.getText());
-            if (amount <= 0) {
-                showAlert(Alert.AlertType.ERROR, "Invalid Amount", 
-                          "Please enter a positive amount to sell.");
-                return;
-            }
-            
-            double price = crypto.getPrice();
-            boolean success = currentUser.sellCrypto(symbol, amount, price);
-            
-            if (success) {
-                Transaction transaction = new Transaction(
-                    currentUser.getUsername(),
-                    symbol,
-                    amount,
-                    price,
-                    Transaction.TransactionType.SELL
-                );
-                transactionHistory.add(0, transaction);
-                
-                updateUserInfo();
-                clearTransactionInput();
-                showAlert(Alert.AlertType.INFORMATION, "Transaction Successful", 
-                          String.format("Successfully sold %.6f %s", amount, symbol));
-            } else {
-                showAlert(Alert.AlertType.ERROR, "Transaction Failed", 
-                          "Insufficient cryptocurrency holdings for this sale.");
-            }
-        } catch (NumberFormatException e) {
-            showAlert(Alert.AlertType.ERROR, "Invalid Input", 
-                      "Please enter a valid number for amount.");
-        }
-    }
-    
-    /**
-     * Reset the user's account
-     */
-    private void resetAccount() {
-        Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
-        alert.setTitle("Reset Account");
-        alert.setHeaderText("Reset Your Account");
-        alert.setContentText("Are you sure you want to reset your account? " +
-                            "This will clear your portfolio and set your balance back to the default.");
-        
-        alert.showAndWait().ifPresent(response -> {
-            if (response == ButtonType.OK) {
-                currentUser.resetAccount();
-                transactionHistory.clear();
-                updateUserInfo();
-                clearTransactionInput();
-            }
-        });
-    }
-    
-    /**
-     * Clear the transaction input fields
-     */
-    private void clearTransactionInput() {
-        amountTextField.clear();
-        updateSelectedCrypto();
-    }
-    
-    /**
-     * Show an alert dialog
-     */
-    private void showAlert(Alert.AlertType type, String title, String message) {
-        Alert alert = new Alert(type);
-        alert.setTitle(title);
-        alert.setHeaderText(null);
-        alert.setContentText(message);
-        alert.showAndWait();
-    }
-    
-    /**
-     * Clean up resources when the application closes
-     */
-    public void shutdown() {
-        marketService.stopMarketUpdates();
-    }
+package com.cryptoui.controller;
+
+import com.cryptoui.candles.CandleAggregator;
+import com.cryptoui.candles.CandleInterval;
+import com.cryptoui.candles.CandleSeries;
+import com.cryptoui.exchange.OrderType;
+import com.cryptoui.feed.FeedFormat;
+import com.cryptoui.feed.FeedServer;
+import com.cryptoui.gateway.OrderGateway;
+import com.cryptoui.history.TransactionEntry;
+import com.cryptoui.history.TransactionLog;
+import com.cryptoui.journal.JournalRecord;
+import com.cryptoui.journal.TradeJournal;
+import com.cryptoui.market.Fixed;
+import com.cryptoui.model.*;
+import com.cryptoui.replay.MarketReplay;
+import com.cryptoui.replay.TickSource;
+import com.cryptoui.text.NumberFormatter;
+import com.cryptoui.triggers.AlertEngine;
+import com.cryptoui.triggers.Condition;
+import com.cryptoui.triggers.ConditionalOrderType;
+import com.cryptoui.triggers.TriggerAction;
+import com.cryptoui.ui.ColumnBindings;
+import com.cryptoui.ui.FormattedCell;
+import com.cryptoui.ui.MarketRow;
+import com.cryptoui.ui.PriceChart;
+import com.cryptoui.ui.RenderScheduler;
+import com.cryptoui.ui.TransactionHistoryList;
+import com.cryptoui.ui.TransactionRowCache;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.MapChangeListener;
+import javafx.collections.ObservableList;
+import javafx.fxml.FXML;
+import javafx.scene.control.*;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Text;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Main controller for the Crypto UI application
+ */
+public class CryptoController {
+    
+    // Model classes
+    private MarketService marketService;
+    private AccountRegistry accountRegistry;
+    private PortfolioValuator portfolioValuator;
+    private Exchange exchange;
+    private User currentUser;
+    private TransactionHistoryList transactionHistory;
+    private final TransactionRowCache transactionRows = new TransactionRowCache(TRANSACTION_ROW_CACHE_SIZE);
+    private TradeJournal tradeJournal;
+    private CandleAggregator candleAggregator;
+    private volatile MarketReplay marketReplay;
+    private FeedServer feedServer;
+    private OrderGateway orderGateway;
+    private AlertEngine alertEngine;
+    
+    private static final String DEMO_USERNAME = "Demo User";
+    private static final int HISTORY_CAPACITY = 1_000_000;
+    private static final int TRANSACTION_ROW_CACHE_SIZE = 256;
+    private static final double TRANSACTION_ROW_HEIGHT = 24;
+    private static final Path JOURNAL_PATH =
+        Paths.get(System.getProperty("user.home"), ".cryptoui", "trades.journal");
+    // Replay a recording instead of simulating, e.g. -Dcryptoui.replay=ticks.csv -Dcryptoui.replay.speed=60
+    private static final String REPLAY_PROPERTY = "cryptoui.replay";
+    private static final String REPLAY_SPEED_PROPERTY = "cryptoui.replay.speed";
+    // Share prices with local processes, e.g. -Dcryptoui.feed.port=7420 -Dcryptoui.feed.format=json
+    private static final String FEED_PORT_PROPERTY = "cryptoui.feed.port";
+    private static final String FEED_FORMAT_PROPERTY = "cryptoui.feed.format";
+    // Accept order batches from local bots, e.g. -Dcryptoui.gateway.port=7421
+    private static final String GATEWAY_PORT_PROPERTY = "cryptoui.gateway.port";
+    private static final Path CANDLE_ARCHIVE_PATH =
+        Paths.get(System.getProperty("user.home"), ".cryptoui", "candles.archive");
+    private static final double ALERT_MOVE_PERCENT = 5;
+    // Order types offered in the trade form; all but the first are conditional orders
+    private static final String MARKET_ORDER = "Market";
+    private static final String[] CONDITIONAL_ORDER_LABELS = {
+        "Stop", "Stop Limit", "Take Profit", "Trailing Stop"
+    };
+    private static final ConditionalOrderType[] CONDITIONAL_ORDER_TYPES = {
+        ConditionalOrderType.STOP, ConditionalOrderType.STOP_LIMIT,
+        ConditionalOrderType.TAKE_PROFIT, ConditionalOrderType.TRAILING_STOP
+    };
+    
+    // Market table rows indexed by symbol id, refreshed only when dirty
+    private MarketRow[] marketRows;
+    private RenderScheduler renderScheduler;
+    
+    // One formatter per label, so each reuses its text while the value is unchanged
+    private final NumberFormatter balanceFormat = NumberFormatter.currency();
+    private final NumberFormatter portfolioValueFormat = NumberFormatter.currency();
+    private final NumberFormatter totalWorthFormat = NumberFormatter.currency();
+    private final NumberFormatter currentPriceFormat = NumberFormatter.currency();
+    private final NumberFormatter totalCostFormat = NumberFormatter.currency();
+    private final NumberFormatter holdingsFormat = NumberFormatter.amount(6);
+    private final NumberFormatter filledFormat = NumberFormatter.amount(6);
+    private final NumberFormatter alertPriceFormat = NumberFormatter.currency();
+    
+    // FXML UI controls will be injected by JavaFX
+    @FXML private Label usernameLabel;
+    @FXML private Label balanceLabel;
+    @FXML private Label portfolioValueLabel;
+    @FXML private Label totalWorthLabel;
+    
+    @FXML private TableView<MarketRow> marketTableView;
+    @FXML private TableColumn<MarketRow, String> symbolColumn;
+    @FXML private TableColumn<MarketRow, String> nameColumn;
+    @FXML private TableColumn<MarketRow, Number> priceColumn;
+    @FXML private TableColumn<MarketRow, Number> changeColumn;
+    
+    @FXML private TableView<TransactionEntry> transactionTableView;
+    @FXML private TableColumn<TransactionEntry, String> transactionTimeColumn;
+    @FXML private TableColumn<TransactionEntry, String> transactionTypeColumn;
+    @FXML private TableColumn<TransactionEntry, String> transactionSymbolColumn;
+    @FXML private TableColumn<TransactionEntry, String> transactionAmountColumn;
+    @FXML private TableColumn<TransactionEntry, String> transactionPriceColumn;
+    @FXML private TableColumn<TransactionEntry, String> transactionTotalColumn;
+    
+    @FXML private ComboBox<String> cryptoComboBox;
+    @FXML private TextField amountTextField;
+    @FXML private ComboBox<String> orderTypeComboBox;
+    @FXML private TextField triggerPriceTextField;
+    @FXML private TextField limitPriceTextField;
+    @FXML private Label currentPriceLabel;
+    @FXML private Label totalCostLabel;
+    @FXML private Label cryptoDescriptionLabel;
+    @FXML private PriceChart priceChart;
+    @FXML private Label cryptoHoldingsLabel;
+    
+    @FXML private Button buyButton;
+    @FXML private Button sellButton;
+    @FXML private Button resetAccountButton;
+    
+    /**
+     * Initialize the controller
+     */
+    @FXML
+    public void initialize() {
+        // Initialize model
+        marketService = new MarketService();
+        portfolioValuator = new PortfolioValuator(marketService.getMarketState());
+        accountRegistry = new AccountRegistry();
+        accountRegistry.attachValuator(portfolioValuator);
+        transactionHistory = new TransactionHistoryList(
+            new TransactionLog(HISTORY_CAPACITY, marketService.getMarketState()));
+        
+        // Rebuild accounts and history from the journal before trading resumes
+        openTradeJournal();
+        currentUser = accountRegistry.getOrCreateAccount(DEMO_USERNAME);
+        
+        // Set up UI components
+        setupMarketTable();
+        setupTransactionTable();
+        setupCryptoSelection();
+        setupOrderTypeSelection();
+        setupUserInfo();
+        setupButtonHandlers();
+        
+        // Symbols a recording lists are listed on the replay thread and shown on this one
+        marketService.setMarketDataExecutor(Platform::runLater);
+        marketService.getMarketData().addListener((MapChangeListener<String, Cryptocurrency>) change -> {
+            if (change.wasAdded() && !change.wasRemoved()) {
+                addMarketRow(change.getValueAdded());
+                cryptoComboBox.getItems().add(change.getKey());
+            }
+        });
+        
+        // Trades go through the order books; fills are journaled and recorded as they settle
+        exchange = marketService.getExchange();
+        exchange.addTradeListener(this::onTrade);
+        
+        // Price alerts are checked against every tick, after the books are re-quoted
+        alertEngine = new AlertEngine(marketService.getMarketState(), exchange);
+        alertEngine.addAlertListener(this::onAlert);
+        marketService.addMarketListener(alertEngine);
+        
+        // Candles come from ticks and trades; restored history also seeds change24h.
+        // Replayed ticks are timed by the recording and kept out of the archive
+        String replayPath = System.getProperty(REPLAY_PROPERTY);
+        candleAggregator = new CandleAggregator(marketService.getMarketState(), this::currentMarketTime);
+        if (replayPath == null) {
+            openCandleArchive();
+        }
+        marketService.addMarketListener(candleAggregator);
+        exchange.addPrintListener(candleAggregator);
+        
+        // Chart the selected symbol from its candle history onwards
+        priceChart.setClock(this::currentMarketTime);
+        showPriceChart();
+        marketService.addMarketListener(priceChart);
+        
+        // Render only the rows and labels touched by each tick
+        renderScheduler = new RenderScheduler(
+            marketService.getMarketState().capacity(), this::renderFrame);
+        marketService.addMarketListener(portfolioValuator);
+        marketService.addMarketListener(renderScheduler);
+        
+        // Broadcast the same ticks to local dashboards and bots when asked to
+        if (System.getProperty(FEED_PORT_PROPERTY) != null) {
+            startFeedServer();
+        }
+        if (System.getProperty(GATEWAY_PORT_PROPERTY) != null) {
+            startOrderGateway();
+        }
+        
+        // Start market updates
+        if (replayPath == null) {
+            marketService.startMarketUpdates();
+        } else {
+            startReplay(Paths.get(replayPath));
+        }
+    }
+    
+    /**
+     * Drive the market from a recording, falling back to the simulation if it cannot be read
+     */
+    private void startReplay(Path path) {
+        try {
+            double speed = Double.parseDouble(System.getProperty(REPLAY_SPEED_PROPERTY, "1"));
+            TickSource source = TickSource.open(path, marketService::listRecordedSymbol);
+            marketReplay = marketService.startReplay(source, speed > 0 ? speed : MarketReplay.MAX_SPEED);
+        } catch (IOException | NumberFormatException e) {
+            e.printStackTrace();
+            marketService.startMarketUpdates();
+        }
+    }
+    
+    /**
+     * Serve the market feed on the loopback interface; the UI keeps running without it on error
+     */
+    private void startFeedServer() {
+        try {
+            int port = Integer.parseInt(System.getProperty(FEED_PORT_PROPERTY));
+            FeedFormat format = FeedFormat.valueOf(
+                System.getProperty(FEED_FORMAT_PROPERTY, "binary").toUpperCase(Locale.ROOT));
+            feedServer = new FeedServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                                        format, this::currentMarketTime);
+            feedServer.start();
+            marketService.addMarketListener(feedServer);
+        } catch (IOException | IllegalArgumentException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Accept orders from local clients on the loopback interface; fills are journaled like UI trades
+     */
+    private void startOrderGateway() {
+        try {
+            int port = Integer.parseInt(System.getProperty(GATEWAY_PORT_PROPERTY));
+            orderGateway = new OrderGateway(new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                                            exchange, accountRegistry);
+            orderGateway.start();
+        } catch (IOException | NumberFormatException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Get the market's current time: the recorded time while replaying, otherwise the wall clock
+     */
+    private long currentMarketTime() {
+        MarketReplay replay = marketReplay;
+        if (replay == null || replay.getCurrentTimeMillis() == Long.MIN_VALUE) {
+            return System.currentTimeMillis();
+        }
+        return replay.getCurrentTimeMillis();
+    }
+    
+    /**
+     * Open the trade journal, replaying it into the account registry
+     */
+    private void openTradeJournal() {
+        Consumer<JournalRecord> rebuildAccounts = TradeJournal.replayInto(accountRegistry);
+        try {
+            Files.createDirectories(JOURNAL_PATH.getParent());
+            tradeJournal = TradeJournal.open(JOURNAL_PATH, record -> {
+                rebuildAccounts.accept(record);
+                restoreHistory(record);
+            });
+        } catch (IOException e) {
+            // Keep trading without persistence rather than refusing to start
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Open the candle archive, restoring the minute, hour and day candles it holds
+     */
+    private void openCandleArchive() {
+        try {
+            Files.createDirectories(CANDLE_ARCHIVE_PATH.getParent());
+            candleAggregator.openArchive(CANDLE_ARCHIVE_PATH);
+        } catch (IOException e) {
+            // Candles still aggregate in memory
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Restore one journal record into the demo user's transaction history
+     */
+    private void restoreHistory(JournalRecord record) {
+        if (!DEMO_USERNAME.equals(record.getUsername())) return;
+        
+        long epochNanos = record.getTimestampMillis() * 1_000_000L;
+        int symbolId = marketService.getMarketState().idOf(record.getSymbol());
+        switch (record.getType()) {
+            case BUY:
+                transactionHistory.add(epochNanos, symbolId, Transaction.TransactionType.BUY,
+                    record.getAmount(), record.getPrice());
+                break;
+            case SELL:
+                transactionHistory.add(epochNanos, symbolId, Transaction.TransactionType.SELL,
+                    record.getAmount(), record.getPrice());
+                break;
+            case RESET:
+                transactionHistory.clear();
+                break;
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * Journal a settled fill and add it to the history of the current user.
+     * Fills of resting orders settle on the tick thread, so history updates are
+     * moved to the FX thread when needed.
+     */
+    private void onTrade(User user, String symbol, Transaction.TransactionType side, double amount, double price) {
+        if (tradeJournal != null) {
+            JournalRecord.Type type = side == Transaction.TransactionType.BUY
+                ? JournalRecord.Type.BUY : JournalRecord.Type.SELL;
+            tradeJournal.append(type, user.getUsername(), symbol, amount, price);
+        }
+        if (user != currentUser) return;
+        
+        if (Platform.isFxApplicationThread()) {
+            recordTransaction(symbol, side, amount, price);
+        } else {
+            Platform.runLater(() -> recordTransaction(symbol, side, amount, price));
+        }
+    }
+    
+    /**
+     * Add a fill to the transaction history
+     */
+    private void recordTransaction(String symbol, Transaction.TransactionType type, double amount, double price) {
+        Instant now = Instant.now();
+        long epochNanos = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+        transactionHistory.add(epochNanos, marketService.getMarketState().idOf(symbol), type, amount, price);
+    }
+    
+    /**
+     * Record account activity in the journal, if one is open
+     */
+    private void journal(JournalRecord.Type type, String symbol, double amount, double price) {
+        if (tradeJournal != null) {
+            tradeJournal.append(type, currentUser.getUsername(), symbol, amount, price);
+        }
+    }
+    
+    /**
+     * Set up the market data table
+     */
+    private void setupMarketTable() {
+        // Direct accessors rather than reflective PropertyValueFactory lookups
+        ColumnBindings.bind(symbolColumn, MarketRow::symbolProperty);
+        ColumnBindings.bind(nameColumn, MarketRow::nameProperty);
+        ColumnBindings.bind(priceColumn, MarketRow::priceProperty);
+        ColumnBindings.bind(changeColumn, MarketRow::change24hProperty);
+        
+        // Format the price column to show currency
+        priceColumn.setCellFactory(column -> new FormattedCell<>(NumberFormatter.currency()));
+        
+        // Format the change column to show percentage and color-code it
+        changeColumn.setCellFactory(column ->
+            new FormattedCell<>(NumberFormatter.percent(), Color.GREEN, Color.RED));
+        
+        // Bind the table to one row per listed cryptocurrency
+        marketRows = new MarketRow[marketService.getMarketState().capacity()];
+        marketTableView.setItems(FXCollections.observableArrayList());
+        for (Cryptocurrency crypto : marketService.getMarketData().values()) {
+            addMarketRow(crypto);
+        }
+        
+        // Right-click a symbol to be told when its price reaches a level or moves
+        MenuItem alertAbove = new MenuItem("Alert Above...");
+        alertAbove.setOnAction(e -> addPriceAlert(Condition.ABOVE));
+        MenuItem alertBelow = new MenuItem("Alert Below...");
+        alertBelow.setOnAction(e -> addPriceAlert(Condition.BELOW));
+        MenuItem alertMove = new MenuItem("Alert on " + (int) ALERT_MOVE_PERCENT + "% Move");
+        alertMove.setOnAction(e -> addPriceAlert(Condition.MOVE_PERCENT));
+        marketTableView.setContextMenu(new ContextMenu(alertAbove, alertBelow, alertMove));
+    }
+    
+    /**
+     * Show a listed cryptocurrency in the market table; its cells sync on the next frame
+     * that touches it
+     */
+    private void addMarketRow(Cryptocurrency crypto) {
+        MarketRow row = new MarketRow(crypto);
+        marketRows[crypto.getId()] = row;
+        marketTableView.getItems().add(row);
+    }
+    
+    /**
+     * Add an alert for the selected symbol, asking for the price level if the condition needs one
+     */
+    private void addPriceAlert(Condition condition) {
+        MarketRow row = marketTableView.getSelectionModel().getSelectedItem();
+        if (row == null) return;
+        
+        String symbol = row.getSymbol();
+        double value = ALERT_MOVE_PERCENT;
+        if (condition != Condition.MOVE_PERCENT) {
+            TextInputDialog dialog = new TextInputDialog(Double.toString(row.getPrice()));
+            dialog.setTitle("Price Alert");
+            dialog.setHeaderText(null);
+            dialog.setContentText("Alert when " + symbol + " is at or "
+                + (condition == Condition.ABOVE ? "above" : "below") + ":");
+            Optional<String> input = dialog.showAndWait();
+            if (!input.isPresent()) return;
+            try {
+                value = Double.parseDouble(input.get());
+            } catch (NumberFormatException e) {
+                showAlert(Alert.AlertType.ERROR, "Invalid Input", 
+                          "Please enter a valid number for the price.");
+                return;
+            }
+        }
+        
+        try {
+            alertEngine.addAlert(currentUser, symbol, condition, value);
+        } catch (IllegalArgumentException e) {
+            showAlert(Alert.AlertType.ERROR, "Invalid Alert", e.getMessage());
+        }
+    }
+    
+    /**
+     * Tell the current user about a fired alert. Alerts fire on the tick thread.
+     */
+    private void onAlert(User user, String symbol, long triggerId, TriggerAction action,
+                         double price, long orderId) {
+        if (user != currentUser) return;
+        
+        Platform.runLater(() -> {
+            String priceText = alertPriceFormat.text(price);
+            if (action == TriggerAction.NOTIFY) {
+                showAlert(Alert.AlertType.INFORMATION, "Price Alert", symbol + " reached " + priceText);
+                return;
+            }
+            
+            String message = "Your " + action.name().toLowerCase(Locale.ROOT) + " order for "
+                + symbol + " triggered at " + priceText;
+            if (orderId == Exchange.REJECTED) {
+                showAlert(Alert.AlertType.ERROR, "Order Rejected", message + " but could not be covered.");
+            } else {
+                showAlert(Alert.AlertType.INFORMATION, "Order Triggered", message + ".");
+            }
+            updateUserInfo();
+        });
+    }
+    
+    /**
+     * Set up the transaction history table
+     */
+    private void setupTransactionTable() {
+        // Cells read from rows formatted once per visible transaction, so scrolling
+        // allocates nothing for rows that are already cached
+        ColumnBindings.bind(transactionTimeColumn, entry -> transactionRows.get(entry).timeProperty());
+        ColumnBindings.bind(transactionTypeColumn, entry -> transactionRows.get(entry).typeProperty());
+        ColumnBindings.bind(transactionSymbolColumn, entry -> transactionRows.get(entry).symbolProperty());
+        ColumnBindings.bind(transactionAmountColumn, entry -> transactionRows.get(entry).amountProperty());
+        ColumnBindings.bind(transactionPriceColumn, entry -> transactionRows.get(entry).priceProperty());
+        ColumnBindings.bind(transactionTotalColumn, entry -> transactionRows.get(entry).totalProperty());
+        
+        // History is already newest first; sorting would materialise every record
+        for (TableColumn<TransactionEntry, ?> column : transactionTableView.getColumns()) {
+            column.setSortable(false);
+        }
+        
+        // Fixed row height lets the virtual flow skip measuring rows while scrolling
+        transactionTableView.setFixedCellSize(TRANSACTION_ROW_HEIGHT);
+        
+        // Bind the table to transaction history
+        transactionTableView.setItems(transactionHistory);
+    }
+    
+    /**
+     * Set up the cryptocurrency selection dropdown
+     */
+    private void setupCryptoSelection() {
+        // Populate combo box with available cryptocurrencies
+        cryptoComboBox.setItems(FXCollections.observableArrayList(
+            marketService.getMarketData().keySet()));
+        
+        // Set default selection
+        if (!cryptoComboBox.getItems().isEmpty()) {
+            cryptoComboBox.setValue(cryptoComboBox.getItems().get(0));
+            updateSelectedCrypto();
+        }
+        
+        // Add listener for selection changes
+        cryptoComboBox.setOnAction(e -> {
+            showPriceChart();
+            updateSelectedCrypto();
+        });
+        
+        // Add listener for amount changes
+        amountTextField.textProperty().addListener((obs, oldVal, newVal) -> {
+            try {
+                double amount = Double.parseDouble(newVal);
+                updateTotalCost(amount);
+            } catch (NumberFormatException ex) {
+                totalCostLabel.setText("$0.00");
+            }
+        });
+    }
+    
+    /**
+     * Set up the order type dropdown and the price fields of conditional orders
+     */
+    private void setupOrderTypeSelection() {
+        ObservableList<String> types = FXCollections.observableArrayList(MARKET_ORDER);
+        types.addAll(CONDITIONAL_ORDER_LABELS);
+        orderTypeComboBox.setItems(types);
+        orderTypeComboBox.setValue(MARKET_ORDER);
+        
+        // Only show the prices the selected type uses
+        orderTypeComboBox.setOnAction(e -> {
+            ConditionalOrderType type = selectedConditionalType();
+            triggerPriceTextField.setDisable(type == null);
+            limitPriceTextField.setDisable(type != ConditionalOrderType.STOP_LIMIT);
+            triggerPriceTextField.setPromptText(
+                type == ConditionalOrderType.TRAILING_STOP ? "Trail distance" : "Trigger price");
+        });
+        triggerPriceTextField.setDisable(true);
+        limitPriceTextField.setDisable(true);
+    }
+    
+    /**
+     * Get the selected conditional order type
+     * @return Type, or null for a market order
+     */
+    private ConditionalOrderType selectedConditionalType() {
+        int index = orderTypeComboBox.getSelectionModel().getSelectedIndex();
+        return index > 0 ? CONDITIONAL_ORDER_TYPES[index - 1] : null;
+    }
+    
+    /**
+     * Set up user information display
+     */
+    private void setupUserInfo() {
+        usernameLabel.setText(currentUser.getUsername());
+        updateUserInfo();
+    }
+    
+    /**
+     * Set up button handlers
+     */
+    private void setupButtonHandlers() {
+        buyButton.setOnAction(e -> executeBuy());
+        sellButton.setOnAction(e -> executeSell());
+        resetAccountButton.setOnAction(e -> resetAccount());
+    }
+    
+    /**
+     * Render one frame of market changes
+     * @param dirtyIds Ids of the symbols that changed since the last frame
+     */
+    private void renderFrame(BitSet dirtyIds) {
+        boolean holdingsChanged = false;
+        
+        for (int id = dirtyIds.nextSetBit(0); id >= 0; id = dirtyIds.nextSetBit(id + 1)) {
+            MarketRow row = marketRows[id];
+            if (row == null) continue;
+            
+            row.sync();
+            if (currentUser.getCryptoAmount(row.getSymbol()) > 0) {
+                holdingsChanged = true;
+            }
+        }
+        
+        if (holdingsChanged) {
+            updateUserInfo();
+        }
+        
+        String selected = cryptoComboBox.getValue();
+        Cryptocurrency selectedCrypto = selected == null ? null : marketService.getCryptocurrency(selected);
+        if (selectedCrypto != null && dirtyIds.get(selectedCrypto.getId())) {
+            updateSelectedCrypto();
+            priceChart.redraw();
+        }
+    }
+    
+    /**
+     * Update the user information display
+     */
+    private void updateUserInfo() {
+        long balance = currentUser.getBalanceUnits();
+        balanceLabel.setText(balanceFormat.textUnits(balance));
+        
+        double portfolioValue = currentUser.getPortfolioValue();
+        portfolioValueLabel.setText(portfolioValueFormat.text(portfolioValue));
+        
+        double totalWorth = Fixed.toDouble(balance) + portfolioValue;
+        totalWorthLabel.setText(totalWorthFormat.text(totalWorth));
+    }
+    
+    /**
+     * Update the selected cryptocurrency information
+     */
+    private void updateSelectedCrypto() {
+        String symbol = cryptoComboBox.getValue();
+        if (symbol == null) return;
+        
+        Cryptocurrency crypto = marketService.getCryptocurrency(symbol);
+        if (crypto == null) return;
+        
+        currentPriceLabel.setText(currentPriceFormat.text(crypto.getPrice()));
+        cryptoDescriptionLabel.setText(crypto.getDescription());
+        
+        double ownedAmount = currentUser.getCryptoAmount(symbol);
+        cryptoHoldingsLabel.setText(holdingsFormat.text(ownedAmount, symbol));
+        
+        // Update total cost based on current amount
+        try {
+            double amount = Double.parseDouble(amountTextField.getText());
+            updateTotalCost(amount);
+        } catch (NumberFormatException e) {
+            // Ignore invalid input
+        }
+    }
+    
+    /**
+     * Point the price chart at the selected cryptocurrency, seeded with candle closes:
+     * one-minute candles for the past day, then one-second candles for the last minutes
+     */
+    private void showPriceChart() {
+        String symbol = cryptoComboBox.getValue();
+        Cryptocurrency crypto = symbol == null ? null : marketService.getCryptocurrency(symbol);
+        if (crypto == null) {
+            priceChart.setSymbol(-1);
+            priceChart.redraw();
+            return;
+        }
+        
+        int id = crypto.getId();
+        CandleSeries minutes = candleAggregator.getSeries(id, CandleInterval.MINUTE);
+        CandleSeries seconds = candleAggregator.getSeries(id, CandleInterval.SECOND);
+        long[] times;
+        double[] prices;
+        int count = 0;
+        synchronized (seconds) {
+            synchronized (minutes) {
+                times = new long[minutes.size() + seconds.size()];
+                prices = new double[times.length];
+                long secondsStart = seconds.isEmpty() ? Long.MAX_VALUE : seconds.getStartMillis(0);
+                for (int i = 0; i < minutes.size() && minutes.getStartMillis(i) < secondsStart; i++) {
+                    times[count] = minutes.getStartMillis(i);
+                    prices[count++] = minutes.getClose(i);
+                }
+            }
+            for (int i = 0; i < seconds.size(); i++) {
+                times[count] = seconds.getStartMillis(i);
+                prices[count++] = seconds.getClose(i);
+            }
+        }
+        // Clear and seed in one step, so a tick cannot land before the older points
+        priceChart.setSymbol(id, times, prices, count);
+        priceChart.redraw();
+    }
+    
+    /**
+     * Update the total cost display
+     */
+    private void updateTotalCost(double amount) {
+        String symbol = cryptoComboBox.getValue();
+        if (symbol == null) return;
+        
+        Cryptocurrency crypto = marketService.getCryptocurrency(symbol);
+        if (crypto == null) return;
+        
+        double totalCost = amount * crypto.getPrice();
+        totalCostLabel.setText(totalCostFormat.text(totalCost));
+    }
+    
+    /**
+     * Execute a buy transaction
+     */
+    private void executeBuy() {
+        String symbol = cryptoComboBox.getValue();
+        if (symbol == null) return;
+        
+        Cryptocurrency crypto = marketService.getCryptocurrency(symbol);
+        if (crypto == null) return;
+        
+        try {
+            double amount = Double.parseDouble(amountTextField.getText());
+            if (amount <= 0) {
+                showAlert(Alert.AlertType.ERROR, "Invalid Amount", 
+                          "Please enter a positive amount to buy.");
+                return;
+            }
+            
+            ConditionalOrderType conditional = selectedConditionalType();
+            if (conditional != null) {
+                placeConditionalOrder(symbol, Transaction.TransactionType.BUY, conditional, amount);
+                return;
+            }
+            
+            OrderResult result = exchange.placeOrder(currentUser, symbol, Transaction.TransactionType.BUY,
+                                                     OrderType.MARKET, 0, amount);
+            double filled = result.getFilled();
+            
+            if (result.isRejected()) {
+                showAlert(Alert.AlertType.ERROR, "Transaction Failed", 
+                          "Insufficient funds for this purchase.");
+            } else if (filled <= 0) {
+                showAlert(Alert.AlertType.ERROR, "Transaction Failed", 
+                          "No sellers are available for " + symbol + ".");
+            } else {
+                updateUserInfo();
+                clearTransactionInput();
+                showAlert(Alert.AlertType.INFORMATION, "Transaction Successful", 
+                          "Successfully purchased " + filledFormat.text(filled, symbol));
+            }
+        } catch (NumberFormatException e) {
+            showAlert(Alert.AlertType.ERROR, "Invalid Input", 
+                      "Please enter a valid number for amount.");
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            // Below one lot, or too large for fixed point
+            showAlert(Alert.AlertType.ERROR, "Invalid Amount", e.getMessage());
+        }
+    }
+    
+    /**
+     * Execute a sell transaction
+     */
+    private void executeSell() {
+        String symbol = cryptoComboBox.getValue();
+        if (symbol == null) return;
+        
+        Cryptocurrency crypto = marketService.getCryptocurrency(symbol);
+        if (crypto == null) return;
+        
+        try {
+            double amount = Double.parseDouble(amountTextField.getText());
+            if (amount <= 0) {
+                showAlert(Alert.AlertType.ERROR, "Invalid Amount", 
+                          "Please enter a positive amount to sell.");
+                return;
+            }
+            
+            ConditionalOrderType conditional = selectedConditionalType();
+            if (conditional != null) {
+                placeConditionalOrder(symbol, Transaction.TransactionType.SELL, conditional, amount);
+                return;
+            }
+            
+            OrderResult result = exchange.placeOrder(currentUser, symbol, Transaction.TransactionType.SELL,
+                                                     OrderType.MARKET, 0, amount);
+            double filled = result.getFilled();
+            
+            if (result.isRejected()) {
+                showAlert(Alert.AlertType.ERROR, "Transaction Failed", 
+                          "Insufficient cryptocurrency holdings for this sale.");
+            } else if (filled <= 0) {
+                showAlert(Alert.AlertType.ERROR, "Transaction Failed", 
+                          "No buyers are available for " + symbol + ".");
+            } else {
+                updateUserInfo();
+                clearTransactionInput();
+                showAlert(Alert.AlertType.INFORMATION, "Transaction Successful", 
+                          "Successfully sold " + filledFormat.text(filled, symbol));
+            }
+        } catch (NumberFormatException e) {
+            showAlert(Alert.AlertType.ERROR, "Invalid Input", 
+                      "Please enter a valid number for amount.");
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            // Below one lot, or too large for fixed point
+            showAlert(Alert.AlertType.ERROR, "Invalid Amount", e.getMessage());
+        }
+    }
+    
+    /**
+     * Rest a conditional order for the current user; it trades when the tick stream
+     * reaches its trigger
+     */
+    private void placeConditionalOrder(String symbol, Transaction.TransactionType side,
+                                       ConditionalOrderType type, double amount) {
+        double triggerPrice;
+        double limitPrice = 0;
+        try {
+            triggerPrice = Double.parseDouble(triggerPriceTextField.getText());
+            if (type == ConditionalOrderType.STOP_LIMIT) {
+                limitPrice = Double.parseDouble(limitPriceTextField.getText());
+            }
+        } catch (NumberFormatException e) {
+            showAlert(Alert.AlertType.ERROR, "Invalid Input", 
+                      "Please enter valid numbers for the order prices.");
+            return;
+        }
+        
+        try {
+            alertEngine.placeConditionalOrder(currentUser, symbol, side, type, triggerPrice, limitPrice, amount);
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            showAlert(Alert.AlertType.ERROR, "Invalid Order", e.getMessage());
+            return;
+        }
+        
+        String label = orderTypeComboBox.getValue();
+        clearTransactionInput();
+        showAlert(Alert.AlertType.INFORMATION, "Order Placed", 
+                  label + " order to " + side.name().toLowerCase(Locale.ROOT) + " "
+                  + filledFormat.text(amount, symbol) + " is waiting for its trigger.");
+    }
+    
+    /**
+     * Reset the user's account
+     */
+    private void resetAccount() {
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+        alert.setTitle("Reset Account");
+        alert.setHeaderText("Reset Your Account");
+        alert.setContentText("Are you sure you want to reset your account? " +
+                            "This will clear your portfolio and set your balance back to the default.");
+        
+        alert.showAndWait().ifPresent(response -> {
+            if (response == ButtonType.OK) {
+                alertEngine.cancelAll(currentUser);
+                currentUser.resetAccount();
+                transactionHistory.clear();
+                journal(JournalRecord.Type.RESET, null, 0, 0);
+                updateUserInfo();
+                clearTransactionInput();
+            }
+        });
+    }
+    
+    /**
+     * Clear the transaction input fields
+     */
+    private void clearTransactionInput() {
+        amountTextField.clear();
+        triggerPriceTextField.clear();
+        limitPriceTextField.clear();
+        updateSelectedCrypto();
+    }
+    
+    /**
+     * Show an alert dialog
+     */
+    private void showAlert(Alert.AlertType type, String title, String message) {
+        Alert alert = new Alert(type);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.showAndWait();
+    }
+    
+    /**
+     * Clean up resources when the application closes
+     */
+    public void shutdown() {
+        if (orderGateway != null) {
+            try {
+                orderGateway.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        
+        marketService.stopMarketUpdates();
+        
+        if (tradeJournal != null) {
+            try {
+                tradeJournal.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        
+        if (candleAggregator != null) {
+            try {
+                candleAggregator.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        
+        if (feedServer != null) {
+            try {
+                feedServer.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.cryptoui.exchange;
+
+/**
+ * Receives the fills produced by an {@link OrderBook}.
+ * Called synchronously on the matching thread with primitive arguments only, so
+ * matching allocates nothing per fill.
+ */
+public interface FillHandler {
+    
+    /**
+     * Handle one fill between a resting order and an incoming order
+     * @param makerOrderId Id of the resting order
+     * @param makerOwner Owner of the resting order
+     * @param takerOwner Owner of the incoming order
+     * @param takerBuys true if the incoming order is a buy
+     * @param price Fill price in fixed-point units, always the resting order's price
+     * @param quantity Filled quantity in fixed-point units
+     */
+    void onFill(long makerOrderId, int makerOwner, int takerOwner, boolean takerBuys,
+                long price, long quantity);
+}
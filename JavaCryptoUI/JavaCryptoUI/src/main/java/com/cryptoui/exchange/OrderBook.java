@@ -0,0 +1,452 @@
+package com.cryptoui.exchange;
+
+import com.cryptoui.market.Fixed;
+
+import java.util.Arrays;
+
+/**
+ * Price-time priority limit order book for a single symbol.
+ * <p>
+ * Orders live in a pool of parallel primitive arrays and are chained into a FIFO
+ * linked list per price level. Each side keeps its active levels in sorted arrays with
+ * the best level last, so the top of the book is read, consumed and dropped in O(1)
+ * and a new level is placed with a binary search. Once the pool and level arrays have
+ * grown to the working size of the book, submitting, matching and cancelling orders
+ * allocate nothing.
+ * <p>
+ * Prices and quantities are {@link Fixed} longs with {@link #SCALE} units per whole.
+ * Not thread-safe; callers must serialize access to a book.
+ */
+public class OrderBook {
+    public static final long SCALE = Fixed.SCALE;
+    
+    /** Returned by {@link #submit} when nothing of the order rests in the book */
+    public static final long NO_ORDER = 0;
+    
+    private static final int NIL = -1;
+    private static final int INITIAL_ORDERS = 64;
+    private static final int INITIAL_LEVELS = 16;
+    
+    private final FillHandler handler;
+    
+    // Order pool, indexed by slot
+    private long[] orderIds;
+    private long[] orderPrices;
+    private long[] orderQuantities;
+    private int[] orderOwners;
+    private boolean[] orderBuys;
+    private int[] nextOrders;
+    private int[] prevOrders;
+    private int[] generations;
+    private int slotsUsed;
+    private int freeSlot = NIL;
+    private int liveOrders;
+    
+    private final Side bids = new Side(true);
+    private final Side asks = new Side(false);
+    
+    private long lastTradePrice;
+    
+    /**
+     * Create an empty book
+     * @param handler Receives every fill; must not call back into this book
+     */
+    public OrderBook(FillHandler handler) {
+        this.handler = handler;
+        this.orderIds = new long[INITIAL_ORDERS];
+        this.orderPrices = new long[INITIAL_ORDERS];
+        this.orderQuantities = new long[INITIAL_ORDERS];
+        this.orderOwners = new int[INITIAL_ORDERS];
+        this.orderBuys = new boolean[INITIAL_ORDERS];
+        this.nextOrders = new int[INITIAL_ORDERS];
+        this.prevOrders = new int[INITIAL_ORDERS];
+        this.generations = new int[INITIAL_ORDERS];
+    }
+    
+    /**
+     * Match an order against the opposite side and rest what is left of a limit order
+     * @param owner Owner id passed back in fills
+     * @param buy true for a buy order
+     * @param type Order type
+     * @param price Limit price in fixed-point units; ignored for market orders
+     * @param quantity Quantity in fixed-point units
+     * @return Id of the resting remainder, or {@link #NO_ORDER} if nothing rests
+     * @throws IllegalArgumentException if the quantity or limit price is not positive
+     */
+    public long submit(int owner, boolean buy, OrderType type, long price, long quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        long limit;
+        if (type == OrderType.MARKET) {
+            limit = buy ? Long.MAX_VALUE : 0;
+        } else if (price <= 0) {
+            throw new IllegalArgumentException("Limit price must be positive");
+        } else {
+            limit = price;
+        }
+        
+        long remaining = match(owner, buy, limit, quantity);
+        if (remaining == 0 || type != OrderType.LIMIT) {
+            return NO_ORDER;
+        }
+        return rest(owner, buy, price, remaining);
+    }
+    
+    /**
+     * Cancel a resting order
+     * @param orderId Id returned by {@link #submit}
+     * @return Quantity that was still open, or 0 if the order was not live
+     */
+    public long cancel(long orderId) {
+        int slot = liveSlot(orderId);
+        if (slot == NIL) {
+            return 0;
+        }
+        long remaining = orderQuantities[slot];
+        (orderBuys[slot] ? bids : asks).unlink(slot);
+        release(slot);
+        return remaining;
+    }
+    
+    /**
+     * Total cost of the part of an order that would fill right now
+     * @param buy true to walk the asks, false to walk the bids
+     * @param quantity Quantity in fixed-point units
+     * @param limit Worst acceptable price in fixed-point units
+     * @return Sum of fill quantity * price over the fills, in fixed-point units
+     */
+    public long quoteCost(boolean buy, long quantity, long limit) {
+        Side book = buy ? asks : bids;
+        long cost = 0;
+        for (int level = book.count - 1; level >= 0 && quantity > 0; level--) {
+            long price = book.priceAt(level);
+            if (buy ? price > limit : price < limit) {
+                break;
+            }
+            // Same per-order fill split as match() so the sums agree
+            for (int slot = book.heads[level]; slot != NIL && quantity > 0; slot = nextOrders[slot]) {
+                long fill = Math.min(quantity, orderQuantities[slot]);
+                cost += Fixed.multiply(fill, price);
+                quantity -= fill;
+            }
+        }
+        return cost;
+    }
+    
+    public boolean isLive(long orderId) {
+        return liveSlot(orderId) != NIL;
+    }
+    
+    // Accessors for live orders
+    public long getOrderPrice(long orderId) {
+        return orderPrices[requireLive(orderId)];
+    }
+    
+    public long getOrderQuantity(long orderId) {
+        return orderQuantities[requireLive(orderId)];
+    }
+    
+    public int getOrderOwner(long orderId) {
+        return orderOwners[requireLive(orderId)];
+    }
+    
+    public boolean isBuyOrder(long orderId) {
+        return orderBuys[requireLive(orderId)];
+    }
+    
+    public int getOrderCount() {
+        return liveOrders;
+    }
+    
+    /**
+     * Get the best bid
+     * @return Highest bid price in fixed-point units, or 0 if there are no bids
+     */
+    public long getBestBid() {
+        return bids.count == 0 ? 0 : bids.priceAt(bids.count - 1);
+    }
+    
+    /**
+     * Get the best ask
+     * @return Lowest ask price in fixed-point units, or 0 if there are no asks
+     */
+    public long getBestAsk() {
+        return asks.count == 0 ? 0 : asks.priceAt(asks.count - 1);
+    }
+    
+    /**
+     * Get the mid price
+     * @return Average of the best bid and ask, or 0 if either side is empty
+     */
+    public long getMidPrice() {
+        if (bids.count == 0 || asks.count == 0) {
+            return 0;
+        }
+        return (getBestBid() + getBestAsk()) / 2;
+    }
+    
+    /**
+     * Get the price of the last fill
+     * @return Last trade price in fixed-point units, or 0 if nothing has traded
+     */
+    public long getLastTradePrice() {
+        return lastTradePrice;
+    }
+    
+    public int getLevelCount(boolean buy) {
+        return (buy ? bids : asks).count;
+    }
+    
+    /**
+     * Get the price of a level
+     * @param depth 0 for the best level
+     */
+    public long getLevelPrice(boolean buy, int depth) {
+        Side book = buy ? bids : asks;
+        return book.priceAt(book.levelAt(depth));
+    }
+    
+    /**
+     * Get the total open quantity of a level
+     * @param depth 0 for the best level
+     */
+    public long getLevelQuantity(boolean buy, int depth) {
+        Side book = buy ? bids : asks;
+        return book.quantities[book.levelAt(depth)];
+    }
+    
+    /**
+     * Convert a value to fixed-point units, rounding to the nearest unit
+     */
+    public static long toFixed(double value) {
+        return Fixed.of(value);
+    }
+    
+    /**
+     * Convert fixed-point units to a value
+     */
+    public static double toDouble(long fixed) {
+        return Fixed.toDouble(fixed);
+    }
+    
+    private long match(int owner, boolean buy, long limit, long quantity) {
+        Side book = buy ? asks : bids;
+        while (quantity > 0 && book.count > 0) {
+            int level = book.count - 1;
+            long price = book.priceAt(level);
+            if (buy ? price > limit : price < limit) {
+                break;
+            }
+            
+            int slot = book.heads[level];
+            while (quantity > 0 && slot != NIL) {
+                long fill = Math.min(quantity, orderQuantities[slot]);
+                long makerId = orderIds[slot];
+                int makerOwner = orderOwners[slot];
+                int next = nextOrders[slot];
+                
+                orderQuantities[slot] -= fill;
+                book.quantities[level] -= fill;
+                quantity -= fill;
+                if (orderQuantities[slot] == 0) {
+                    // Filled makers are always at the head of the queue
+                    book.heads[level] = next;
+                    if (next == NIL) {
+                        book.tails[level] = NIL;
+                    } else {
+                        prevOrders[next] = NIL;
+                    }
+                    release(slot);
+                }
+                lastTradePrice = price;
+                
+                // The book is consistent before the handler runs
+                handler.onFill(makerId, makerOwner, owner, buy, price, fill);
+                slot = next;
+            }
+            
+            if (book.heads[level] == NIL) {
+                // The best level is always the last one, so dropping it is a decrement
+                book.count = level;
+            }
+        }
+        return quantity;
+    }
+    
+    private long rest(int owner, boolean buy, long price, long quantity) {
+        int slot = allocate();
+        long orderId = ((long) generations[slot] << 32) | slot;
+        orderIds[slot] = orderId;
+        orderPrices[slot] = price;
+        orderQuantities[slot] = quantity;
+        orderOwners[slot] = owner;
+        orderBuys[slot] = buy;
+        (buy ? bids : asks).append(slot);
+        liveOrders++;
+        return orderId;
+    }
+    
+    private int allocate() {
+        int slot = freeSlot;
+        if (slot != NIL) {
+            freeSlot = nextOrders[slot];
+            return slot;
+        }
+        
+        if (slotsUsed == orderIds.length) {
+            int capacity = orderIds.length * 2;
+            orderIds = Arrays.copyOf(orderIds, capacity);
+            orderPrices = Arrays.copyOf(orderPrices, capacity);
+            orderQuantities = Arrays.copyOf(orderQuantities, capacity);
+            orderOwners = Arrays.copyOf(orderOwners, capacity);
+            orderBuys = Arrays.copyOf(orderBuys, capacity);
+            nextOrders = Arrays.copyOf(nextOrders, capacity);
+            prevOrders = Arrays.copyOf(prevOrders, capacity);
+            generations = Arrays.copyOf(generations, capacity);
+        }
+        slot = slotsUsed++;
+        generations[slot] = 1;
+        return slot;
+    }
+    
+    private void release(int slot) {
+        orderIds[slot] = NO_ORDER;
+        // Bump the generation so stale ids of this slot no longer resolve; never reach 0
+        int generation = (generations[slot] + 1) & Integer.MAX_VALUE;
+        generations[slot] = generation == 0 ? 1 : generation;
+        nextOrders[slot] = freeSlot;
+        freeSlot = slot;
+        liveOrders--;
+    }
+    
+    private int liveSlot(long orderId) {
+        int slot = (int) orderId;
+        if (orderId == NO_ORDER || slot < 0 || slot >= slotsUsed || orderIds[slot] != orderId) {
+            return NIL;
+        }
+        return slot;
+    }
+    
+    private int requireLive(long orderId) {
+        int slot = liveSlot(orderId);
+        if (slot == NIL) {
+            throw new IllegalArgumentException("Order is not live: " + orderId);
+        }
+        return slot;
+    }
+    
+    /**
+     * Price levels of one side. Levels are sorted by key, where the key is the price
+     * for bids and the negated price for asks, so the best level is always last.
+     */
+    private final class Side {
+        private final boolean buy;
+        private long[] keys = new long[INITIAL_LEVELS];
+        private int[] heads = new int[INITIAL_LEVELS];
+        private int[] tails = new int[INITIAL_LEVELS];
+        private long[] quantities = new long[INITIAL_LEVELS];
+        private int count;
+        
+        Side(boolean buy) {
+            this.buy = buy;
+        }
+        
+        long priceAt(int level) {
+            return buy ? keys[level] : -keys[level];
+        }
+        
+        int levelAt(int depth) {
+            if (depth < 0 || depth >= count) {
+                throw new IndexOutOfBoundsException("Depth " + depth + " out of bounds for " + count + " levels");
+            }
+            return count - 1 - depth;
+        }
+        
+        /**
+         * Queue an order at the back of its price level, creating the level if needed
+         */
+        void append(int slot) {
+            long key = buy ? orderPrices[slot] : -orderPrices[slot];
+            int level;
+            if (count > 0 && keys[count - 1] == key) {
+                // Joining the best level is the common case
+                level = count - 1;
+            } else {
+                level = Arrays.binarySearch(keys, 0, count, key);
+                if (level < 0) {
+                    level = insert(-level - 1, key);
+                }
+            }
+            
+            int tail = tails[level];
+            prevOrders[slot] = tail;
+            nextOrders[slot] = NIL;
+            if (tail == NIL) {
+                heads[level] = slot;
+            } else {
+                nextOrders[tail] = slot;
+            }
+            tails[level] = slot;
+            quantities[level] += orderQuantities[slot];
+        }
+        
+        /**
+         * Remove an order from the middle of its queue, dropping the level if it empties
+         */
+        void unlink(int slot) {
+            long key = buy ? orderPrices[slot] : -orderPrices[slot];
+            int level = count > 0 && keys[count - 1] == key
+                ? count - 1
+                : Arrays.binarySearch(keys, 0, count, key);
+            
+            int prev = prevOrders[slot];
+            int next = nextOrders[slot];
+            if (prev == NIL) {
+                heads[level] = next;
+            } else {
+                nextOrders[prev] = next;
+            }
+            if (next == NIL) {
+                tails[level] = prev;
+            } else {
+                prevOrders[next] = prev;
+            }
+            quantities[level] -= orderQuantities[slot];
+            
+            if (heads[level] == NIL) {
+                remove(level);
+            }
+        }
+        
+        private int insert(int level, long key) {
+            if (count == keys.length) {
+                int capacity = keys.length * 2;
+                keys = Arrays.copyOf(keys, capacity);
+                heads = Arrays.copyOf(heads, capacity);
+                tails = Arrays.copyOf(tails, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+            }
+            int moved = count - level;
+            System.arraycopy(keys, level, keys, level + 1, moved);
+            System.arraycopy(heads, level, heads, level + 1, moved);
+            System.arraycopy(tails, level, tails, level + 1, moved);
+            System.arraycopy(quantities, level, quantities, level + 1, moved);
+            keys[level] = key;
+            heads[level] = NIL;
+            tails[level] = NIL;
+            quantities[level] = 0;
+            count++;
+            return level;
+        }
+        
+        private void remove(int level) {
+            int moved = count - level - 1;
+            System.arraycopy(keys, level + 1, keys, level, moved);
+            System.arraycopy(heads, level + 1, heads, level, moved);
+            System.arraycopy(tails, level + 1, tails, level, moved);
+            System.arraycopy(quantities, level + 1, quantities, level, moved);
+            count--;
+        }
+    }
+}
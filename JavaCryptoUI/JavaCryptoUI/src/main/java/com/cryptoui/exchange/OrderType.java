@@ -0,0 +1,13 @@
+package com.cryptoui.exchange;
+
+/**
+ * How an order interacts with the book
+ */
+public enum OrderType {
+    /** Match up to the limit price, then rest the remainder */
+    LIMIT,
+    /** Match at any price; the unfilled remainder is cancelled */
+    MARKET,
+    /** Immediate-or-cancel: match up to the limit price; the remainder is cancelled */
+    IOC
+}
@@ -0,0 +1,15 @@
+package com.cryptoui.exchange;
+
+/**
+ * Receives every trade printed on the exchange's books, whoever the counterparties are
+ */
+public interface PrintListener {
+    
+    /**
+     * Handle one print; called on the matching thread while the symbol's book is locked
+     * @param symbolId Interned symbol id
+     * @param price Trade price in fixed-point units
+     * @param quantity Traded quantity in fixed-point units
+     */
+    void onPrint(int symbolId, long price, long quantity);
+}
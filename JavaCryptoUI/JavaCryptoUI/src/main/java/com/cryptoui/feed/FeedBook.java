@@ -0,0 +1,81 @@
+package com.cryptoui.feed;
+
+import com.cryptoui.market.MarketSnapshot;
+
+import java.util.Arrays;
+
+/**
+ * Latest price and change per symbol, each stamped with the version that last changed it.
+ * <p>
+ * The engine thread folds snapshots in; the server thread encodes everything newer than
+ * a subscriber's last version. A subscriber that falls behind therefore receives only the
+ * latest value of each symbol instead of every intermediate tick. All access is
+ * synchronized on the book.
+ */
+final class FeedBook {
+    private static final int INITIAL_CAPACITY = 16;
+    
+    String[] symbols = new String[INITIAL_CAPACITY];
+    double[] prices = new double[INITIAL_CAPACITY];
+    double[] changes = new double[INITIAL_CAPACITY];
+    long[] versions = new long[INITIAL_CAPACITY];
+    int size;
+    long version;
+    long timeMillis;
+    
+    /**
+     * Fold a snapshot into the book
+     * @return The new version, or 0 if no row changed
+     */
+    synchronized long update(MarketSnapshot snapshot, long timeMillis) {
+        int rows = snapshot.size();
+        if (rows > symbols.length) {
+            grow(rows);
+        }
+        long next = version + 1;
+        boolean changed = false;
+        for (int i = 0; i < rows; i++) {
+            double price = snapshot.getPrice(i);
+            double change = snapshot.getChange24h(i);
+            if (i >= size) {
+                // Rows are only ever appended, so a new index is a newly listed symbol
+                symbols[i] = snapshot.getSymbol(i);
+            } else if (Double.doubleToLongBits(prices[i]) == Double.doubleToLongBits(price)
+                       && Double.doubleToLongBits(changes[i]) == Double.doubleToLongBits(change)) {
+                continue;
+            }
+            prices[i] = price;
+            changes[i] = change;
+            versions[i] = next;
+            changed = true;
+        }
+        size = Math.max(size, rows);
+        if (!changed) {
+            return 0;
+        }
+        version = next;
+        this.timeMillis = timeMillis;
+        return next;
+    }
+    
+    /**
+     * Count the rows changed after a version; callers must hold the book's lock
+     */
+    int countSince(long fromVersion) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (versions[i] > fromVersion) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, symbols.length * 2);
+        symbols = Arrays.copyOf(symbols, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        changes = Arrays.copyOf(changes, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+    }
+}
@@ -0,0 +1,214 @@
+package com.cryptoui.feed;
+
+import com.cryptoui.market.MarketListener;
+import com.cryptoui.market.MarketSnapshot;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Blocking subscriber to a {@link FeedServer}, for bots and dashboards in other processes.
+ * <p>
+ * Each frame is delivered to a {@link MarketListener} as a {@link MarketSnapshot} holding
+ * only the symbols that changed, with the frame's version as its sequence. Because the
+ * server conflates, versions may skip when the client falls behind.
+ */
+public class FeedClient implements Closeable {
+    private static final int RECEIVE_BUFFER_SIZE = 16 * 1024;
+    
+    private final Socket socket;
+    private final FeedFormat format;
+    private String[] symbols = new String[16];
+    private volatile long timeMillis = Long.MIN_VALUE;
+    
+    /**
+     * Connect to a feed server
+     * @param address Address the server listens on
+     * @param format Format the server writes
+     */
+    public FeedClient(InetSocketAddress address, FeedFormat format) throws IOException {
+        this.socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            // Keep little in the kernel so a slow client is conflated by the server instead
+            socket.setReceiveBufferSize(RECEIVE_BUFFER_SIZE);
+            socket.connect(address);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+        this.format = format;
+    }
+    
+    /**
+     * Receive frames on the calling thread until the server disconnects or the client is closed
+     * @param listener Receives one snapshot per frame
+     * @throws IOException if the connection fails or a frame is malformed
+     */
+    public void run(MarketListener listener) throws IOException {
+        try {
+            if (format == FeedFormat.BINARY) {
+                readBinary(listener);
+            } else {
+                readJson(listener);
+            }
+        } catch (EOFException e) {
+            // Server closed the connection
+        } catch (IOException e) {
+            if (!socket.isClosed()) {
+                throw e;
+            }
+        }
+    }
+    
+    /**
+     * Get the time stamped on the last frame
+     * @return Epoch milliseconds, or Long.MIN_VALUE before the first frame
+     */
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+    
+    private void readBinary(MarketListener listener) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        byte[] name = new byte[64];
+        while (true) {
+            int length = in.readInt();
+            long version = in.readLong();
+            long time = in.readLong();
+            int firstSymbol = in.readInt();
+            int newSymbols = in.readInt();
+            if (length < FeedFormat.HEADER_SIZE || firstSymbol < 0 || newSymbols < 0) {
+                throw new IOException("Malformed feed frame");
+            }
+            if (firstSymbol + newSymbols > symbols.length) {
+                symbols = Arrays.copyOf(symbols, Math.max(firstSymbol + newSymbols, symbols.length * 2));
+            }
+            for (int i = 0; i < newSymbols; i++) {
+                int nameLength = in.readUnsignedShort();
+                if (nameLength > name.length) {
+                    name = new byte[nameLength];
+                }
+                in.readFully(name, 0, nameLength);
+                symbols[firstSymbol + i] = new String(name, 0, nameLength, StandardCharsets.UTF_8);
+            }
+            
+            int count = in.readInt();
+            if (count < 0) {
+                throw new IOException("Malformed feed frame");
+            }
+            String[] rowSymbols = new String[count];
+            double[] prices = new double[count];
+            double[] changes = new double[count];
+            for (int i = 0; i < count; i++) {
+                int id = in.readInt();
+                if (id < 0 || id >= symbols.length || symbols[id] == null) {
+                    throw new IOException("Feed frame refers to unknown symbol " + id);
+                }
+                rowSymbols[i] = symbols[id];
+                prices[i] = in.readDouble();
+                changes[i] = in.readDouble();
+            }
+            timeMillis = time;
+            listener.onSnapshot(new MarketSnapshot(version, System.nanoTime(), rowSymbols, prices, changes));
+        }
+    }
+    
+    private void readJson(MarketListener listener) throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        // Lenient mode reads a stream of top-level values and accepts NaN
+        reader.setLenient(true);
+        List<String> rowSymbols = new ArrayList<>();
+        double[] prices = new double[16];
+        double[] changes = new double[16];
+        try {
+            while (reader.peek() != JsonToken.END_DOCUMENT) {
+                long version = 0;
+                long time = Long.MIN_VALUE;
+                rowSymbols.clear();
+                
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.nextName()) {
+                        case "version":
+                            version = reader.nextLong();
+                            break;
+                        case "time":
+                            time = reader.nextLong();
+                            break;
+                        case "ticks":
+                            reader.beginArray();
+                            while (reader.hasNext()) {
+                                int row = rowSymbols.size();
+                                if (row == prices.length) {
+                                    prices = Arrays.copyOf(prices, row * 2);
+                                    changes = Arrays.copyOf(changes, row * 2);
+                                }
+                                rowSymbols.add(readTick(reader, prices, changes, row));
+                            }
+                            reader.endArray();
+                            break;
+                        default:
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                
+                int count = rowSymbols.size();
+                timeMillis = time;
+                listener.onSnapshot(new MarketSnapshot(version, System.nanoTime(),
+                                                       rowSymbols.toArray(new String[0]),
+                                                       Arrays.copyOf(prices, count),
+                                                       Arrays.copyOf(changes, count)));
+            }
+        } catch (IllegalStateException | NumberFormatException | JsonParseException e) {
+            throw new IOException("Malformed feed frame", e);
+        }
+    }
+    
+    private static String readTick(JsonReader reader, double[] prices, double[] changes, int row)
+            throws IOException {
+        String symbol = null;
+        prices[row] = Double.NaN;
+        changes[row] = Double.NaN;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "s":
+                    symbol = reader.nextString();
+                    break;
+                case "p":
+                    prices[row] = reader.nextDouble();
+                    break;
+                case "c":
+                    changes[row] = reader.nextDouble();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (symbol == null) {
+            throw new IOException("Feed tick without a symbol");
+        }
+        return symbol;
+    }
+}
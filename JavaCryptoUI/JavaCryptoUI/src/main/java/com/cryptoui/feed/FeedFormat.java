@@ -0,0 +1,108 @@
+package com.cryptoui.feed;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Wire formats of the price feed. Every frame carries the latest value of each symbol
+ * that changed since the subscriber's previous frame.
+ */
+public enum FeedFormat {
+    /**
+     * Length-prefixed big-endian frames:
+     * <pre>
+     * int    length of the rest of the frame
+     * long   version
+     * long   time, epoch milliseconds
+     * int    id of the first symbol new to the subscriber
+     * int    number of new symbols, each a short byte length and UTF-8 name
+     * int    number of deltas, each an int symbol id, double price and double change24h
+     * </pre>
+     * Symbol names are sent once per subscriber; deltas refer to them by id.
+     */
+    BINARY {
+        @Override
+        ByteBuffer encode(FeedBook book, long fromVersion, int knownSymbols) {
+            byte[][] names = new byte[book.size - knownSymbols][];
+            int namesLength = 0;
+            for (int i = 0; i < names.length; i++) {
+                names[i] = book.symbols[knownSymbols + i].getBytes(StandardCharsets.UTF_8);
+                namesLength += Short.BYTES + names[i].length;
+            }
+            int deltas = book.countSince(fromVersion);
+            int length = HEADER_SIZE + namesLength + Integer.BYTES + deltas * DELTA_SIZE;
+            
+            ByteBuffer frame = ByteBuffer.allocate(Integer.BYTES + length);
+            frame.putInt(length);
+            frame.putLong(book.version);
+            frame.putLong(book.timeMillis);
+            frame.putInt(knownSymbols);
+            frame.putInt(names.length);
+            for (byte[] name : names) {
+                frame.putShort((short) name.length);
+                frame.put(name);
+            }
+            frame.putInt(deltas);
+            for (int i = 0; i < book.size; i++) {
+                if (book.versions[i] > fromVersion) {
+                    frame.putInt(i);
+                    frame.putDouble(book.prices[i]);
+                    frame.putDouble(book.changes[i]);
+                }
+            }
+            frame.flip();
+            return frame;
+        }
+    },
+    
+    /**
+     * One Gson-written JSON object per line, e.g.
+     * {@code {"version":7,"time":1700000000000,"ticks":[{"s":"BTC","p":42150.75,"c":1.2}]}}
+     */
+    JSON {
+        @Override
+        ByteBuffer encode(FeedBook book, long fromVersion, int knownSymbols) {
+            StringWriter text = new StringWriter(64 + book.countSince(fromVersion) * 48);
+            try (JsonWriter writer = new JsonWriter(text)) {
+                // Write NaN for rows without a change24h rather than failing the frame
+                writer.setLenient(true);
+                writer.beginObject();
+                writer.name("version").value(book.version);
+                writer.name("time").value(book.timeMillis);
+                writer.name("ticks").beginArray();
+                for (int i = 0; i < book.size; i++) {
+                    if (book.versions[i] > fromVersion) {
+                        writer.beginObject();
+                        writer.name("s").value(book.symbols[i]);
+                        writer.name("p").value(book.prices[i]);
+                        writer.name("c").value(book.changes[i]);
+                        writer.endObject();
+                    }
+                }
+                writer.endArray();
+                writer.endObject();
+            } catch (IOException e) {
+                // StringWriter does not throw
+                throw new UncheckedIOException(e);
+            }
+            text.write('\n');
+            return ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    };
+    
+    static final int HEADER_SIZE = Long.BYTES * 2 + Integer.BYTES * 2;
+    static final int DELTA_SIZE = Integer.BYTES + Double.BYTES * 2;
+    
+    /**
+     * Encode every row changed after a version; callers must hold the book's lock
+     * @param fromVersion Last version the subscriber received, or 0 for a full snapshot
+     * @param knownSymbols Number of symbols whose names the subscriber already has
+     * @return Frame ready to be written, shared by all subscribers at the same position
+     */
+    abstract ByteBuffer encode(FeedBook book, long fromVersion, int knownSymbols);
+}
@@ -0,0 +1,307 @@
+package com.cryptoui.feed;
+
+import com.cryptoui.market.MarketListener;
+import com.cryptoui.market.MarketSnapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Broadcasts market snapshots to local subscribers over TCP, so dashboards and bots can
+ * share one simulation instead of each running its own market.
+ * <p>
+ * The server is a {@link MarketListener}: each snapshot is folded into a {@link FeedBook}
+ * on the engine thread, which then only wakes the server thread. A single non-blocking
+ * selector thread accepts subscribers and writes to them. Each batch is encoded once per
+ * distinct subscriber position and the same frame is written to all of them; a new
+ * subscriber first receives a full snapshot.
+ * <p>
+ * Slow consumers are conflated rather than queued: a subscriber holds at most one
+ * partially written frame, and while it drains, further ticks only update the book.
+ * Its next frame then carries the latest value of every symbol that changed meanwhile,
+ * so memory per subscriber is bounded and a stalled client never delays the others.
+ */
+public class FeedServer implements MarketListener, Closeable {
+    /** Port used when none is configured */
+    public static final int DEFAULT_PORT = 7420;
+    // Small socket buffers keep stale frames out of the kernel so conflation takes over sooner
+    private static final int SEND_BUFFER_SIZE = 16 * 1024;
+    
+    private final FeedFormat format;
+    private final LongSupplier clock;
+    private final FeedBook book = new FeedBook();
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final ByteBuffer discard = ByteBuffer.allocate(256);
+    
+    // Owned by the server thread
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private final List<Frame> frames = new ArrayList<>();
+    
+    private volatile long latestVersion;
+    private volatile boolean running;
+    private Thread thread;
+    
+    /**
+     * Bind the server; subscribers are accepted once it is started
+     * @param address Address to listen on, normally a loopback address
+     * @param format Wire format written to every subscriber
+     * @param clock Source of epoch milliseconds stamped on each batch
+     */
+    public FeedServer(InetSocketAddress address, FeedFormat format, LongSupplier clock) throws IOException {
+        this.format = format;
+        this.clock = clock;
+        this.selector = Selector.open();
+        try {
+            server = ServerSocketChannel.open();
+            server.bind(address);
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            selector.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Start accepting and serving subscribers on a background daemon thread
+     * @throws IllegalStateException if the server is already running
+     */
+    public synchronized void start() {
+        if (running) {
+            throw new IllegalStateException("Feed server is already running");
+        }
+        if (!server.isOpen()) {
+            throw new IllegalStateException("Feed server is closed");
+        }
+        running = true;
+        thread = new Thread(this::serve, "feed-server");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    /**
+     * Get the port the server listens on, e.g. after binding to port 0
+     */
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+    
+    public FeedFormat getFormat() {
+        return format;
+    }
+    
+    /**
+     * Get the number of connected subscribers
+     */
+    public synchronized int getSubscriberCount() {
+        return subscribers.size();
+    }
+    
+    @Override
+    public void onSnapshot(MarketSnapshot snapshot) {
+        long version = book.update(snapshot, clock.getAsLong());
+        if (version != 0) {
+            latestVersion = version;
+            selector.wakeup();
+        }
+    }
+    
+    /**
+     * Disconnect every subscriber and stop listening
+     */
+    @Override
+    public void close() throws IOException {
+        Thread current;
+        synchronized (this) {
+            running = false;
+            current = thread;
+        }
+        selector.wakeup();
+        if (current != null && current != Thread.currentThread()) {
+            try {
+                current.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.channel.close();
+            }
+            subscribers.clear();
+        }
+        server.close();
+        selector.close();
+    }
+    
+    private void serve() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Subscriber subscriber = (Subscriber) key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            read(subscriber);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            flush(subscriber);
+                        }
+                    } catch (IOException e) {
+                        disconnect(subscriber);
+                    }
+                }
+                broadcast();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        channel.setOption(StandardSocketOptions.SO_SNDBUF, SEND_BUFFER_SIZE);
+        Subscriber subscriber = new Subscriber(channel);
+        subscriber.key = channel.register(selector, SelectionKey.OP_READ, subscriber);
+        synchronized (this) {
+            subscribers.add(subscriber);
+        }
+    }
+    
+    /**
+     * Discard anything a subscriber sends; reads only detect disconnects
+     */
+    private void read(Subscriber subscriber) throws IOException {
+        discard.clear();
+        if (subscriber.channel.read(discard) < 0) {
+            disconnect(subscriber);
+        }
+    }
+    
+    /**
+     * Send every up-to-date subscriber the rows changed since its last frame
+     */
+    private void broadcast() {
+        long latest = latestVersion;
+        frames.clear();
+        for (int i = 0; i < subscribers.size(); i++) {
+            Subscriber subscriber = subscribers.get(i);
+            if (subscriber.pending != null || subscriber.version >= latest) {
+                // Still draining its last frame; changes are conflated into the next one
+                continue;
+            }
+            Frame frame = frameFor(subscriber.version, subscriber.knownSymbols);
+            subscriber.pending = frame.data.duplicate();
+            subscriber.version = frame.version;
+            subscriber.knownSymbols = frame.symbols;
+            try {
+                flush(subscriber);
+            } catch (IOException e) {
+                disconnect(subscriber);
+                i--;
+            }
+        }
+    }
+    
+    /**
+     * Get the frame for a subscriber position, encoding it on first use in this round
+     */
+    private Frame frameFor(long fromVersion, int knownSymbols) {
+        for (int i = 0; i < frames.size(); i++) {
+            Frame frame = frames.get(i);
+            if (frame.fromVersion == fromVersion && frame.fromSymbols == knownSymbols) {
+                return frame;
+            }
+        }
+        Frame frame;
+        synchronized (book) {
+            frame = new Frame(fromVersion, knownSymbols, book.version, book.size,
+                              format.encode(book, fromVersion, knownSymbols));
+        }
+        frames.add(frame);
+        return frame;
+    }
+    
+    private void flush(Subscriber subscriber) throws IOException {
+        subscriber.channel.write(subscriber.pending);
+        if (subscriber.pending.hasRemaining()) {
+            subscriber.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        } else {
+            subscriber.pending = null;
+            subscriber.key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+    
+    private void disconnect(Subscriber subscriber) {
+        synchronized (this) {
+            subscribers.remove(subscriber);
+        }
+        subscriber.key.cancel();
+        try {
+            subscriber.channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * One connected client and how far it has been sent
+     */
+    private static final class Subscriber {
+        final SocketChannel channel;
+        SelectionKey key;
+        ByteBuffer pending;
+        long version;
+        int knownSymbols;
+        
+        Subscriber(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+    
+    /**
+     * Encoded batch shared by every subscriber at the same position
+     */
+    private static final class Frame {
+        final long fromVersion;
+        final int fromSymbols;
+        final long version;
+        final int symbols;
+        final ByteBuffer data;
+        
+        Frame(long fromVersion, int fromSymbols, long version, int symbols, ByteBuffer data) {
+            this.fromVersion = fromVersion;
+            this.fromSymbols = fromSymbols;
+            this.version = version;
+            this.symbols = symbols;
+            this.data = data;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.cryptoui.gateway;
+
+/**
+ * Outcome of one {@link OrderBatch}, with one entry per order in request order.
+ * <p>
+ * Ack frames are big-endian:
+ * <pre>
+ * int    length of the rest of the frame
+ * int    batch id of the request
+ * double cash balance of the account after the batch
+ * int    number of orders, each a byte {@link Status} ordinal and a long order id
+ * </pre>
+ * The order id is that of the resting remainder, or
+ * {@link com.cryptoui.exchange.OrderBook#NO_ORDER} if nothing rests.
+ */
+public final class BatchAck {
+    
+    /**
+     * Result of a single order
+     */
+    public enum Status {
+        /** Submitted, or cancelled for a cancel request */
+        ACCEPTED,
+        /** The account could not cover the order, or the order to cancel is not open */
+        REJECTED,
+        /**
+         * The frame was truncated, or this or another order of the batch has an unknown
+         * symbol or order type or an invalid price or amount; nothing in the batch was applied
+         */
+        INVALID
+    }
+    
+    static final int HEADER_SIZE = Integer.BYTES + Double.BYTES + Integer.BYTES;
+    static final int ENTRY_SIZE = 1 + Long.BYTES;
+    private static final Status[] STATUSES = Status.values();
+    
+    private final int batchId;
+    private final double balance;
+    private final byte[] statuses;
+    private final long[] orderIds;
+    
+    BatchAck(int batchId, double balance, byte[] statuses, long[] orderIds) {
+        this.batchId = batchId;
+        this.balance = balance;
+        this.statuses = statuses;
+        this.orderIds = orderIds;
+    }
+    
+    public int getBatchId() {
+        return batchId;
+    }
+    
+    /**
+     * Get the account's cash once every order in the batch was applied
+     */
+    public double getBalance() {
+        return balance;
+    }
+    
+    public int size() {
+        return statuses.length;
+    }
+    
+    public Status getStatus(int index) {
+        return STATUSES[statuses[index]];
+    }
+    
+    public long getOrderId(int index) {
+        return orderIds[index];
+    }
+    
+    static Status status(int ordinal) {
+        return ordinal >= 0 && ordinal < STATUSES.length ? STATUSES[ordinal] : null;
+    }
+}
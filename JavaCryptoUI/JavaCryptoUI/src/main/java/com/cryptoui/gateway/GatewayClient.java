@@ -0,0 +1,93 @@
+package com.cryptoui.gateway;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * Blocking client for the {@link OrderGateway}.
+ * <p>
+ * {@link #send} only buffers a batch, so many batches can be pipelined and pushed with
+ * one {@link #flush()}; acks then arrive in the same order from {@link #receive()}.
+ * A client is meant to be used by one thread, or one sending and one receiving thread.
+ */
+public class GatewayClient implements Closeable {
+    private final Socket socket;
+    private final DataOutputStream out;
+    private final DataInputStream in;
+    private int nextBatchId;
+    
+    public GatewayClient(InetSocketAddress address) throws IOException {
+        this.socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.connect(address);
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 64 * 1024));
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 64 * 1024));
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Queue a batch for an account without waiting for its ack
+     * @param username Account the orders are placed for, opened if it does not exist
+     * @param batch Orders in the order they should be applied
+     * @return Batch id the ack will carry
+     */
+    public int send(String username, OrderBatch batch) throws IOException {
+        int batchId = nextBatchId++;
+        batch.writeTo(out, batchId, username);
+        return batchId;
+    }
+    
+    /**
+     * Push every queued batch to the gateway
+     */
+    public void flush() throws IOException {
+        out.flush();
+    }
+    
+    /**
+     * Wait for the next ack, in the order the batches were sent
+     */
+    public BatchAck receive() throws IOException {
+        int length = in.readInt();
+        int batchId = in.readInt();
+        double balance = in.readDouble();
+        int count = in.readInt();
+        if (count < 0 || length != BatchAck.HEADER_SIZE + count * BatchAck.ENTRY_SIZE) {
+            throw new IOException("Malformed batch ack");
+        }
+        byte[] statuses = new byte[count];
+        long[] orderIds = new long[count];
+        for (int i = 0; i < count; i++) {
+            statuses[i] = in.readByte();
+            if (BatchAck.status(statuses[i]) == null) {
+                throw new IOException("Malformed batch ack");
+            }
+            orderIds[i] = in.readLong();
+        }
+        return new BatchAck(batchId, balance, statuses, orderIds);
+    }
+    
+    /**
+     * Send one batch and wait for its ack
+     */
+    public BatchAck submit(String username, OrderBatch batch) throws IOException {
+        send(username, batch);
+        flush();
+        return receive();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
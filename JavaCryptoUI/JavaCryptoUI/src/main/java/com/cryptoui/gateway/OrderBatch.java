@@ -0,0 +1,115 @@
+package com.cryptoui.gateway;
+
+import com.cryptoui.exchange.OrderType;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Orders sent to the {@link OrderGateway} as one request, in the order they are applied.
+ * <p>
+ * Request frames are big-endian:
+ * <pre>
+ * int    length of the rest of the frame
+ * int    batch id, echoed in the ack
+ * short  byte length of the UTF-8 username, then the name
+ * int    number of orders, each:
+ *        byte   operation: 0 buy, 1 sell, 2 cancel
+ *        byte   {@link OrderType} ordinal
+ *        short  byte length of the UTF-8 symbol, then the symbol
+ *        double limit price, ignored for market orders and cancels
+ *        double amount, ignored for cancels
+ *        long   order id to cancel, ignored otherwise
+ * </pre>
+ * A batch can be cleared and reused for the next request.
+ */
+public final class OrderBatch {
+    static final byte BUY = 0;
+    static final byte SELL = 1;
+    static final byte CANCEL = 2;
+    static final int ORDER_FIXED_SIZE = 2 + Short.BYTES + Double.BYTES * 2 + Long.BYTES;
+    
+    private byte[] operations = new byte[16];
+    private byte[] types = new byte[16];
+    private String[] symbols = new String[16];
+    private double[] prices = new double[16];
+    private double[] amounts = new double[16];
+    private long[] orderIds = new long[16];
+    private int size;
+    
+    public OrderBatch buy(String symbol, OrderType type, double price, double amount) {
+        return add(BUY, type, symbol, price, amount, 0);
+    }
+    
+    public OrderBatch sell(String symbol, OrderType type, double price, double amount) {
+        return add(SELL, type, symbol, price, amount, 0);
+    }
+    
+    /**
+     * Cancel a resting order placed by an earlier batch
+     * @param orderId Id from the earlier batch's ack
+     */
+    public OrderBatch cancel(String symbol, long orderId) {
+        return add(CANCEL, OrderType.LIMIT, symbol, 0, 0, orderId);
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public void clear() {
+        Arrays.fill(symbols, 0, size, null);
+        size = 0;
+    }
+    
+    private OrderBatch add(byte operation, OrderType type, String symbol, double price, double amount,
+                           long orderId) {
+        if (size == operations.length) {
+            int capacity = size * 2;
+            operations = Arrays.copyOf(operations, capacity);
+            types = Arrays.copyOf(types, capacity);
+            symbols = Arrays.copyOf(symbols, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            orderIds = Arrays.copyOf(orderIds, capacity);
+        }
+        operations[size] = operation;
+        types[size] = (byte) type.ordinal();
+        symbols[size] = symbol;
+        prices[size] = price;
+        amounts[size] = amount;
+        orderIds[size] = orderId;
+        size++;
+        return this;
+    }
+    
+    /**
+     * Write the batch as one request frame
+     */
+    void writeTo(DataOutputStream out, int batchId, String username) throws IOException {
+        byte[] name = username.getBytes(StandardCharsets.UTF_8);
+        byte[][] symbolBytes = new byte[size][];
+        int length = Integer.BYTES + Short.BYTES + name.length + Integer.BYTES;
+        for (int i = 0; i < size; i++) {
+            symbolBytes[i] = symbols[i].getBytes(StandardCharsets.UTF_8);
+            length += ORDER_FIXED_SIZE + symbolBytes[i].length;
+        }
+        
+        out.writeInt(length);
+        out.writeInt(batchId);
+        out.writeShort(name.length);
+        out.write(name);
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeByte(operations[i]);
+            out.writeByte(types[i]);
+            out.writeShort(symbolBytes[i].length);
+            out.write(symbolBytes[i]);
+            out.writeDouble(prices[i]);
+            out.writeDouble(amounts[i]);
+            out.writeLong(orderIds[i]);
+        }
+    }
+}
@@ -0,0 +1,429 @@
+package com.cryptoui.gateway;
+
+import com.cryptoui.exchange.OrderBook;
+import com.cryptoui.exchange.OrderType;
+import com.cryptoui.model.AccountRegistry;
+import com.cryptoui.model.Exchange;
+import com.cryptoui.model.Transaction.TransactionType;
+import com.cryptoui.model.User;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Programmatic order entry over TCP, for bots that drive the exchange at high rates.
+ * <p>
+ * Clients send {@link OrderBatch} frames and may pipeline any number of them without
+ * waiting for acks. A single non-blocking selector thread reads whatever has arrived,
+ * applies every complete batch in one pass — the account is resolved once per batch
+ * and its orders are submitted to the {@link Exchange} in request order — and appends
+ * one {@link BatchAck} per batch to the connection's output, which is written back in
+ * bulk once the input is drained.
+ * <p>
+ * A batch is decoded and validated in full before any of its orders is submitted. If
+ * the frame is truncated or any order in it is invalid, nothing is applied and every
+ * entry of its ack is {@link BatchAck.Status#INVALID}. So is every entry of a batch whose
+ * username is empty or longer than {@link AccountRegistry#MAX_USERNAME_BYTES}.
+ * <p>
+ * A client that does not read its acks is not read from either: once its unsent acks
+ * exceed a limit the gateway stops reading from it until they drain. A client whose
+ * frames are malformed, or whose batch fails unexpectedly, is disconnected; the others
+ * keep being served.
+ */
+public class OrderGateway implements Closeable {
+    /** Port used when none is configured */
+    public static final int DEFAULT_PORT = 7421;
+    
+    private static final int MAX_FRAME_SIZE = 16 * 1024 * 1024;
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_PENDING_ACKS = 1024 * 1024;
+    private static final OrderType[] ORDER_TYPES = OrderType.values();
+    
+    private final Exchange exchange;
+    private final AccountRegistry accounts;
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    
+    // Owned by the gateway thread
+    private final List<Connection> connections = new ArrayList<>();
+    
+    // Orders of the batch being applied, decoded before any is submitted; gateway thread only
+    private byte[] operations = new byte[64];
+    private byte[] types = new byte[64];
+    private String[] symbols = new String[64];
+    private double[] prices = new double[64];
+    private double[] amounts = new double[64];
+    private long[] orderIds = new long[64];
+    
+    private volatile boolean running;
+    private volatile long batchesApplied;
+    private volatile long ordersApplied;
+    private Thread thread;
+    
+    /**
+     * Bind the gateway; clients are accepted once it is started
+     * @param address Address to listen on, normally a loopback address
+     * @param exchange Exchange orders are submitted to
+     * @param accounts Accounts looked up, or opened, by the username of each batch
+     */
+    public OrderGateway(InetSocketAddress address, Exchange exchange, AccountRegistry accounts) throws IOException {
+        this.exchange = exchange;
+        this.accounts = accounts;
+        this.selector = Selector.open();
+        try {
+            server = ServerSocketChannel.open();
+            server.bind(address);
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            selector.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Start accepting clients on a background daemon thread
+     * @throws IllegalStateException if the gateway is already running
+     */
+    public synchronized void start() {
+        if (running) {
+            throw new IllegalStateException("Order gateway is already running");
+        }
+        if (!server.isOpen()) {
+            throw new IllegalStateException("Order gateway is closed");
+        }
+        running = true;
+        thread = new Thread(this::serve, "order-gateway");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    /**
+     * Get the port the gateway listens on, e.g. after binding to port 0
+     */
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+    
+    public synchronized int getConnectionCount() {
+        return connections.size();
+    }
+    
+    public long getBatchesApplied() {
+        return batchesApplied;
+    }
+    
+    public long getOrdersApplied() {
+        return ordersApplied;
+    }
+    
+    /**
+     * Disconnect every client and stop listening
+     */
+    @Override
+    public void close() throws IOException {
+        Thread current;
+        synchronized (this) {
+            running = false;
+            current = thread;
+        }
+        selector.wakeup();
+        if (current != null && current != Thread.currentThread()) {
+            try {
+                current.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            for (Connection connection : connections) {
+                connection.channel.close();
+            }
+            connections.clear();
+        }
+        server.close();
+        selector.close();
+    }
+    
+    private void serve() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            read(connection);
+                        }
+                        if (key.isValid()) {
+                            flush(connection);
+                        }
+                    } catch (IOException | BufferUnderflowException e) {
+                        // Closed by the client, or a malformed frame
+                        disconnect(connection);
+                    } catch (RuntimeException e) {
+                        // Drop only the client whose batch failed, not the gateway thread
+                        e.printStackTrace();
+                        disconnect(connection);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        Connection connection = new Connection(channel);
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        synchronized (this) {
+            connections.add(connection);
+        }
+    }
+    
+    /**
+     * Read what has arrived and apply every complete batch in it
+     */
+    private void read(Connection connection) throws IOException {
+        ByteBuffer in = connection.in;
+        if (connection.channel.read(in) < 0) {
+            throw new IOException("Client disconnected");
+        }
+        in.flip();
+        while (in.remaining() >= Integer.BYTES) {
+            int length = in.getInt(in.position());
+            if (length < Integer.BYTES * 2 + Short.BYTES || length > MAX_FRAME_SIZE) {
+                throw new IOException("Malformed order batch");
+            }
+            if (in.remaining() < Integer.BYTES + length) {
+                break;
+            }
+            ByteBuffer frame = in.slice();
+            frame.position(Integer.BYTES).limit(Integer.BYTES + length);
+            in.position(in.position() + Integer.BYTES + length);
+            apply(frame, connection);
+        }
+        in.compact();
+        
+        // Make room for a frame larger than the buffer
+        if (!in.hasRemaining()) {
+            int needed = in.position() >= Integer.BYTES
+                ? Integer.BYTES + in.getInt(0) : in.capacity() * 2;
+            connection.in = grow(in, Math.max(needed, in.capacity() * 2));
+        }
+    }
+    
+    /**
+     * Apply one batch in request order and append its ack
+     */
+    private void apply(ByteBuffer frame, Connection connection) throws IOException {
+        int batchId = frame.getInt();
+        String username = readString(frame);
+        int count = frame.getInt();
+        if (count < 0 || count > frame.remaining() / OrderBatch.ORDER_FIXED_SIZE) {
+            throw new IOException("Malformed order batch");
+        }
+        // Accounts are journaled by name, so names the journal cannot hold are refused
+        User user = username.isEmpty() || !AccountRegistry.isValidUsername(username)
+            ? null : accounts.getOrCreateAccount(username);
+        boolean valid = decode(frame, count) && user != null && validate(count);
+        
+        int ackLength = BatchAck.HEADER_SIZE + count * BatchAck.ENTRY_SIZE;
+        ByteBuffer out = reserve(connection, Integer.BYTES + ackLength);
+        out.putInt(ackLength);
+        out.putInt(batchId);
+        int balancePosition = out.position();
+        out.putDouble(0);
+        out.putInt(count);
+        
+        for (int i = 0; i < count; i++) {
+            BatchAck.Status status = BatchAck.Status.INVALID;
+            long result = OrderBook.NO_ORDER;
+            if (valid) {
+                String symbol = symbols[i];
+                if (operations[i] == OrderBatch.CANCEL) {
+                    status = exchange.cancelOrder(user, symbol, orderIds[i])
+                        ? BatchAck.Status.ACCEPTED : BatchAck.Status.REJECTED;
+                    result = orderIds[i];
+                } else {
+                    TransactionType side = operations[i] == OrderBatch.BUY ? TransactionType.BUY : TransactionType.SELL;
+                    long id = exchange.submitOrder(user, symbol, side, ORDER_TYPES[types[i]], prices[i], amounts[i]);
+                    if (id == Exchange.REJECTED) {
+                        status = BatchAck.Status.REJECTED;
+                    } else {
+                        status = BatchAck.Status.ACCEPTED;
+                        result = id;
+                    }
+                }
+            }
+            out.put((byte) status.ordinal());
+            out.putLong(result);
+        }
+        out.putDouble(balancePosition, user != null ? user.getBalance() : 0);
+        Arrays.fill(symbols, 0, count, null);
+        
+        batchesApplied++;
+        if (valid) {
+            ordersApplied += count;
+        }
+    }
+    
+    /**
+     * Read every order of a batch into the scratch arrays
+     * @return false if the frame is truncated or has bytes after the last order
+     */
+    private boolean decode(ByteBuffer frame, int count) {
+        if (operations.length < count) {
+            int capacity = Math.max(count, operations.length * 2);
+            operations = Arrays.copyOf(operations, capacity);
+            types = Arrays.copyOf(types, capacity);
+            symbols = Arrays.copyOf(symbols, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            orderIds = Arrays.copyOf(orderIds, capacity);
+        }
+        try {
+            for (int i = 0; i < count; i++) {
+                operations[i] = frame.get();
+                types[i] = frame.get();
+                symbols[i] = readString(frame);
+                prices[i] = frame.getDouble();
+                amounts[i] = frame.getDouble();
+                orderIds[i] = frame.getLong();
+            }
+        } catch (BufferUnderflowException e) {
+            return false;
+        }
+        return !frame.hasRemaining();
+    }
+    
+    /**
+     * Check every decoded order the way the exchange would, without placing any
+     * @return false if any order has an unknown operation, order type or symbol, or an
+     *         invalid price or amount
+     */
+    private boolean validate(int count) {
+        try {
+            for (int i = 0; i < count; i++) {
+                int type = types[i];
+                if (type < 0 || type >= ORDER_TYPES.length) {
+                    return false;
+                }
+                if (operations[i] == OrderBatch.CANCEL) {
+                    if (!exchange.isListed(symbols[i])) {
+                        return false;
+                    }
+                } else if (operations[i] == OrderBatch.BUY || operations[i] == OrderBatch.SELL) {
+                    exchange.validateOrder(symbols[i], ORDER_TYPES[type], prices[i], amounts[i]);
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            // Unknown symbol, or an amount or price that is not a positive number of lots or ticks
+            return false;
+        }
+    }
+    
+    /**
+     * Write pending acks, and stop reading from a client that has too many unread
+     */
+    private void flush(Connection connection) throws IOException {
+        ByteBuffer out = connection.out;
+        if (out.position() > 0) {
+            out.flip();
+            connection.channel.write(out);
+            out.compact();
+        }
+        int interest;
+        if (out.position() == 0) {
+            interest = SelectionKey.OP_READ;
+        } else if (out.position() > MAX_PENDING_ACKS) {
+            interest = SelectionKey.OP_WRITE;
+        } else {
+            interest = SelectionKey.OP_READ | SelectionKey.OP_WRITE;
+        }
+        connection.key.interestOps(interest);
+    }
+    
+    private static ByteBuffer reserve(Connection connection, int bytes) {
+        if (connection.out.remaining() < bytes) {
+            connection.out = grow(connection.out, connection.out.position() + bytes);
+        }
+        return connection.out;
+    }
+    
+    private static ByteBuffer grow(ByteBuffer buffer, int minCapacity) {
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(minCapacity, buffer.capacity() * 2));
+        buffer.flip();
+        grown.put(buffer);
+        return grown;
+    }
+    
+    private static String readString(ByteBuffer frame) {
+        int length = Short.toUnsignedInt(frame.getShort());
+        if (length > frame.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value = new String(frame.array(), frame.arrayOffset() + frame.position(), length,
+                                  StandardCharsets.UTF_8);
+        frame.position(frame.position() + length);
+        return value;
+    }
+    
+    private void disconnect(Connection connection) {
+        synchronized (this) {
+            connections.remove(connection);
+        }
+        connection.key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * One client with its partially read requests and unsent acks
+     */
+    private static final class Connection {
+        final SocketChannel channel;
+        SelectionKey key;
+        ByteBuffer in = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        ByteBuffer out = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+}
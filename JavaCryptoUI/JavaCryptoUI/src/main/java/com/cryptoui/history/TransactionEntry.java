@@ -0,0 +1,98 @@
+package com.cryptoui.history;
+
+import com.cryptoui.market.Fixed;
+import com.cryptoui.model.Transaction.TransactionType;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Lightweight handle to one record of a {@link TransactionLog}.
+ * Holds only the log and a sequence number; every value is read from the log on demand.
+ */
+public final class TransactionEntry {
+    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    
+    private final TransactionLog log;
+    private final long sequence;
+    
+    public TransactionEntry(TransactionLog log, long sequence) {
+        this.log = log;
+        this.sequence = sequence;
+    }
+    
+    public long getSequence() {
+        return sequence;
+    }
+    
+    public long getEpochNanos() {
+        return log.getEpochNanos(sequence);
+    }
+    
+    public String getCryptoSymbol() {
+        return log.getSymbol(sequence);
+    }
+    
+    public TransactionType getType() {
+        return log.getType(sequence);
+    }
+    
+    public double getAmount() {
+        return log.getAmount(sequence);
+    }
+    
+    public double getPrice() {
+        return log.getPrice(sequence);
+    }
+    
+    /**
+     * Calculate the total value of this transaction
+     * @return Total value of the transaction
+     */
+    public double getTotalValue() {
+        return Fixed.toDouble(getTotalValueUnits());
+    }
+    
+    /**
+     * Calculate the exact total value of this transaction
+     * @return Total value in fixed-point units
+     */
+    public long getTotalValueUnits() {
+        return Fixed.multiply(log.getAmountUnits(sequence), log.getPriceUnits(sequence));
+    }
+    
+    /**
+     * Get formatted timestamp
+     * @return Formatted date/time string
+     */
+    public String getFormattedTimestamp() {
+        long nanos = getEpochNanos();
+        LocalDateTime time = LocalDateTime.ofInstant(
+            Instant.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L), Math.floorMod(nanos, 1_000_000_000L)),
+            ZoneId.systemDefault());
+        return time.format(formatter);
+    }
+    
+    /**
+     * Get transaction type as string
+     * @return "Buy" or "Sell"
+     */
+    public String getTypeAsString() {
+        return getType() == TransactionType.BUY ? "Buy" : "Sell";
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TransactionEntry)) return false;
+        TransactionEntry other = (TransactionEntry) o;
+        return log == other.log && sequence == other.sequence;
+    }
+    
+    @Override
+    public int hashCode() {
+        return Long.hashCode(sequence);
+    }
+}
@@ -0,0 +1,164 @@
+package com.cryptoui.history;
+
+import com.cryptoui.market.Fixed;
+import com.cryptoui.market.MarketState;
+import com.cryptoui.model.Transaction.TransactionType;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Bounded, off-heap ring buffer of compact transaction records.
+ * <p>
+ * Each record is {@value #RECORD_SIZE} bytes in a direct buffer:
+ * <pre>
+ *  0  long   timestamp (epoch nanos)
+ *  8  int    symbol id (see {@link MarketState#idOf(String)})
+ * 12  byte   side (0 = buy, 1 = sell)
+ * 16  long   amount ({@link Fixed} units)
+ * 24  long   price ({@link Fixed} units)
+ * </pre>
+ * Records are addressed by a monotonically increasing sequence number. Appending is
+ * O(1); once the buffer is full each append overwrites the oldest record.
+ * <p>
+ * Single writer; readers on other threads see every record up to {@link #getLastSequence()}.
+ */
+public class TransactionLog {
+    public static final int RECORD_SIZE = 32;
+    
+    private static final int SYMBOL_OFFSET = 8;
+    private static final int SIDE_OFFSET = 12;
+    private static final int AMOUNT_OFFSET = 16;
+    private static final int PRICE_OFFSET = 24;
+    
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private final MarketState symbols;
+    
+    // Number of records ever appended, i.e. the next sequence number
+    private volatile long appended;
+    // Sequences below this were dropped by clear()
+    private volatile long clearedBefore;
+    
+    /**
+     * Create an empty log
+     * @param capacity Maximum number of records retained
+     * @param symbols Market state used to resolve symbol ids
+     */
+    public TransactionLog(int capacity, MarketState symbols) {
+        if (capacity < 1 || capacity > Integer.MAX_VALUE / RECORD_SIZE) {
+            throw new IllegalArgumentException("Capacity must be between 1 and "
+                                               + (Integer.MAX_VALUE / RECORD_SIZE));
+        }
+        this.capacity = capacity;
+        this.symbols = symbols;
+        this.buffer = ByteBuffer.allocateDirect(capacity * RECORD_SIZE);
+    }
+    
+    /**
+     * Append a record, overwriting the oldest one if the log is full
+     * @return Sequence number of the new record
+     */
+    public long append(long epochNanos, int symbolId, TransactionType type, double amount, double price) {
+        return appendUnits(epochNanos, symbolId, type, Fixed.of(amount), Fixed.of(price));
+    }
+    
+    /**
+     * Append a record with a fixed-point amount and price
+     * @return Sequence number of the new record
+     */
+    public long appendUnits(long epochNanos, int symbolId, TransactionType type, long amount, long price) {
+        long sequence = appended;
+        int offset = offsetOf(sequence);
+        buffer.putLong(offset, epochNanos);
+        buffer.putInt(offset + SYMBOL_OFFSET, symbolId);
+        buffer.put(offset + SIDE_OFFSET, (byte) (type == TransactionType.BUY ? 0 : 1));
+        buffer.putLong(offset + AMOUNT_OFFSET, amount);
+        buffer.putLong(offset + PRICE_OFFSET, price);
+        
+        // Volatile write publishes the record
+        appended = sequence + 1;
+        return sequence;
+    }
+    
+    /**
+     * Drop every record
+     */
+    public void clear() {
+        clearedBefore = appended;
+    }
+    
+    /**
+     * Get the number of records currently retained
+     * @return Number of records
+     */
+    public int size() {
+        return (int) (appended - getFirstSequence());
+    }
+    
+    public int capacity() {
+        return capacity;
+    }
+    
+    /**
+     * Get the sequence number of the oldest retained record
+     * @return First sequence, equal to {@link #getLastSequence()} + 1 when empty
+     */
+    public long getFirstSequence() {
+        return Math.max(clearedBefore, appended - capacity);
+    }
+    
+    /**
+     * Get the sequence number of the newest record
+     * @return Last sequence, or -1 if nothing was ever appended
+     */
+    public long getLastSequence() {
+        return appended - 1;
+    }
+    
+    /**
+     * Check whether a record is still retained
+     * @param sequence Sequence number
+     * @return true if the record has not been overwritten or cleared
+     */
+    public boolean contains(long sequence) {
+        return sequence >= getFirstSequence() && sequence < appended;
+    }
+    
+    // Column accessors by sequence number
+    public long getEpochNanos(long sequence) {
+        return buffer.getLong(offsetOf(sequence));
+    }
+    
+    public int getSymbolId(long sequence) {
+        return buffer.getInt(offsetOf(sequence) + SYMBOL_OFFSET);
+    }
+    
+    public String getSymbol(long sequence) {
+        int id = getSymbolId(sequence);
+        return id >= 0 && id < symbols.size() ? symbols.getSymbol(id) : "";
+    }
+    
+    public TransactionType getType(long sequence) {
+        return buffer.get(offsetOf(sequence) + SIDE_OFFSET) == 0 ? TransactionType.BUY : TransactionType.SELL;
+    }
+    
+    public double getAmount(long sequence) {
+        return Fixed.toDouble(getAmountUnits(sequence));
+    }
+    
+    public double getPrice(long sequence) {
+        return Fixed.toDouble(getPriceUnits(sequence));
+    }
+    
+    public long getAmountUnits(long sequence) {
+        return buffer.getLong(offsetOf(sequence) + AMOUNT_OFFSET);
+    }
+    
+    public long getPriceUnits(long sequence) {
+        return buffer.getLong(offsetOf(sequence) + PRICE_OFFSET);
+    }
+    
+    private int offsetOf(long sequence) {
+        return (int) (sequence % capacity) * RECORD_SIZE;
+    }
+}
@@ -0,0 +1,194 @@
+package com.cryptoui.journal;
+
+import com.cryptoui.model.AccountRegistry;
+import com.cryptoui.model.User;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * One fixed-width entry of the {@link TradeJournal}.
+ * <p>
+ * On-disk layout ({@value #SIZE} bytes, big-endian):
+ * <pre>
+ *  0  long   sequence
+ *  8  long   timestamp (epoch millis)
+ * 16  double amount
+ * 24  double price
+ * 32  byte   type
+ * 33  byte   symbol length
+ * 34  byte   username length
+ * 35  byte   reserved
+ * 36  byte[12] symbol (UTF-8, zero padded)
+ * 48  byte[40] username (UTF-8, zero padded)
+ * 88  int    reserved
+ * 92  int    CRC32 of bytes 0..91
+ * </pre>
+ */
+public final class JournalRecord {
+    public static final int SIZE = 96;
+    static final int MAX_SYMBOL_BYTES = 12;
+    static final int MAX_USERNAME_BYTES = AccountRegistry.MAX_USERNAME_BYTES;
+    
+    private static final int SYMBOL_OFFSET = 36;
+    private static final int USERNAME_OFFSET = 48;
+    private static final int CHECKSUM_OFFSET = 92;
+    
+    public enum Type {
+        BUY, SELL, DEPOSIT, RESET
+    }
+    
+    private final long sequence;
+    private final long timestampMillis;
+    private final Type type;
+    private final String username;
+    private final String symbol;
+    private final double amount;
+    private final double price;
+    
+    JournalRecord(long sequence, long timestampMillis, Type type,
+                  String username, String symbol, double amount, double price) {
+        this.sequence = sequence;
+        this.timestampMillis = timestampMillis;
+        this.type = type;
+        this.username = username;
+        this.symbol = symbol;
+        this.amount = amount;
+        this.price = price;
+    }
+    
+    /**
+     * Re-apply this record to the account it was written for
+     * @param user Account of {@link #getUsername()}
+     */
+    public void applyTo(User user) {
+        switch (type) {
+            case BUY:
+                user.buyCrypto(symbol, amount, price);
+                break;
+            case SELL:
+                user.sellCrypto(symbol, amount, price);
+                break;
+            case DEPOSIT:
+                user.deposit(amount);
+                break;
+            case RESET:
+                user.resetAccount();
+                break;
+        }
+    }
+    
+    public long getSequence() {
+        return sequence;
+    }
+    
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+    
+    public Type getType() {
+        return type;
+    }
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    public String getSymbol() {
+        return symbol;
+    }
+    
+    public double getAmount() {
+        return amount;
+    }
+    
+    public double getPrice() {
+        return price;
+    }
+    
+    /**
+     * Write a record at the buffer's position and advance it by {@link #SIZE}
+     * @throws IllegalArgumentException if the symbol or username does not fit
+     */
+    static void encode(ByteBuffer buffer, long sequence, long timestampMillis, Type type,
+                       String username, String symbol, double amount, double price) {
+        byte[] symbolBytes = symbol.getBytes(StandardCharsets.UTF_8);
+        byte[] usernameBytes = username.getBytes(StandardCharsets.UTF_8);
+        if (symbolBytes.length > MAX_SYMBOL_BYTES) {
+            throw new IllegalArgumentException("Symbol too long for journal: " + symbol);
+        }
+        if (usernameBytes.length > MAX_USERNAME_BYTES) {
+            throw new IllegalArgumentException("Username too long for journal: " + username);
+        }
+        
+        int start = buffer.position();
+        buffer.putLong(sequence);
+        buffer.putLong(timestampMillis);
+        buffer.putDouble(amount);
+        buffer.putDouble(price);
+        buffer.put((byte) type.ordinal());
+        buffer.put((byte) symbolBytes.length);
+        buffer.put((byte) usernameBytes.length);
+        buffer.put((byte) 0);
+        buffer.put(symbolBytes);
+        fill(buffer, start + USERNAME_OFFSET);
+        buffer.put(usernameBytes);
+        fill(buffer, start + CHECKSUM_OFFSET);
+        
+        buffer.putInt(checksum(buffer, start));
+    }
+    
+    /**
+     * Read the record at the given offset of the buffer
+     * @return The record, or null if the slot is empty, torn or corrupt
+     */
+    static JournalRecord decode(ByteBuffer buffer, int start) {
+        int stored = buffer.getInt(start + CHECKSUM_OFFSET);
+        long sequence = buffer.getLong(start);
+        if (sequence <= 0 || stored != checksum(buffer, start)) {
+            return null;
+        }
+        
+        int typeOrdinal = buffer.get(start + 32);
+        int symbolLength = buffer.get(start + 33);
+        int usernameLength = buffer.get(start + 34);
+        if (typeOrdinal < 0 || typeOrdinal >= Type.values().length
+                || symbolLength < 0 || symbolLength > MAX_SYMBOL_BYTES
+                || usernameLength < 0 || usernameLength > MAX_USERNAME_BYTES) {
+            return null;
+        }
+        
+        return new JournalRecord(
+            sequence,
+            buffer.getLong(start + 8),
+            Type.values()[typeOrdinal],
+            readString(buffer, start + USERNAME_OFFSET, usernameLength),
+            readString(buffer, start + SYMBOL_OFFSET, symbolLength),
+            buffer.getDouble(start + 16),
+            buffer.getDouble(start + 24)
+        );
+    }
+    
+    private static void fill(ByteBuffer buffer, int until) {
+        while (buffer.position() < until) {
+            buffer.put((byte) 0);
+        }
+    }
+    
+    private static String readString(ByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private static int checksum(ByteBuffer buffer, int start) {
+        CRC32 crc = new CRC32();
+        ByteBuffer view = buffer.duplicate();
+        view.limit(start + CHECKSUM_OFFSET).position(start);
+        crc.update(view);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,291 @@
+package com.cryptoui.journal;
+
+import com.cryptoui.model.AccountRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+
+/**
+ * Durable, append-only log of account activity.
+ * <p>
+ * Records are fixed-width ({@link JournalRecord#SIZE} bytes) and checksummed.
+ * Producers encode records into an in-memory staging buffer; a single writer
+ * thread swaps it with a spare buffer, writes the batch with one
+ * {@link FileChannel#write} and makes it durable with one {@link FileChannel#force}.
+ * Every record that arrived while the previous batch was being synced shares the
+ * next sync (group commit), so appending never waits for the disk.
+ * <p>
+ * Appends run inside the exchange's order book locks, so they never wait for the
+ * writer either: a staging buffer that fills up while the writer is busy is queued
+ * for it and a fresh buffer takes its place.
+ * <p>
+ * On open the file is scanned and every intact record is replayed; a torn or
+ * corrupt tail left by a crash is truncated away.
+ */
+public class TradeJournal implements AutoCloseable {
+    private static final int DEFAULT_BATCH_RECORDS = 8192;
+    private static final long IDLE_WAIT_MILLIS = 10;
+    private static final int MAX_SPARE_BUFFERS = 4;
+    
+    private final FileChannel channel;
+    private final Object lock = new Object();
+    private final Thread writer;
+    private final int bufferCapacity;
+    
+    // Guarded by lock
+    private ByteBuffer active;
+    private final ArrayDeque<ByteBuffer> filled = new ArrayDeque<>();
+    private final ArrayDeque<ByteBuffer> spare = new ArrayDeque<>();
+    private long appendedSequence;
+    private boolean closed;
+    private IOException failure;
+    
+    private volatile long durableSequence;
+    
+    private TradeJournal(FileChannel channel, long lastSequence, int batchRecords) {
+        this.channel = channel;
+        this.bufferCapacity = batchRecords * JournalRecord.SIZE;
+        this.active = ByteBuffer.allocateDirect(bufferCapacity);
+        this.spare.add(ByteBuffer.allocateDirect(bufferCapacity));
+        this.appendedSequence = lastSequence;
+        this.durableSequence = lastSequence;
+        
+        this.writer = new Thread(this::writerLoop, "trade-journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+    
+    /**
+     * Open a journal without replaying it
+     * @param path Journal file, created if it does not exist
+     */
+    public static TradeJournal open(Path path) throws IOException {
+        return open(path, record -> { });
+    }
+    
+    /**
+     * Open a journal and replay every intact record in order
+     * @param path Journal file, created if it does not exist
+     * @param replayHandler Receives each recovered record before the journal accepts appends
+     */
+    public static TradeJournal open(Path path, Consumer<JournalRecord> replayHandler) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long lastSequence = 0;
+            long validLength = 0;
+            ByteBuffer chunk = ByteBuffer.allocateDirect(DEFAULT_BATCH_RECORDS * JournalRecord.SIZE);
+            
+            scan:
+            while (true) {
+                // Fill the chunk; a read may return fewer bytes than asked before the end
+                chunk.clear();
+                boolean endOfFile = false;
+                while (chunk.hasRemaining()) {
+                    if (channel.read(chunk, validLength + chunk.position()) < 0) {
+                        endOfFile = true;
+                        break;
+                    }
+                }
+                if (chunk.position() == 0) {
+                    break;
+                }
+                int records = chunk.position() / JournalRecord.SIZE;
+                for (int i = 0; i < records; i++) {
+                    JournalRecord record = JournalRecord.decode(chunk, i * JournalRecord.SIZE);
+                    if (record == null || record.getSequence() != lastSequence + 1) {
+                        break scan;
+                    }
+                    replayHandler.accept(record);
+                    lastSequence = record.getSequence();
+                    validLength += JournalRecord.SIZE;
+                }
+                if (records * JournalRecord.SIZE < chunk.position() || endOfFile) {
+                    // Partial record or end of file
+                    break;
+                }
+            }
+            
+            // Drop whatever a crash left after the last intact record
+            channel.truncate(validLength);
+            channel.position(validLength);
+            return new TradeJournal(channel, lastSequence, DEFAULT_BATCH_RECORDS);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Replay handler that rebuilds accounts in a registry
+     * @param registry Registry to apply recovered records to
+     * @return Handler for {@link #open(Path, Consumer)}
+     */
+    public static Consumer<JournalRecord> replayInto(AccountRegistry registry) {
+        return record -> record.applyTo(registry.getOrCreateAccount(record.getUsername()));
+    }
+    
+    /**
+     * Append a record. Returns once the record is staged, without waiting for the
+     * writer; it becomes durable at the next group commit, see {@link #sync()}.
+     * @return Sequence number of the record
+     * @throws IllegalStateException if the journal is closed
+     * @throws UncheckedIOException if an earlier write failed
+     */
+    public long append(JournalRecord.Type type, String username, String symbol,
+                       double amount, double price) {
+        synchronized (lock) {
+            checkOpen();
+            if (active.remaining() < JournalRecord.SIZE) {
+                // Queue the full buffer for the writer rather than wait for it to drain
+                filled.add(active);
+                active = takeSpare();
+            }
+            
+            boolean wasEmpty = active.position() == 0;
+            long sequence = appendedSequence + 1;
+            JournalRecord.encode(active, sequence, System.currentTimeMillis(),
+                                 type, username, symbol == null ? "" : symbol, amount, price);
+            appendedSequence = sequence;
+            
+            if (wasEmpty) {
+                lock.notifyAll();
+            }
+            return sequence;
+        }
+    }
+    
+    /**
+     * Wait until every record appended so far is on disk
+     */
+    public void sync() {
+        synchronized (lock) {
+            long target = appendedSequence;
+            while (durableSequence < target && failure == null && writer.isAlive()) {
+                awaitLock();
+            }
+            if (failure != null) {
+                throw new UncheckedIOException(failure);
+            }
+        }
+    }
+    
+    /**
+     * Get the sequence number of the last record known to be on disk
+     * @return Last durable sequence number
+     */
+    public long getDurableSequence() {
+        return durableSequence;
+    }
+    
+    /**
+     * Flush outstanding records and close the file
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+    
+    private void writerLoop() {
+        while (true) {
+            ByteBuffer[] batch;
+            long batchSequence;
+            
+            synchronized (lock) {
+                while (filled.isEmpty() && active.position() == 0) {
+                    if (closed || failure != null) {
+                        return;
+                    }
+                    try {
+                        lock.wait(IDLE_WAIT_MILLIS);
+                    } catch (InterruptedException e) {
+                        // Keep draining; close() is the only way to stop the writer
+                    }
+                }
+                if (active.position() > 0) {
+                    filled.add(active);
+                    active = takeSpare();
+                }
+                batch = filled.toArray(new ByteBuffer[0]);
+                filled.clear();
+                batchSequence = appendedSequence;
+            }
+            
+            try {
+                for (ByteBuffer buffer : batch) {
+                    buffer.flip();
+                }
+                // Buffers queued while the writer was busy go out in one gathering write
+                ByteBuffer last = batch[batch.length - 1];
+                while (last.hasRemaining()) {
+                    channel.write(batch);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                synchronized (lock) {
+                    failure = e;
+                    lock.notifyAll();
+                }
+                return;
+            }
+            
+            synchronized (lock) {
+                durableSequence = batchSequence;
+                for (ByteBuffer buffer : batch) {
+                    if (spare.size() < MAX_SPARE_BUFFERS) {
+                        buffer.clear();
+                        spare.add(buffer);
+                    }
+                }
+                lock.notifyAll();
+            }
+        }
+    }
+    
+    /**
+     * Get an empty staging buffer, allocating one if every spare is in use
+     */
+    private ByteBuffer takeSpare() {
+        ByteBuffer buffer = spare.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(bufferCapacity);
+    }
+    
+    private void checkOpen() {
+        if (failure != null) {
+            throw new UncheckedIOException(failure);
+        }
+        if (closed) {
+            throw new IllegalStateException("Trade journal is closed");
+        }
+    }
+    
+    private void awaitLock() {
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the trade journal", e);
+        }
+    }
+}
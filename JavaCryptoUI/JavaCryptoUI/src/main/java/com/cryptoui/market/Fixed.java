@@ -0,0 +1,164 @@
+package com.cryptoui.market;
+
+/**
+ * Fixed-point arithmetic for cash, prices and amounts held in longs.
+ * <p>
+ * Every value is a count of {@code 1 / }{@link #SCALE} units: a balance of $12.50 is
+ * {@code 1_250_000_000}, a price of 0.089 is {@code 8_900_000}. Each symbol's
+ * {@link SymbolScale} limits its prices and amounts to decimals that add up to
+ * {@link #DECIMALS}, so the product of a valid amount and price is a whole number of
+ * cash units and every trade total is exact. Balances reconcile with the sum of
+ * their trades to the unit.
+ * <p>
+ * All operations are static and work on primitives only; products that overflow 64
+ * bits are handled with 128-bit intermediates instead of {@code BigDecimal}.
+ */
+public final class Fixed {
+    public static final int DECIMALS = 8;
+    public static final long SCALE = 100_000_000L;
+    
+    // Powers of ten up to SCALE
+    private static final long[] POWERS = new long[DECIMALS + 1];
+    
+    static {
+        POWERS[0] = 1;
+        for (int i = 1; i <= DECIMALS; i++) {
+            POWERS[i] = POWERS[i - 1] * 10;
+        }
+    }
+    
+    private Fixed() {
+    }
+    
+    /**
+     * Convert a value to fixed-point units, rounding to the nearest unit
+     * @throws ArithmeticException if the value is not finite or out of range
+     */
+    public static long of(double value) {
+        double scaled = value * SCALE;
+        if (!(Math.abs(scaled) < 0x1p63)) {
+            throw new ArithmeticException("Not representable as fixed point: " + value);
+        }
+        return Math.round(scaled);
+    }
+    
+    /**
+     * Convert fixed-point units to the nearest double.
+     * Round-trips through {@link #of(double)} for values below 2^53 units.
+     */
+    public static double toDouble(long units) {
+        return units / (double) SCALE;
+    }
+    
+    /**
+     * Multiply two fixed-point values, e.g. an amount by a price, rounding toward
+     * negative infinity. The result is exact when the operands respect a
+     * {@link SymbolScale}.
+     * @throws ArithmeticException if the result does not fit in a long
+     */
+    public static long multiply(long a, long b) {
+        long low = a * b;
+        long high = Math.multiplyHigh(a, b);
+        if (high == (low >> 63)) {
+            // The product fits in 64 bits
+            return Math.floorDiv(low, SCALE);
+        }
+        boolean negative = high < 0;
+        if (negative) {
+            // Two's complement negation of the 128-bit product
+            low = -low;
+            high = low == 0 ? -high : ~high;
+        }
+        long quotient = divideUnsigned(high, low, SCALE, negative);
+        return negative ? -quotient : quotient;
+    }
+    
+    /**
+     * Multiply two fixed-point values, rounding toward positive infinity, e.g. for a
+     * cost charged to an account when the operands do not respect a {@link SymbolScale}
+     * @throws ArithmeticException if the result does not fit in a long
+     */
+    public static long multiplyUp(long a, long b) {
+        return -multiply(-a, b);
+    }
+    
+    /**
+     * Get the largest amount whose cost at a price does not exceed a cash value,
+     * i.e. the largest {@code q} with {@code multiply(q, price) <= cash}
+     * @param cash Cash available; must not be negative
+     * @param price Price per unit; must be positive
+     */
+    public static long divide(long cash, long price) {
+        if (cash < 0 || price <= 0) {
+            throw new IllegalArgumentException("Cash must not be negative and price must be positive");
+        }
+        // A double estimate is within a few units; settle it with exact products
+        double estimate = (double) cash / price * SCALE;
+        long amount = estimate >= 0x1p63 ? Long.MAX_VALUE : (long) estimate;
+        while (amount > 0 && exceeds(amount, price, cash)) {
+            amount--;
+        }
+        while (amount < Long.MAX_VALUE && !exceeds(amount + 1, price, cash)) {
+            amount++;
+        }
+        return amount;
+    }
+    
+    /**
+     * Round a value to a multiple of {@code 10^-decimals}, half away from zero
+     * @param decimals Decimals to keep, from 0 to {@link #DECIMALS}
+     */
+    public static long round(long units, int decimals) {
+        long step = POWERS[DECIMALS - decimals];
+        long remainder = units % step;
+        long down = units - remainder;
+        if (Math.abs(remainder) * 2 >= step) {
+            return units < 0 ? down - step : down + step;
+        }
+        return down;
+    }
+    
+    /**
+     * Get {@code 10^exponent}
+     * @param exponent From 0 to {@link #DECIMALS}
+     */
+    static long powerOfTen(int exponent) {
+        return POWERS[exponent];
+    }
+    
+    private static boolean exceeds(long amount, long price, long cash) {
+        long high = Math.multiplyHigh(amount, price);
+        long low = amount * price;
+        if (high == (low >> 63)) {
+            return low / SCALE > cash;
+        }
+        if (Long.compareUnsigned(high, SCALE) >= 0) {
+            // The cost does not even fit in a long
+            return true;
+        }
+        return divideUnsigned(high, low, SCALE, false) > cash;
+    }
+    
+    /**
+     * Divide an unsigned 128-bit value by a divisor below 2^31, rounding down
+     * (or up, for a magnitude that will be negated, so the signed result floors)
+     * @throws ArithmeticException if the quotient does not fit in a signed long
+     */
+    private static long divideUnsigned(long high, long low, long divisor, boolean roundUp) {
+        if (Long.compareUnsigned(high, divisor) >= 0) {
+            throw new ArithmeticException("Fixed-point overflow");
+        }
+        // Long division by 32-bit digits; every partial dividend stays below 2^63
+        long upper = (high << 32) | (low >>> 32);
+        long upperQuotient = upper / divisor;
+        long remainder = upper % divisor;
+        long lower = (remainder << 32) | (low & 0xFFFF_FFFFL);
+        long lowerQuotient = lower / divisor;
+        remainder = lower % divisor;
+        if (upperQuotient >>> 31 != 0) {
+            throw new ArithmeticException("Fixed-point overflow");
+        }
+        long quotient = Math.addExact(upperQuotient << 32, lowerQuotient);
+        return roundUp && remainder != 0 ? Math.addExact(quotient, 1) : quotient;
+    }
+}
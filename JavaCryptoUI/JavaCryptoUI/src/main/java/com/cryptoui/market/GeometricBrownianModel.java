@@ -0,0 +1,34 @@
+package com.cryptoui.market;
+
+/**
+ * Geometric Brownian motion: log returns are normal with a constant drift and volatility
+ * per tick, so prices stay positive and moves scale with the price.
+ */
+public class GeometricBrownianModel implements PriceModel {
+    private final double logDrift;
+    private final double volatility;
+    
+    /**
+     * @param drift Expected relative return per tick
+     * @param volatility Standard deviation of the log return per tick
+     */
+    public GeometricBrownianModel(double drift, double volatility) {
+        if (volatility < 0) {
+            throw new IllegalArgumentException("Volatility must not be negative");
+        }
+        // Ito correction so that the expected price grows by exactly the drift
+        this.logDrift = drift - volatility * volatility / 2;
+        this.volatility = volatility;
+    }
+    
+    @Override
+    public void step(double[] prices, double[] scratch, int from, int to, RowRandom random) {
+        random.fillGaussian(scratch, from, to);
+        for (int i = from; i < to; i++) {
+            scratch[i] = logDrift + volatility * scratch[i];
+        }
+        for (int i = from; i < to; i++) {
+            prices[i] *= Math.exp(scratch[i]);
+        }
+    }
+}
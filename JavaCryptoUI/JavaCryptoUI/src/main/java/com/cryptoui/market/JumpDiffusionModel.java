@@ -0,0 +1,43 @@
+package com.cryptoui.market;
+
+/**
+ * Merton jump-diffusion: geometric Brownian motion plus occasional jumps whose log size
+ * is normal, modelling sudden repricing on news.
+ */
+public class JumpDiffusionModel implements PriceModel {
+    private final GeometricBrownianModel diffusion;
+    private final double jumpProbability;
+    private final double jumpMean;
+    private final double jumpVolatility;
+    
+    /**
+     * @param drift Expected relative return per tick, excluding jumps
+     * @param volatility Standard deviation of the diffusive log return per tick
+     * @param jumpProbability Chance of a jump per row per tick
+     * @param jumpMean Mean of the log jump size
+     * @param jumpVolatility Standard deviation of the log jump size
+     */
+    public JumpDiffusionModel(double drift, double volatility, double jumpProbability,
+                              double jumpMean, double jumpVolatility) {
+        if (jumpProbability < 0 || jumpProbability > 1) {
+            throw new IllegalArgumentException("Jump probability must be between 0 and 1");
+        }
+        this.diffusion = new GeometricBrownianModel(drift, volatility);
+        this.jumpProbability = jumpProbability;
+        this.jumpMean = jumpMean;
+        this.jumpVolatility = jumpVolatility;
+    }
+    
+    @Override
+    public void step(double[] prices, double[] scratch, int from, int to, RowRandom random) {
+        diffusion.step(prices, scratch, from, to, random);
+        
+        // Jumps are rare, so only the rows that jump draw a jump size
+        random.fillUniform(scratch, from, to);
+        for (int i = from; i < to; i++) {
+            if (scratch[i] < jumpProbability) {
+                prices[i] *= Math.exp(jumpMean + jumpVolatility * random.nextGaussian(i));
+            }
+        }
+    }
+}
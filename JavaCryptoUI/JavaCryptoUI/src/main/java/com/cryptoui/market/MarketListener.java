@@ -0,0 +1,14 @@
+package com.cryptoui.market;
+
+/**
+ * Subscriber for market snapshots published by the {@link TickEngine}
+ */
+public interface MarketListener {
+    
+    /**
+     * Called on the engine's driver thread once per completed tick.
+     * Implementations that touch UI state must hand off to the UI thread themselves.
+     * @param snapshot Snapshot of the tick that just completed, valid until the next one has been delivered
+     */
+    void onSnapshot(MarketSnapshot snapshot);
+}
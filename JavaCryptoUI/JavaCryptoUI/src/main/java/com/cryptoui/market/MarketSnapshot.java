@@ -0,0 +1,92 @@
+package com.cryptoui.market;
+
+/**
+ * Batch of prices captured after a single tick.
+ * Rows are in the same index order as the {@link TickTarget} that produced them.
+ * <p>
+ * A {@link MarketState} refills its snapshots in turn instead of allocating one per
+ * tick, so a listener may keep a snapshot until the next one is delivered but must
+ * copy what it needs to keep any longer.
+ */
+public final class MarketSnapshot {
+    private long sequence;
+    private long timestampNanos;
+    private int size;
+    private final String[] symbols;
+    private final double[] prices;
+    private final double[] changes;
+    
+    /**
+     * Create a snapshot that takes ownership of the given arrays.
+     * Callers must not modify the arrays afterwards.
+     */
+    public MarketSnapshot(long sequence, long timestampNanos,
+                          String[] symbols, double[] prices, double[] changes) {
+        if (symbols.length != prices.length || symbols.length != changes.length) {
+            throw new IllegalArgumentException("Snapshot columns must have equal length");
+        }
+        this.sequence = sequence;
+        this.timestampNanos = timestampNanos;
+        this.size = symbols.length;
+        this.symbols = symbols;
+        this.prices = prices;
+        this.changes = changes;
+    }
+    
+    /**
+     * Create an empty snapshot to be refilled with {@link #fill}
+     * @param symbols Symbol column of the producer; rows are only ever appended to it
+     */
+    MarketSnapshot(String[] symbols) {
+        this.symbols = symbols;
+        this.prices = new double[symbols.length];
+        this.changes = new double[symbols.length];
+    }
+    
+    /**
+     * Copy the first rows of a producer's columns into this snapshot
+     */
+    void fill(long sequence, long timestampNanos, int size, double[] prices, double[] changes) {
+        this.sequence = sequence;
+        this.timestampNanos = timestampNanos;
+        this.size = size;
+        System.arraycopy(prices, 0, this.prices, 0, size);
+        System.arraycopy(changes, 0, this.changes, 0, size);
+    }
+    
+    /**
+     * Get the tick sequence number
+     * @return Sequence number, starting at 1 for the first tick
+     */
+    public long getSequence() {
+        return sequence;
+    }
+    
+    /**
+     * Get the tick time
+     * @return Time in {@link System#nanoTime()} units
+     */
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+    
+    /**
+     * Get the number of rows in this snapshot
+     * @return Number of symbols
+     */
+    public int size() {
+        return size;
+    }
+    
+    public String getSymbol(int index) {
+        return symbols[index];
+    }
+    
+    public double getPrice(int index) {
+        return prices[index];
+    }
+    
+    public double getChange24h(int index) {
+        return changes[index];
+    }
+}
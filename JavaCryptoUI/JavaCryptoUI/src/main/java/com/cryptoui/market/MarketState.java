@@ -0,0 +1,405 @@
+package com.cryptoui.market;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Primitive, struct-of-arrays store for the state of every listed symbol.
+ * Each symbol is interned to a dense id that indexes the column arrays, so a
+ * full-universe tick is a linear pass over contiguous doubles with no allocation.
+ * <p>
+ * Capacity is fixed at construction so that tick workers never race with a resize.
+ * <p>
+ * Price columns are published through a sequence lock. Writers (a whole tick, or a
+ * single setter) make the sequence odd for the duration of the write; readers take a
+ * stamp with {@link #beginRead()}, read any number of values and retry if
+ * {@link #validate(long)} fails. Readers therefore always see a price set from a single
+ * completed tick, and the tick path never blocks on a reader.
+ * <p>
+ * Snapshots are taken into two reused {@link MarketSnapshot}s in turn, so publishing a
+ * tick does not allocate either; the snapshot delivered for a tick stays intact until
+ * the one after it is taken.
+ * <p>
+ * Every symbol has a {@link SymbolScale}, and each price written is rounded to its
+ * tick, so a price converts to exact {@link Fixed} units for accounting.
+ */
+public class MarketState implements TickTarget {
+    private final Map<String, Integer> ids;
+    private final String[] symbols;
+    private final String[] names;
+    private final String[] descriptions;
+    private final double[] prices;
+    private final double[] changes;
+    // Price 24 hours ago; change24h is derived from it on every price write
+    private final double[] referencePrices;
+    private final double[] marketCaps;
+    private final SymbolScale[] scales;
+    
+    // Price process and its per-row random streams; scratch rows belong to the worker ticking them
+    private volatile PriceModel priceModel = new RandomWalkModel();
+    private final RowRandom random;
+    private final double[] scratch;
+    
+    private volatile int size;
+    
+    // Double-buffered snapshots; only the thread publishing ticks takes them
+    private final MarketSnapshot[] snapshots;
+    private int nextSnapshot;
+    
+    // Even while the columns are stable, odd while a write is in progress
+    private volatile long sequence;
+    
+    private static final VarHandle SEQUENCE;
+    
+    static {
+        try {
+            SEQUENCE = MethodHandles.lookup().findVarHandle(MarketState.class, "sequence", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    
+    /**
+     * Create an empty store
+     * @param capacity Maximum number of symbols that can be listed
+     */
+    public MarketState(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.ids = new ConcurrentHashMap<>(capacity * 2);
+        this.symbols = new String[capacity];
+        this.names = new String[capacity];
+        this.descriptions = new String[capacity];
+        this.prices = new double[capacity];
+        this.changes = new double[capacity];
+        this.referencePrices = new double[capacity];
+        this.marketCaps = new double[capacity];
+        this.scales = new SymbolScale[capacity];
+        this.random = new RowRandom(capacity, System.nanoTime());
+        this.scratch = new double[capacity];
+        this.snapshots = new MarketSnapshot[] { new MarketSnapshot(symbols), new MarketSnapshot(symbols) };
+    }
+    
+    /**
+     * List a new symbol with a scale chosen from its price
+     * @return The interned id of the symbol
+     * @throws IllegalArgumentException if the symbol is already listed
+     * @throws IllegalStateException if the store is full
+     */
+    public int add(String symbol, String name, String description,
+                   double price, double change24h, double marketCap) {
+        return add(symbol, name, description, price, change24h, marketCap, SymbolScale.forPrice(price));
+    }
+    
+    /**
+     * List a new symbol
+     * @param scale Tick and lot the symbol trades in
+     * @return The interned id of the symbol
+     * @throws IllegalArgumentException if the symbol is already listed
+     * @throws IllegalStateException if the store is full
+     */
+    public synchronized int add(String symbol, String name, String description,
+                                double price, double change24h, double marketCap, SymbolScale scale) {
+        if (ids.containsKey(symbol)) {
+            throw new IllegalArgumentException("Symbol already listed: " + symbol);
+        }
+        int id = size;
+        if (id == symbols.length) {
+            throw new IllegalStateException("Market state is full (" + symbols.length + " symbols)");
+        }
+        
+        symbols[id] = symbol;
+        names[id] = name;
+        descriptions[id] = description;
+        scales[id] = scale;
+        prices[id] = scale.roundPrice(price);
+        changes[id] = change24h;
+        // Until real history exists, the reference is the price implied by the listed change
+        referencePrices[id] = impliedReference(prices[id], change24h);
+        marketCaps[id] = marketCap;
+        ids.put(symbol, id);
+        
+        // Volatile write publishes the new row to readers of size()
+        size = id + 1;
+        return id;
+    }
+    
+    /**
+     * Look up the interned id of a symbol
+     * @param symbol Cryptocurrency symbol
+     * @return Id of the symbol or -1 if it is not listed
+     */
+    public int idOf(String symbol) {
+        Integer id = ids.get(symbol);
+        return id == null ? -1 : id;
+    }
+    
+    /**
+     * Apply one step of the price model to a single row
+     * @param id Interned symbol id
+     */
+    public void updatePrice(int id) {
+        beginWrite();
+        updatePrices(id, id + 1);
+        endWrite();
+    }
+    
+    /**
+     * Replace the process that moves prices on each tick.
+     * Takes effect from the next tick; a tick in progress finishes with the old model.
+     * @param priceModel New price model
+     */
+    public void setPriceModel(PriceModel priceModel) {
+        if (priceModel == null) {
+            throw new IllegalArgumentException("Price model must not be null");
+        }
+        this.priceModel = priceModel;
+    }
+    
+    public PriceModel getPriceModel() {
+        return priceModel;
+    }
+    
+    /**
+     * Restart every symbol's random stream from a seed, making later ticks reproducible.
+     * Must not be called while the market is ticking.
+     * @param seed Root seed
+     */
+    public void seed(long seed) {
+        random.seed(seed);
+    }
+    
+    /**
+     * Apply the price model to a range of rows, round each price to its tick and derive
+     * each row's 24h change from its reference price, rounded to hundredths of a percent.
+     * Callers must hold the write section.
+     */
+    private void updatePrices(int from, int to) {
+        priceModel.step(prices, scratch, from, to, random);
+        
+        for (int id = from; id < to; id++) {
+            prices[id] = scales[id].roundPrice(prices[id]);
+            changes[id] = changeFrom(prices[id], referencePrices[id]);
+        }
+    }
+    
+    /**
+     * Set the price a symbol traded at 24 hours ago and recompute its 24h change
+     * @param id Interned symbol id
+     * @param referencePrice Price 24 hours ago; must be positive
+     */
+    public void setReferencePrice(int id, double referencePrice) {
+        if (!(referencePrice > 0)) {
+            throw new IllegalArgumentException("Reference price must be positive");
+        }
+        beginWrite();
+        referencePrices[id] = referencePrice;
+        changes[id] = changeFrom(prices[id], referencePrice);
+        endWrite();
+    }
+    
+    public double getReferencePrice(int id) {
+        double value;
+        long stamp;
+        do {
+            stamp = beginRead();
+            value = referencePrices[id];
+        } while (!validate(stamp));
+        return value;
+    }
+    
+    private static double changeFrom(double price, double referencePrice) {
+        return Math.round((price / referencePrice - 1) * 10_000.0) / 100.0;
+    }
+    
+    private static double impliedReference(double price, double change24h) {
+        return price / (1 + change24h / 100);
+    }
+    
+    /**
+     * Start an optimistic read of the price columns
+     * @return Stamp to pass to {@link #validate(long)} once the values have been read
+     */
+    public long beginRead() {
+        long stamp;
+        while (((stamp = sequence) & 1) != 0) {
+            Thread.onSpinWait();
+        }
+        return stamp;
+    }
+    
+    /**
+     * Check that no write overlapped a read started with {@link #beginRead()}
+     * @param stamp Stamp returned by beginRead
+     * @return true if every value read since the stamp belongs to the same tick
+     */
+    public boolean validate(long stamp) {
+        VarHandle.loadLoadFence();
+        return sequence == stamp;
+    }
+    
+    /**
+     * Enter the write section; spins while another writer holds it
+     */
+    private void beginWrite() {
+        while (true) {
+            long current = sequence;
+            if ((current & 1) == 0 && SEQUENCE.compareAndSet(this, current, current + 1)) {
+                VarHandle.storeStoreFence();
+                return;
+            }
+            Thread.onSpinWait();
+        }
+    }
+    
+    private void endWrite() {
+        sequence = sequence + 1;
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    @Override
+    public void beforeTick() {
+        beginWrite();
+    }
+    
+    @Override
+    public void afterTick() {
+        endWrite();
+    }
+    
+    @Override
+    public void tick(int from, int to) {
+        updatePrices(from, to);
+    }
+    
+    @Override
+    public MarketSnapshot snapshot(long sequence, long timestampNanos) {
+        MarketSnapshot snapshot = snapshots[nextSnapshot];
+        nextSnapshot ^= 1;
+        // Rows below size are complete; symbols of later rows are never read through the snapshot
+        int n = size;
+        long stamp;
+        do {
+            stamp = beginRead();
+            snapshot.fill(sequence, timestampNanos, n, prices, changes);
+        } while (!validate(stamp));
+        return snapshot;
+    }
+    
+    public int capacity() {
+        return symbols.length;
+    }
+    
+    // Column accessors by interned id
+    public String getSymbol(int id) {
+        return symbols[id];
+    }
+    
+    /**
+     * Get the tick and lot a symbol trades in
+     */
+    public SymbolScale getScale(int id) {
+        return scales[id];
+    }
+    
+    /**
+     * Get a price in fixed-point units; exact, since prices are kept on the tick
+     */
+    public long getPriceFixed(int id) {
+        return Fixed.of(getPrice(id));
+    }
+    
+    public String getName(int id) {
+        return names[id];
+    }
+    
+    public void setName(int id, String name) {
+        names[id] = name;
+    }
+    
+    public String getDescription(int id) {
+        return descriptions[id];
+    }
+    
+    public void setDescription(int id, String description) {
+        descriptions[id] = description;
+    }
+    
+    public double getPrice(int id) {
+        double value;
+        long stamp;
+        do {
+            stamp = beginRead();
+            value = prices[id];
+        } while (!validate(stamp));
+        return value;
+    }
+    
+    /**
+     * Read a price without validation, for use between {@link #beginRead()} and {@link #validate(long)}
+     */
+    public double peekPrice(int id) {
+        return prices[id];
+    }
+    
+    /**
+     * Set a price, rounded to the symbol's tick
+     */
+    public void setPrice(int id, double price) {
+        double rounded = scales[id].roundPrice(price);
+        beginWrite();
+        prices[id] = rounded;
+        changes[id] = changeFrom(rounded, referencePrices[id]);
+        endWrite();
+    }
+    
+    public double getChange24h(int id) {
+        double value;
+        long stamp;
+        do {
+            stamp = beginRead();
+            value = changes[id];
+        } while (!validate(stamp));
+        return value;
+    }
+    
+    /**
+     * Read a 24h change without validation, for use between {@link #beginRead()} and {@link #validate(long)}
+     */
+    public double peekChange24h(int id) {
+        return changes[id];
+    }
+    
+    /**
+     * Override the 24h change; the reference price is moved to match it
+     */
+    public void setChange24h(int id, double change24h) {
+        beginWrite();
+        changes[id] = change24h;
+        referencePrices[id] = impliedReference(prices[id], change24h);
+        endWrite();
+    }
+    
+    public double getMarketCap(int id) {
+        double value;
+        long stamp;
+        do {
+            stamp = beginRead();
+            value = marketCaps[id];
+        } while (!validate(stamp));
+        return value;
+    }
+    
+    public void setMarketCap(int id, double marketCap) {
+        beginWrite();
+        marketCaps[id] = marketCap;
+        endWrite();
+    }
+}
@@ -0,0 +1,49 @@
+package com.cryptoui.market;
+
+import java.util.Arrays;
+
+/**
+ * Ornstein-Uhlenbeck process on the log price: each tick pulls the price a fraction of
+ * the way back to an anchor before adding normal noise. A row's anchor is the first
+ * price the model sees for it.
+ */
+public class MeanReversionModel implements PriceModel {
+    private final double reversion;
+    private final double volatility;
+    
+    // Log of the anchor price per row, NaN until the row is first stepped
+    private final double[] logAnchors;
+    
+    /**
+     * @param capacity Number of rows the model may be asked to step
+     * @param reversion Fraction of the distance to the anchor recovered per tick, in [0, 1]
+     * @param volatility Standard deviation of the log price noise per tick
+     */
+    public MeanReversionModel(int capacity, double reversion, double volatility) {
+        if (reversion < 0 || reversion > 1) {
+            throw new IllegalArgumentException("Reversion must be between 0 and 1");
+        }
+        if (volatility < 0) {
+            throw new IllegalArgumentException("Volatility must not be negative");
+        }
+        this.reversion = reversion;
+        this.volatility = volatility;
+        this.logAnchors = new double[capacity];
+        Arrays.fill(logAnchors, Double.NaN);
+    }
+    
+    @Override
+    public void step(double[] prices, double[] scratch, int from, int to, RowRandom random) {
+        for (int i = from; i < to; i++) {
+            if (Double.isNaN(logAnchors[i]) && prices[i] > 0) {
+                logAnchors[i] = Math.log(prices[i]);
+            }
+        }
+        
+        random.fillGaussian(scratch, from, to);
+        for (int i = from; i < to; i++) {
+            double logPrice = Math.log(prices[i]);
+            prices[i] = Math.exp(logPrice + reversion * (logAnchors[i] - logPrice) + volatility * scratch[i]);
+        }
+    }
+}
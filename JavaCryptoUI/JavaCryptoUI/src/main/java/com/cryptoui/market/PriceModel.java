@@ -0,0 +1,23 @@
+package com.cryptoui.market;
+
+/**
+ * Stochastic process that advances symbol prices by one tick.
+ * <p>
+ * A model updates a contiguous range of the price column in place. Tick workers call it
+ * concurrently on disjoint ranges, so an implementation must only touch rows
+ * [from, to) of the arrays it is given and of any per-row state it keeps. Models are
+ * written as a few simple passes over primitive arrays so the JIT can unroll and
+ * vectorize the arithmetic.
+ */
+public interface PriceModel {
+    
+    /**
+     * Advance rows [from, to) of the price column by one tick
+     * @param prices Price column, updated in place
+     * @param scratch Scratch column the model may use freely within [from, to)
+     * @param from First row, inclusive
+     * @param to Last row, exclusive
+     * @param random Per-row random streams
+     */
+    void step(double[] prices, double[] scratch, int from, int to, RowRandom random);
+}
@@ -0,0 +1,31 @@
+package com.cryptoui.market;
+
+/**
+ * The original price simulation: each tick moves a price by a uniform change between
+ * -3% and +3%. The market rounds the result to the symbol's tick.
+ */
+public class RandomWalkModel implements PriceModel {
+    private final double maxChange;
+    
+    public RandomWalkModel() {
+        this(0.03);
+    }
+    
+    /**
+     * @param maxChange Largest relative move per tick, e.g. 0.03 for 3%
+     */
+    public RandomWalkModel(double maxChange) {
+        this.maxChange = maxChange;
+    }
+    
+    @Override
+    public void step(double[] prices, double[] scratch, int from, int to, RowRandom random) {
+        random.fillUniform(scratch, from, to);
+        for (int i = from; i < to; i++) {
+            scratch[i] = 1 + (scratch[i] * 2 - 1) * maxChange;
+        }
+        for (int i = from; i < to; i++) {
+            prices[i] *= scratch[i];
+        }
+    }
+}
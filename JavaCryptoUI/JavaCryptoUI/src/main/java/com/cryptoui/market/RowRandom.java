@@ -0,0 +1,124 @@
+package com.cryptoui.market;
+
+/**
+ * Seedable random streams, one per symbol row.
+ * <p>
+ * Each row has its own SplitMix64 generator (the algorithm behind
+ * {@link java.util.SplittableRandom}) stored as a single long in a primitive column.
+ * Row streams are split from one root seed, and a tick worker only advances the rows of
+ * its own partition, so workers never share generator state and a seeded run produces
+ * the same prices whatever the number of workers.
+ */
+public final class RowRandom {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+    
+    // Coefficients of Acklam's rational approximation of the inverse normal CDF
+    private static final double A1 = -3.969683028665376e+01, A2 = 2.209460984245205e+02,
+        A3 = -2.759285104469687e+02, A4 = 1.383577518672690e+02,
+        A5 = -3.066479806614716e+01, A6 = 2.506628277459239e+00;
+    private static final double B1 = -5.447609879822406e+01, B2 = 1.615858368580409e+02,
+        B3 = -1.556989798598866e+02, B4 = 6.680131188771972e+01, B5 = -1.328068155288572e+01;
+    private static final double C1 = -7.784894002430293e-03, C2 = -3.223964580411365e-01,
+        C3 = -2.400758277161838e+00, C4 = -2.549732539343734e+00,
+        C5 = 4.374664141464968e+00, C6 = 2.938163982698783e+00;
+    private static final double D1 = 7.784695709041462e-03, D2 = 3.224671290700398e-01,
+        D3 = 2.445134137142996e+00, D4 = 3.754408661907416e+00;
+    private static final double TAIL = 0.02425;
+    
+    private final long[] states;
+    
+    /**
+     * Create streams for a number of rows
+     * @param rows Number of rows
+     * @param seed Root seed
+     */
+    public RowRandom(int rows, long seed) {
+        this.states = new long[rows];
+        seed(seed);
+    }
+    
+    /**
+     * Restart every row stream from a new root seed.
+     * Must not be called while rows are being drawn from.
+     * @param seed Root seed
+     */
+    public void seed(long seed) {
+        long root = seed;
+        for (int row = 0; row < states.length; row++) {
+            root += GOLDEN_GAMMA;
+            states[row] = mix64(root);
+        }
+    }
+    
+    public long nextLong(int row) {
+        long state = states[row] + GOLDEN_GAMMA;
+        states[row] = state;
+        return mix64(state);
+    }
+    
+    /**
+     * Draw a uniform value
+     * @return Value in [0, 1)
+     */
+    public double nextDouble(int row) {
+        return (nextLong(row) >>> 11) * DOUBLE_UNIT;
+    }
+    
+    /**
+     * Draw a standard normal value by inverting the normal CDF at a uniform draw
+     */
+    public double nextGaussian(int row) {
+        return inverseNormal(nextDouble(row));
+    }
+    
+    /**
+     * Draw one uniform value per row into out[from, to)
+     */
+    public void fillUniform(double[] out, int from, int to) {
+        for (int row = from; row < to; row++) {
+            out[row] = nextDouble(row);
+        }
+    }
+    
+    /**
+     * Draw one standard normal value per row into out[from, to)
+     */
+    public void fillGaussian(double[] out, int from, int to) {
+        fillUniform(out, from, to);
+        // Separate pass: the transform is plain arithmetic in the central region
+        for (int row = from; row < to; row++) {
+            out[row] = inverseNormal(out[row]);
+        }
+    }
+    
+    public int rows() {
+        return states.length;
+    }
+    
+    /**
+     * Acklam's approximation of the inverse standard normal CDF, relative error below 1.2e-9.
+     * The central 95% of draws need no transcendental functions.
+     * @param u Probability in [0, 1)
+     */
+    static double inverseNormal(double u) {
+        if (u < TAIL || u > 1 - TAIL) {
+            // Tails; a draw of exactly 0 is nudged to the smallest positive double
+            double p = u < TAIL ? Math.max(u, Double.MIN_VALUE) : 1 - u;
+            double q = Math.sqrt(-2 * Math.log(p));
+            double z = (((((C1 * q + C2) * q + C3) * q + C4) * q + C5) * q + C6)
+                       / ((((D1 * q + D2) * q + D3) * q + D4) * q + 1);
+            return u < TAIL ? z : -z;
+        }
+        double q = u - 0.5;
+        double r = q * q;
+        return (((((A1 * r + A2) * r + A3) * r + A4) * r + A5) * r + A6) * q
+               / (((((B1 * r + B2) * r + B3) * r + B4) * r + B5) * r + 1);
+    }
+    
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
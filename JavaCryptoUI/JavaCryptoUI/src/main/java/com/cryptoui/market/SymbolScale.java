@@ -0,0 +1,126 @@
+package com.cryptoui.market;
+
+/**
+ * Price and amount precision of one symbol.
+ * <p>
+ * Prices are multiples of a tick of {@code 10^-priceDecimals} and amounts multiples of
+ * a lot of {@code 10^-amountDecimals}, where the two add up to {@link Fixed#DECIMALS}.
+ * Expensive symbols therefore trade in fine amounts at coarse prices (BTC: cents and
+ * millionths of a coin) and cheap ones the other way round, and any amount times any
+ * price is a whole number of {@link Fixed} cash units.
+ * <p>
+ * Instances are shared per precision; {@link #of(int)} allocates nothing.
+ */
+public final class SymbolScale {
+    /** Fewest price decimals chosen by {@link #forPrice(double)} */
+    public static final int MIN_PRICE_DECIMALS = 2;
+    // Significant digits kept in prices chosen by forPrice
+    private static final int PRICE_DIGITS = 5;
+    
+    private static final SymbolScale[] SCALES = new SymbolScale[Fixed.DECIMALS + 1];
+    
+    static {
+        for (int decimals = 0; decimals <= Fixed.DECIMALS; decimals++) {
+            SCALES[decimals] = new SymbolScale(decimals);
+        }
+    }
+    
+    private final int priceDecimals;
+    private final long tick;
+    private final long lot;
+    private final double ticksPerWhole;
+    
+    private SymbolScale(int priceDecimals) {
+        this.priceDecimals = priceDecimals;
+        this.tick = Fixed.powerOfTen(Fixed.DECIMALS - priceDecimals);
+        this.lot = Fixed.powerOfTen(priceDecimals);
+        this.ticksPerWhole = Fixed.powerOfTen(priceDecimals);
+    }
+    
+    /**
+     * Get the scale with a number of price decimals
+     * @param priceDecimals From 0 to {@link Fixed#DECIMALS}
+     * @throws IllegalArgumentException if the decimals are out of range
+     */
+    public static SymbolScale of(int priceDecimals) {
+        if (priceDecimals < 0 || priceDecimals > Fixed.DECIMALS) {
+            throw new IllegalArgumentException("Price decimals must be between 0 and " + Fixed.DECIMALS);
+        }
+        return SCALES[priceDecimals];
+    }
+    
+    /**
+     * Choose a scale that keeps about five significant digits of a price, with at
+     * least {@link #MIN_PRICE_DECIMALS} decimals
+     * @param price Typical price of the symbol, e.g. its listing price
+     */
+    public static SymbolScale forPrice(double price) {
+        if (!(price > 0) || Double.isInfinite(price)) {
+            return SCALES[Fixed.DECIMALS / 2];
+        }
+        int magnitude = (int) Math.floor(Math.log10(price));
+        int decimals = PRICE_DIGITS - 1 - magnitude;
+        return SCALES[Math.max(MIN_PRICE_DECIMALS, Math.min(Fixed.DECIMALS, decimals))];
+    }
+    
+    public int getPriceDecimals() {
+        return priceDecimals;
+    }
+    
+    public int getAmountDecimals() {
+        return Fixed.DECIMALS - priceDecimals;
+    }
+    
+    /**
+     * Get the smallest price step
+     * @return Tick in fixed-point units
+     */
+    public long getTick() {
+        return tick;
+    }
+    
+    /**
+     * Get the smallest amount step
+     * @return Lot in fixed-point units
+     */
+    public long getLot() {
+        return lot;
+    }
+    
+    /**
+     * Convert a price to fixed-point units on the nearest tick
+     */
+    public long toPrice(double price) {
+        return Fixed.round(Fixed.of(price), priceDecimals);
+    }
+    
+    /**
+     * Convert an amount to fixed-point units on the nearest lot
+     */
+    public long toAmount(double amount) {
+        return Fixed.round(Fixed.of(amount), getAmountDecimals());
+    }
+    
+    /**
+     * Round a price to the nearest tick, keeping positive prices at least one tick
+     */
+    public double roundPrice(double price) {
+        double ticks = Math.rint(price * ticksPerWhole);
+        if (ticks < 1 && price > 0) {
+            ticks = 1;
+        }
+        return ticks / ticksPerWhole;
+    }
+    
+    /**
+     * Check that fixed-point values lie on this scale's tick and lot
+     */
+    public boolean isValid(long price, long amount) {
+        return price % tick == 0 && amount % lot == 0;
+    }
+    
+    @Override
+    public String toString() {
+        return "SymbolScale[price decimals " + priceDecimals + ", amount decimals " + getAmountDecimals() + "]";
+    }
+}
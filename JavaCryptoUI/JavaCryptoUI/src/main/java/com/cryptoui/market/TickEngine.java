@@ -0,0 +1,262 @@
+package com.cryptoui.market;
+
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Headless tick engine that advances a {@link TickTarget} at a fixed rate.
+ * The symbol range is partitioned across a pool of workers that tick in parallel;
+ * once every partition is done a {@link MarketSnapshot} is published to the listeners.
+ */
+public class TickEngine {
+    private final TickTarget target;
+    private final int workers;
+    private final long intervalNanos;
+    private final List<MarketListener> listeners = new CopyOnWriteArrayList<>();
+    
+    private volatile boolean running;
+    private volatile long sequence;
+    private Thread driver;
+    private Thread[] workerThreads = new Thread[0];
+    private CyclicBarrier startBarrier;
+    private CyclicBarrier endBarrier;
+    
+    // Written by the driver before the start barrier, read by workers after it
+    private int tickSize;
+    private boolean exiting;
+    
+    /**
+     * Create a tick engine
+     * @param target Symbol universe to advance
+     * @param workers Number of threads ticking in parallel, including the driver thread
+     * @param intervalNanos Time between tick starts in nanoseconds
+     */
+    public TickEngine(TickTarget target, int workers, long intervalNanos) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("At least one worker is required");
+        }
+        if (intervalNanos <= 0) {
+            throw new IllegalArgumentException("Tick interval must be positive");
+        }
+        this.target = target;
+        this.workers = workers;
+        this.intervalNanos = intervalNanos;
+    }
+    
+    /**
+     * Start ticking on background daemon threads
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        exiting = false;
+        
+        if (workers > 1) {
+            startBarrier = new CyclicBarrier(workers);
+            endBarrier = new CyclicBarrier(workers);
+            workerThreads = new Thread[workers - 1];
+            for (int i = 1; i < workers; i++) {
+                final int partition = i;
+                Thread worker = new Thread(() -> workerLoop(partition), "tick-worker-" + i);
+                worker.setDaemon(true);
+                worker.start();
+                workerThreads[i - 1] = worker;
+            }
+        }
+        
+        driver = new Thread(this::driverLoop, "tick-driver");
+        driver.setDaemon(true);
+        driver.start();
+    }
+    
+    /**
+     * Stop ticking and wait for the background threads to finish the current tick
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(driver);
+        try {
+            driver.join();
+            for (Thread worker : workerThreads) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        driver = null;
+        workerThreads = new Thread[0];
+    }
+    
+    /**
+     * Run a single tick on the calling thread.
+     * Intended for tests, benchmarks and backtests that drive time themselves.
+     * @throws IllegalStateException if the engine is running in the background
+     */
+    public synchronized void tickOnce() {
+        if (running) {
+            throw new IllegalStateException("Engine is already ticking in the background");
+        }
+        target.beforeTick();
+        runPartition(0, target.size(), 1);
+        target.afterTick();
+        publish();
+    }
+    
+    /**
+     * Deliver a snapshot produced outside the engine, such as by a market replay,
+     * to this engine's listeners on the calling thread
+     * @throws IllegalStateException if the engine is ticking in the background
+     */
+    public void publishSnapshot(MarketSnapshot snapshot) {
+        if (running) {
+            throw new IllegalStateException("Engine is already ticking in the background");
+        }
+        sequence = snapshot.getSequence();
+        deliver(snapshot);
+    }
+    
+    public boolean isRunning() {
+        return running;
+    }
+    
+    /**
+     * Get the number of completed ticks
+     * @return Sequence number of the last published tick
+     */
+    public long getSequence() {
+        return sequence;
+    }
+    
+    public int getWorkers() {
+        return workers;
+    }
+    
+    public long getIntervalNanos() {
+        return intervalNanos;
+    }
+    
+    public void addListener(MarketListener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeListener(MarketListener listener) {
+        listeners.remove(listener);
+    }
+    
+    private void driverLoop() {
+        long nextTick = System.nanoTime() + intervalNanos;
+        while (running) {
+            // Sleep until the next tick is due
+            long wait;
+            while (running && (wait = nextTick - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, wait);
+            }
+            if (!running) {
+                break;
+            }
+            
+            if (!tickParallel()) {
+                running = false;
+                break;
+            }
+            publish();
+            
+            nextTick += intervalNanos;
+            if (nextTick - System.nanoTime() < 0) {
+                // Fell behind; skip missed ticks instead of bursting to catch up
+                nextTick = System.nanoTime();
+            }
+        }
+        
+        // Release the workers parked on the start barrier so they can observe the stop.
+        // Workers must not exit on running alone: a stop racing with a tick start would
+        // leave the driver waiting on the end barrier for them
+        if (workers > 1) {
+            exiting = true;
+            await(startBarrier);
+        }
+    }
+    
+    private boolean tickParallel() {
+        tickSize = target.size();
+        target.beforeTick();
+        try {
+            if (workers == 1) {
+                runPartition(0, tickSize, 1);
+                return true;
+            }
+            if (!await(startBarrier)) {
+                return false;
+            }
+            runPartition(0, tickSize, workers);
+            return await(endBarrier);
+        } finally {
+            target.afterTick();
+        }
+    }
+    
+    private void workerLoop(int partition) {
+        while (true) {
+            if (!await(startBarrier) || exiting) {
+                return;
+            }
+            runPartition(partition, tickSize, workers);
+            if (!await(endBarrier)) {
+                return;
+            }
+        }
+    }
+    
+    private void runPartition(int partition, int size, int partitions) {
+        int from = (int) ((long) size * partition / partitions);
+        int to = (int) ((long) size * (partition + 1) / partitions);
+        if (from >= to) {
+            return;
+        }
+        try {
+            target.tick(from, to);
+        } catch (RuntimeException e) {
+            // A failing partition must not stall the other workers
+            e.printStackTrace();
+        }
+    }
+    
+    private void publish() {
+        long seq = sequence + 1;
+        sequence = seq;
+        if (listeners.isEmpty()) {
+            return;
+        }
+        deliver(target.snapshot(seq, System.nanoTime()));
+    }
+    
+    private void deliver(MarketSnapshot snapshot) {
+        for (MarketListener listener : listeners) {
+            try {
+                listener.onSnapshot(snapshot);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+    
+    private static boolean await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (BrokenBarrierException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.cryptoui.market;
+
+/**
+ * A universe of symbols that can be advanced by the {@link TickEngine}.
+ * Symbols are addressed by a dense index in the range [0, size()).
+ */
+public interface TickTarget {
+    
+    /**
+     * Get the number of symbols currently in the universe
+     * @return Number of symbols
+     */
+    int size();
+    
+    /**
+     * Called on the driver thread before any partition of a tick runs
+     */
+    default void beforeTick() {
+    }
+    
+    /**
+     * Called on the driver thread after every partition of a tick has finished
+     */
+    default void afterTick() {
+    }
+    
+    /**
+     * Advance every symbol in the given index range by one tick.
+     * Called concurrently from several workers, always with disjoint ranges.
+     * @param from First index (inclusive)
+     * @param to Last index (exclusive)
+     */
+    void tick(int from, int to);
+    
+    /**
+     * Capture the state of the universe after a completed tick.
+     * Called from one thread at a time; the snapshot may be refilled by a later call.
+     * @param sequence Tick sequence number
+     * @param timestampNanos Time of the tick in {@link System#nanoTime()} units
+     * @return Snapshot of the universe, valid until the next one has been delivered
+     */
+    MarketSnapshot snapshot(long sequence, long timestampNanos);
+}
@@ -0,0 +1,222 @@
+package com.cryptoui.model;
+
+import com.cryptoui.market.MarketState;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.function.Consumer;
+import java.util.function.ObjDoubleConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Service class holding every trader's account.
+ * Accounts are sharded by username hash so that lookups and trades on different
+ * shards never contend, and bulk operations run one shard per core in parallel.
+ */
+public class AccountRegistry {
+    /** Longest username in UTF-8 bytes, the width of the trade journal's username field */
+    public static final int MAX_USERNAME_BYTES = 40;
+    
+    private final ConcurrentHashMap<String, User>[] shards;
+    private final int shardMask;
+    private volatile PortfolioValuator valuator;
+    
+    /**
+     * Create a registry with two shards per available processor
+     */
+    public AccountRegistry() {
+        this(Runtime.getRuntime().availableProcessors() * 2);
+    }
+    
+    /**
+     * Create a registry with a custom shard count
+     * @param shardCount Number of shards, rounded up to a power of two
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public AccountRegistry(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        int size = 1;
+        while (size < shardCount) {
+            size <<= 1;
+        }
+        shards = new ConcurrentHashMap[size];
+        for (int i = 0; i < size; i++) {
+            shards[i] = new ConcurrentHashMap<>();
+        }
+        shardMask = size - 1;
+    }
+    
+    /**
+     * Open a new account with the default balance
+     * @param username Unique username
+     * @return The new account
+     * @throws IllegalArgumentException if the username is taken or too long
+     */
+    public User createAccount(String username) {
+        checkUsername(username);
+        User user = newUser(username);
+        if (shardFor(username).putIfAbsent(username, user) != null) {
+            throw new IllegalArgumentException("Username already taken: " + username);
+        }
+        return user;
+    }
+    
+    /**
+     * Get an existing account or open it if it does not exist yet
+     * @param username Username
+     * @return The account for the username
+     * @throws IllegalArgumentException if the username is too long
+     */
+    public User getOrCreateAccount(String username) {
+        checkUsername(username);
+        return shardFor(username).computeIfAbsent(username, this::newUser);
+    }
+    
+    /**
+     * Value every account incrementally. Existing accounts are attached immediately
+     * and accounts opened later are attached on creation.
+     * @param valuator Valuator fed by the market's tick snapshots
+     */
+    public void attachValuator(PortfolioValuator valuator) {
+        this.valuator = valuator;
+        forEachAccount(valuator::attach);
+    }
+    
+    /**
+     * Get an account by username
+     * @param username Username
+     * @return The account or null if not found
+     */
+    public User getAccount(String username) {
+        return shardFor(username).get(username);
+    }
+    
+    /**
+     * Close an account
+     * @param username Username
+     * @return The removed account or null if not found
+     */
+    public User removeAccount(String username) {
+        return shardFor(username).remove(username);
+    }
+    
+    /**
+     * Get the number of accounts
+     * @return Number of open accounts
+     */
+    public long size() {
+        long total = 0;
+        for (ConcurrentHashMap<String, User> shard : shards) {
+            total += shard.mappingCount();
+        }
+        return total;
+    }
+    
+    /**
+     * Deposit cash into an account
+     * @return true if the account exists and was credited
+     */
+    public boolean deposit(String username, double amount) {
+        User user = getAccount(username);
+        if (user == null) {
+            return false;
+        }
+        user.deposit(amount);
+        return true;
+    }
+    
+    /**
+     * Buy cryptocurrency on behalf of an account
+     * @return true if the account exists and the purchase succeeded
+     */
+    public boolean buyCrypto(String username, String symbol, double amount, double price) {
+        User user = getAccount(username);
+        return user != null && user.buyCrypto(symbol, amount, price);
+    }
+    
+    /**
+     * Sell cryptocurrency on behalf of an account
+     * @return true if the account exists and the sale succeeded
+     */
+    public boolean sellCrypto(String username, String symbol, double amount, double price) {
+        User user = getAccount(username);
+        return user != null && user.sellCrypto(symbol, amount, price);
+    }
+    
+    /**
+     * Reset every account to the default balance with no holdings
+     */
+    public void resetAll() {
+        forEachAccount(User::resetAccount);
+    }
+    
+    /**
+     * Apply an action to every account, one shard per worker in parallel
+     * @param action Action to apply; must be thread-safe
+     */
+    public void forEachAccount(Consumer<User> action) {
+        IntStream.range(0, shards.length).parallel().forEach(i -> {
+            for (User user : shards[i].values()) {
+                action.accept(user);
+            }
+        });
+    }
+    
+    /**
+     * Value every account's portfolio in parallel
+     * @param marketState Market state holding the current prices
+     * @param consumer Receives each account with its portfolio value; must be thread-safe
+     */
+    public void valuePortfolios(MarketState marketState, ObjDoubleConsumer<User> consumer) {
+        forEachAccount(user -> consumer.accept(user, user.getPortfolioValue(marketState)));
+    }
+    
+    /**
+     * Calculate the combined worth (cash plus holdings) of every account
+     * @param marketState Market state holding the current prices
+     * @return Total worth across all accounts
+     */
+    public double getTotalWorth(MarketState marketState) {
+        DoubleAdder total = new DoubleAdder();
+        valuePortfolios(marketState, (user, value) -> total.add(user.getBalance() + value));
+        return total.sum();
+    }
+    
+    /**
+     * Check whether a username fits in {@link #MAX_USERNAME_BYTES} once encoded
+     */
+    public static boolean isValidUsername(String username) {
+        // A char takes one to three bytes, so most names need no encoding to check
+        int length = username.length();
+        if (length > MAX_USERNAME_BYTES) {
+            return false;
+        }
+        return length * 3 <= MAX_USERNAME_BYTES
+            || username.getBytes(StandardCharsets.UTF_8).length <= MAX_USERNAME_BYTES;
+    }
+    
+    private static void checkUsername(String username) {
+        if (!isValidUsername(username)) {
+            throw new IllegalArgumentException("Username longer than " + MAX_USERNAME_BYTES + " bytes: " + username);
+        }
+    }
+    
+    private User newUser(String username) {
+        User user = new User(username);
+        PortfolioValuator v = valuator;
+        if (v != null) {
+            v.attach(user);
+        }
+        return user;
+    }
+    
+    private ConcurrentHashMap<String, User> shardFor(String username) {
+        int h = username.hashCode();
+        // Spread the high bits so similar usernames do not cluster on one shard
+        h ^= (h >>> 16);
+        return shards[h & shardMask];
+    }
+}
@@ -0,0 +1,406 @@
+package com.cryptoui.model;
+
+import com.cryptoui.exchange.FillHandler;
+import com.cryptoui.exchange.OrderBook;
+import com.cryptoui.exchange.OrderType;
+import com.cryptoui.exchange.PrintListener;
+import com.cryptoui.market.Fixed;
+import com.cryptoui.market.MarketListener;
+import com.cryptoui.market.MarketSnapshot;
+import com.cryptoui.market.MarketState;
+import com.cryptoui.market.SymbolScale;
+import com.cryptoui.model.Transaction.TransactionType;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Simulated exchange with one {@link OrderBook} per listed symbol.
+ * <p>
+ * Orders settle against {@link User} accounts. Cash for a buy and coins for a sell are
+ * taken from the account when the order is submitted and held until the order fills or
+ * is cancelled, so a fill can never fail. A built-in market maker keeps a ladder of
+ * quotes around the simulated price of every traded symbol. A symbol's book is created
+ * and quoted when it is first used, and from then on re-quoted on each tick that moves
+ * its price.
+ * <p>
+ * Prices follow the book: once an account's order trades, the symbol's price becomes
+ * the last trade price, and between trades the market maker keeps the mid at the
+ * simulated price. Each book is locked independently, so symbols trade in parallel.
+ * <p>
+ * Amounts and prices are rounded to the symbol's {@link SymbolScale} on entry, so every
+ * reservation, fill and refund is an exact number of {@link Fixed} cash units.
+ */
+public class Exchange implements MarketListener {
+    /** Returned by {@link #submitOrder} when the account cannot cover the order */
+    public static final long REJECTED = -1;
+    
+    private static final int MARKET_MAKER = 0;
+    private static final int QUOTE_LEVELS = 5;
+    private static final double QUOTE_SPREAD = 0.001;     // between the best bid and ask
+    private static final double QUOTE_STEP = 0.0005;      // between consecutive levels
+    private static final double QUOTE_NOTIONAL = 25_000;  // per level
+    
+    private final MarketState marketState;
+    private final AtomicReferenceArray<Venue> venues;
+    private final List<TradeListener> listeners = new CopyOnWriteArrayList<>();
+    private final List<PrintListener> printListeners = new CopyOnWriteArrayList<>();
+    
+    // Owner ids used in the books; 0 is the market maker
+    private final Map<User, Integer> ownerIds = new ConcurrentHashMap<>();
+    private volatile User[] owners = new User[1];
+    
+    public Exchange(MarketState marketState) {
+        this.marketState = marketState;
+        this.venues = new AtomicReferenceArray<>(marketState.capacity());
+    }
+    
+    /**
+     * Submit an order for an account
+     * @param user Account placing the order
+     * @param symbol Cryptocurrency symbol
+     * @param side Buy or sell
+     * @param type Order type
+     * @param price Limit price per unit, rounded to the symbol's tick; ignored for market orders
+     * @param amount Amount to trade, rounded to the symbol's lot
+     * @return Id of the resting remainder, {@link OrderBook#NO_ORDER} if nothing rests,
+     *         or {@link #REJECTED} if the account cannot cover the order
+     * @throws IllegalArgumentException if the symbol is not listed or the amount or price is invalid
+     * @throws ArithmeticException if the amount or price is not finite, or they or their
+     *         product are too large
+     */
+    public long submitOrder(User user, String symbol, TransactionType side, OrderType type,
+                            double price, double amount) {
+        return placeOrder(user, symbol, side, type, price, amount).getOrderId();
+    }
+    
+    /**
+     * Submit an order for an account and report what it filled on submission.
+     * Parameters are as for {@link #submitOrder}.
+     * @throws IllegalArgumentException if the symbol is not listed or the amount or price is invalid
+     * @throws ArithmeticException if the amount or price is not finite, or they or their
+     *         product are too large
+     */
+    public OrderResult placeOrder(User user, String symbol, TransactionType side, OrderType type,
+                                  double price, double amount) {
+        Venue venue = venue(symbol);
+        long quantity = venue.scale.toAmount(amount);
+        long limit = type == OrderType.MARKET ? 0 : venue.scale.toPrice(price);
+        checkOrder(type, quantity, limit);
+        
+        int owner = ownerOf(user);
+        boolean buy = side == TransactionType.BUY;
+        
+        synchronized (venue) {
+            OrderBook book = venue.book;
+            venue.ensureQuoted();
+            
+            // Hold the worst-case cost of a buy, or the coins of a sell
+            long reserved;
+            if (buy) {
+                reserved = type == OrderType.MARKET
+                    ? book.quoteCost(true, quantity, Long.MAX_VALUE)
+                    : Fixed.multiply(quantity, limit);
+                if (!user.debitCash(reserved)) {
+                    return new OrderResult(REJECTED, 0, 0);
+                }
+            } else {
+                reserved = quantity;
+                if (!user.debitCrypto(symbol, reserved)) {
+                    return new OrderResult(REJECTED, 0, 0);
+                }
+            }
+            
+            venue.takerCost = 0;
+            venue.takerFilled = 0;
+            long orderId = book.submit(owner, buy, type, limit, quantity);
+            long resting = orderId == OrderBook.NO_ORDER ? 0 : book.getOrderQuantity(orderId);
+            
+            // Return whatever is neither spent nor still committed to the resting order
+            if (buy) {
+                long unused = reserved - venue.takerCost - Fixed.multiply(resting, limit);
+                if (unused > 0) {
+                    user.creditCash(unused);
+                }
+            } else {
+                long unfilled = quantity - venue.takerFilled - resting;
+                if (unfilled > 0) {
+                    user.creditCrypto(symbol, unfilled);
+                }
+            }
+            
+            if (venue.takerFilled > 0) {
+                marketState.setPrice(venue.symbolId, OrderBook.toDouble(book.getLastTradePrice()));
+            }
+            return new OrderResult(orderId, Fixed.toDouble(venue.takerFilled), Fixed.toDouble(venue.takerCost));
+        }
+    }
+    
+    /**
+     * Check an order the way {@link #submitOrder} would, without placing it
+     * @throws IllegalArgumentException if the symbol is not listed or the amount or price is invalid
+     * @throws ArithmeticException if the amount or price is not finite, or they or their
+     *         product are too large
+     */
+    public void validateOrder(String symbol, OrderType type, double price, double amount) {
+        SymbolScale scale = marketState.getScale(symbolId(symbol));
+        checkOrder(type, scale.toAmount(amount), type == OrderType.MARKET ? 0 : scale.toPrice(price));
+    }
+    
+    /**
+     * Check whether a symbol is listed, and so can be traded and cancelled in
+     */
+    public boolean isListed(String symbol) {
+        return marketState.idOf(symbol) >= 0;
+    }
+    
+    /**
+     * Cancel a resting order and return what it held to the account
+     * @param user Account that placed the order
+     * @param symbol Cryptocurrency symbol
+     * @param orderId Id returned by {@link #submitOrder}
+     * @return false if the order is no longer open or belongs to another account
+     */
+    public boolean cancelOrder(User user, String symbol, long orderId) {
+        Venue venue = venue(symbol);
+        Integer owner = ownerIds.get(user);
+        
+        synchronized (venue) {
+            OrderBook book = venue.book;
+            if (owner == null || !book.isLive(orderId) || book.getOrderOwner(orderId) != owner) {
+                return false;
+            }
+            boolean buy = book.isBuyOrder(orderId);
+            long price = book.getOrderPrice(orderId);
+            long remaining = book.cancel(orderId);
+            
+            if (buy) {
+                user.creditCash(Fixed.multiply(remaining, price));
+            } else {
+                user.creditCrypto(symbol, remaining);
+            }
+            return true;
+        }
+    }
+    
+    /**
+     * Re-quote the traded symbols whose simulated price moved. Symbols nobody has
+     * traded yet have no book and are quoted on first use instead.
+     */
+    @Override
+    public void onSnapshot(MarketSnapshot snapshot) {
+        for (int id = 0; id < snapshot.size(); id++) {
+            Venue venue = venues.get(id);
+            if (venue == null) {
+                continue;
+            }
+            double price = snapshot.getPrice(id);
+            synchronized (venue) {
+                if (!venue.quoted || price != venue.quotedPrice) {
+                    venue.requote(price);
+                }
+            }
+        }
+    }
+    
+    // Top of book by symbol, as prices per unit; 0 when the side is empty
+    public double getBestBid(String symbol) {
+        Venue venue = venue(symbol);
+        synchronized (venue) {
+            venue.ensureQuoted();
+            return OrderBook.toDouble(venue.book.getBestBid());
+        }
+    }
+    
+    public double getBestAsk(String symbol) {
+        Venue venue = venue(symbol);
+        synchronized (venue) {
+            venue.ensureQuoted();
+            return OrderBook.toDouble(venue.book.getBestAsk());
+        }
+    }
+    
+    public double getLastTradePrice(String symbol) {
+        Venue venue = venue(symbol);
+        synchronized (venue) {
+            return OrderBook.toDouble(venue.book.getLastTradePrice());
+        }
+    }
+    
+    public void addTradeListener(TradeListener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeTradeListener(TradeListener listener) {
+        listeners.remove(listener);
+    }
+    
+    /**
+     * Subscribe to every trade on every book, including those between other accounts
+     */
+    public void addPrintListener(PrintListener listener) {
+        printListeners.add(listener);
+    }
+    
+    public void removePrintListener(PrintListener listener) {
+        printListeners.remove(listener);
+    }
+    
+    private static void checkOrder(OrderType type, long quantity, long limit) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Order amount must be at least one lot");
+        }
+        if (type != OrderType.MARKET && limit <= 0) {
+            throw new IllegalArgumentException("Limit price must be at least one tick");
+        }
+        // The order's total must fit in a long, or reserving and settling it would overflow
+        Fixed.multiply(quantity, limit);
+    }
+    
+    private Venue venue(String symbol) {
+        return venue(symbolId(symbol));
+    }
+    
+    private int symbolId(String symbol) {
+        int id = marketState.idOf(symbol);
+        if (id < 0) {
+            throw new IllegalArgumentException("Symbol is not listed: " + symbol);
+        }
+        return id;
+    }
+    
+    private Venue venue(int id) {
+        Venue venue = venues.get(id);
+        if (venue == null) {
+            venues.compareAndSet(id, null, new Venue(id, marketState.getSymbol(id), marketState.getScale(id)));
+            venue = venues.get(id);
+        }
+        return venue;
+    }
+    
+    private int ownerOf(User user) {
+        Integer owner = ownerIds.get(user);
+        return owner != null ? owner : register(user);
+    }
+    
+    private synchronized int register(User user) {
+        Integer owner = ownerIds.get(user);
+        if (owner != null) {
+            return owner;
+        }
+        User[] current = owners;
+        int id = current.length;
+        User[] grown = Arrays.copyOf(current, id + 1);
+        grown[id] = user;
+        owners = grown;
+        ownerIds.put(user, id);
+        return id;
+    }
+    
+    /**
+     * Book of one symbol with its settlement state; guarded by its own monitor
+     */
+    private final class Venue implements FillHandler {
+        final int symbolId;
+        final String symbol;
+        final SymbolScale scale;
+        final OrderBook book = new OrderBook(this);
+        final long[] quoteIds = new long[2 * QUOTE_LEVELS];
+        boolean quoted;
+        double quotedPrice;
+        
+        // Cost and quantity filled so far by the order being matched
+        long takerCost;
+        long takerFilled;
+        
+        Venue(int symbolId, String symbol, SymbolScale scale) {
+            this.symbolId = symbolId;
+            this.symbol = symbol;
+            this.scale = scale;
+        }
+        
+        void ensureQuoted() {
+            if (!quoted) {
+                requote(marketState.getPrice(symbolId));
+            }
+        }
+        
+        /**
+         * Replace the market maker's ladder with one centred on a price
+         */
+        void requote(double price) {
+            for (int i = 0; i < quoteIds.length; i++) {
+                book.cancel(quoteIds[i]);
+                quoteIds[i] = OrderBook.NO_ORDER;
+            }
+            quoted = true;
+            quotedPrice = price;
+            
+            if (!(price > 0)) {
+                return;
+            }
+            long size = scale.toAmount(QUOTE_NOTIONAL / price);
+            if (size <= 0) {
+                return;
+            }
+            for (int level = 0; level < QUOTE_LEVELS; level++) {
+                double offset = QUOTE_SPREAD / 2 + level * QUOTE_STEP;
+                long bid = scale.toPrice(price * (1 - offset));
+                long ask = scale.toPrice(price * (1 + offset));
+                if (bid > 0) {
+                    quoteIds[2 * level] = book.submit(MARKET_MAKER, true, OrderType.LIMIT, bid, size);
+                }
+                quoteIds[2 * level + 1] = book.submit(MARKET_MAKER, false, OrderType.LIMIT, ask, size);
+            }
+        }
+        
+        @Override
+        public void onFill(long makerOrderId, int makerOwner, int takerOwner, boolean takerBuys,
+                           long price, long quantity) {
+            long cost = Fixed.multiply(quantity, price);
+            takerCost += cost;
+            takerFilled += quantity;
+            
+            settle(makerOwner, !takerBuys, quantity, price, cost);
+            settle(takerOwner, takerBuys, quantity, price, cost);
+            
+            for (PrintListener listener : printListeners) {
+                try {
+                    listener.onPrint(symbolId, price, quantity);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+        
+        /**
+         * Deliver one side of a fill; the other leg was taken when the order was submitted
+         */
+        private void settle(int owner, boolean buy, long quantity, long price, long cost) {
+            if (owner == MARKET_MAKER) {
+                return;
+            }
+            User user = owners[owner];
+            if (buy) {
+                user.creditCrypto(symbol, quantity);
+            } else {
+                user.creditCash(cost);
+            }
+            
+            TransactionType side = buy ? TransactionType.BUY : TransactionType.SELL;
+            double amount = Fixed.toDouble(quantity);
+            double fillPrice = Fixed.toDouble(price);
+            for (TradeListener listener : listeners) {
+                try {
+                    listener.onTrade(user, symbol, side, amount, fillPrice);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+}
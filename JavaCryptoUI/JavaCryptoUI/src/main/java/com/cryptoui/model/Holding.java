@@ -0,0 +1,31 @@
+package com.cryptoui.model;
+
+import com.cryptoui.market.Fixed;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One user's position in one symbol.
+ * The amount is in {@link Fixed} units and updated with compare-and-set; the marked
+ * units are the quantity the {@link PortfolioValuator} has already priced in, and the
+ * marked value what they were worth at the last mark, both in fixed-point units.
+ */
+class Holding {
+    final User owner;
+    final String symbol;
+    final AtomicLong amount = new AtomicLong();
+    
+    // Guarded by the valuator's lock for this symbol
+    long markedUnits;
+    long markedValue;
+    boolean indexed;
+    
+    Holding(User owner, String symbol) {
+        this.owner = owner;
+        this.symbol = symbol;
+    }
+    
+    double getAmount() {
+        return Fixed.toDouble(amount.get());
+    }
+}
@@ -1,128 +1,245 @@
-package com.cryptoui.model;
-
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableMap;
-import java.util.Timer;
-import java.util.TimerTask;
-
-/**
- * Service class to manage cryptocurrency market data with JavaFX Observable collections
- */
-public class MarketService {
-    private final ObservableMap<String, Cryptocurrency> marketData;
-    private Timer updateTimer;
-    private static final int UPDATE_INTERVAL = 3000; // 3 seconds
-    
-    public MarketService() {
-        marketData = FXCollections.observableHashMap();
-        initializeMarketData();
-    }
-    
-    /**
-     * Initialize market data with some popular cryptocurrencies
-     */
-    private void initializeMarketData() {
-        // Bitcoin
-        marketData.put("BTC", new Cryptocurrency(
-            "BTC",
-            "Bitcoin",
-            "The original cryptocurrency, created by Satoshi Nakamoto in 2009",
-            42150.75,
-            1.2,
-            786000000000.0
-        ));
-        
-        // Ethereum
-        marketData.put("ETH", new Cryptocurrency(
-            "ETH", 
-            "Ethereum",
-            "Smart contract platform enabling decentralized applications",
-            2250.50,
-            -0.8,
-            268000000000.0
-        ));
-        
-        // Cardano
-        marketData.put("ADA", new Cryptocurrency(
-            "ADA",
-            "Cardano",
-            "Proof-of-stake blockchain platform with a focus on sustainability",
-            0.42,
-            0.3,
-            14800000000.0
-        ));
-        
-        // Solana
-        marketData.put("SOL", new Cryptocurrency(
-            "SOL",
-            "Solana",
-            "High-performance blockchain supporting smart contracts and DeFi",
-            110.85,
-            2.1,
-            48300000000.0
-        ));
-        
-        // Dogecoin
-        marketData.put("DOGE", new Cryptocurrency(
-            "DOGE",
-            "Dogecoin",
-            "Originally created as a joke, now one of the most popular memecoins",
-            0.089,
-            -1.5,
-            12500000000.0
-        ));
-    }
-    
-    /**
-     * Start periodic price updates
-     */
-    public void startMarketUpdates() {
-        if (updateTimer != null) {
-            stopMarketUpdates();
-        }
-        
-        updateTimer = new Timer(true);
-        updateTimer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                updatePrices();
-            }
-        }, UPDATE_INTERVAL, UPDATE_INTERVAL);
-    }
-    
-    /**
-     * Stop periodic price updates
-     */
-    public void stopMarketUpdates() {
-        if (updateTimer != null) {
-            updateTimer.cancel();
-            updateTimer = null;
-        }
-    }
-    
-    /**
-     * Update prices for all cryptocurrencies
-     */
-    private void updatePrices() {
-        for (Cryptocurrency crypto : marketData.values()) {
-            crypto.updatePrice();
-        }
-    }
-    
-    /**
-     * Get the current market data
-     * @return ObservableMap of crypto symbols to their data
-     */
-    public ObservableMap<String, Cryptocurrency> getMarketData() {
-        return marketData;
-    }
-    
-    /**
-     * Get cryptocurrency by symbol
-     * @param symbol Cryptocurrency symbol
-     * @return Cryptocurrency object or null if not found
-     */
-    public Cryptocurrency getCryptocurrency(String symbol) {
-        return marketData.get(symbol);
-    }
+package com.cryptoui.model;
+
+import com.cryptoui.market.MarketListener;
+import com.cryptoui.market.MarketState;
+import com.cryptoui.market.TickEngine;
+import com.cryptoui.replay.MarketReplay;
+import com.cryptoui.replay.TickSource;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableMap;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service class to manage cryptocurrency market data with JavaFX Observable collections
+ */
+public class MarketService {
+    private final ObservableMap<String, Cryptocurrency> marketData;
+    private final MarketState marketState;
+    private final TickEngine tickEngine;
+    private Exchange exchange;
+    private MarketReplay replay;
+    private volatile Executor marketDataExecutor = Runnable::run;
+    
+    private static final int UPDATE_INTERVAL = 3000; // 3 seconds
+    private static final int DEFAULT_CAPACITY = 1024;
+    
+    public MarketService() {
+        this(1, TimeUnit.MILLISECONDS.toNanos(UPDATE_INTERVAL), DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Create a market service with a custom tick configuration
+     * @param workers Number of threads ticking the universe in parallel
+     * @param tickIntervalNanos Time between ticks in nanoseconds
+     * @param capacity Maximum number of symbols that can be listed
+     */
+    public MarketService(int workers, long tickIntervalNanos, int capacity) {
+        marketData = FXCollections.observableHashMap();
+        marketState = new MarketState(capacity);
+        tickEngine = new TickEngine(marketState, workers, tickIntervalNanos);
+        initializeMarketData();
+    }
+    
+    /**
+     * Initialize market data with some popular cryptocurrencies
+     */
+    private void initializeMarketData() {
+        // Bitcoin
+        addCryptocurrency(
+            "BTC",
+            "Bitcoin",
+            "The original cryptocurrency, created by Satoshi Nakamoto in 2009",
+            42150.75,
+            1.2,
+            786000000000.0
+        );
+        
+        // Ethereum
+        addCryptocurrency(
+            "ETH", 
+            "Ethereum",
+            "Smart contract platform enabling decentralized applications",
+            2250.50,
+            -0.8,
+            268000000000.0
+        );
+        
+        // Cardano
+        addCryptocurrency(
+            "ADA",
+            "Cardano",
+            "Proof-of-stake blockchain platform with a focus on sustainability",
+            0.42,
+            0.3,
+            14800000000.0
+        );
+        
+        // Solana
+        addCryptocurrency(
+            "SOL",
+            "Solana",
+            "High-performance blockchain supporting smart contracts and DeFi",
+            110.85,
+            2.1,
+            48300000000.0
+        );
+        
+        // Dogecoin
+        addCryptocurrency(
+            "DOGE",
+            "Dogecoin",
+            "Originally created as a joke, now one of the most popular memecoins",
+            0.089,
+            -1.5,
+            12500000000.0
+        );
+    }
+    
+    /**
+     * List a cryptocurrency in the simulated universe.
+     * Listing mutates the observable market map, so once a UI is attached this
+     * must be called on the JavaFX Application Thread. Price updates never touch the map.
+     * @return View over the new row in the market state
+     * @throws IllegalArgumentException if the symbol is already listed
+     */
+    public synchronized Cryptocurrency addCryptocurrency(String symbol, String name, String description,
+                                                         double price, double change24h, double marketCap) {
+        int id = marketState.add(symbol, name, description, price, change24h, marketCap);
+        Cryptocurrency crypto = new Cryptocurrency(marketState, id);
+        marketData.put(symbol, crypto);
+        return crypto;
+    }
+    
+    /**
+     * List a symbol first seen in a recording, named after itself, at its first recorded
+     * price. Safe to call from the replay thread: the symbol ticks at once, and its
+     * {@link Cryptocurrency} is put into the market data on the market data executor.
+     * Usable as the {@link com.cryptoui.replay.SymbolListing} of a replay.
+     * @return Symbol id, or -1 if the symbol is new and the market is full
+     */
+    public synchronized int listRecordedSymbol(String symbol, double price) {
+        int id;
+        synchronized (marketState) {
+            // Listing takes the same lock, so sources listing into the state directly cannot interleave
+            id = marketState.idOf(symbol);
+            if (id >= 0 || marketState.size() == marketState.capacity()) {
+                return id;
+            }
+            id = marketState.add(symbol, symbol, "", price, 0, 0);
+        }
+        Cryptocurrency crypto = new Cryptocurrency(marketState, id);
+        marketDataExecutor.execute(() -> marketData.put(symbol, crypto));
+        return id;
+    }
+    
+    /**
+     * Set where symbols listed from a recording are added to the market data
+     * @param executor Runs each change to the market data map, e.g. {@code Platform::runLater}
+     *                 once a UI observes the map; runs them directly by default
+     */
+    public void setMarketDataExecutor(Executor executor) {
+        this.marketDataExecutor = executor;
+    }
+    
+    /**
+     * Start periodic price updates
+     */
+    public void startMarketUpdates() {
+        tickEngine.start();
+    }
+    
+    /**
+     * Stop periodic price updates and any running replay
+     */
+    public void stopMarketUpdates() {
+        tickEngine.stop();
+        
+        MarketReplay current;
+        synchronized (this) {
+            current = replay;
+            replay = null;
+        }
+        if (current != null) {
+            current.stop();
+        }
+    }
+    
+    /**
+     * Drive prices from recorded ticks instead of the simulation.
+     * Stops the simulated updates; snapshots go to the same market listeners.
+     * @param source Recorded ticks, resolved with {@link #listRecordedSymbol} or against
+     *               {@link #getMarketState()}; closed when the replay ends
+     * @param speed Multiple of real time, or {@link MarketReplay#MAX_SPEED}
+     * @return The running replay
+     */
+    public MarketReplay startReplay(TickSource source, double speed) {
+        stopMarketUpdates();
+        MarketReplay started = new MarketReplay(marketState, source, tickEngine::publishSnapshot);
+        started.setSpeed(speed);
+        synchronized (this) {
+            replay = started;
+        }
+        started.start();
+        return started;
+    }
+    
+    /**
+     * Subscribe to the snapshots published after every tick
+     * @param listener Listener invoked on the tick driver thread
+     */
+    public void addMarketListener(MarketListener listener) {
+        tickEngine.addListener(listener);
+    }
+    
+    public void removeMarketListener(MarketListener listener) {
+        tickEngine.removeListener(listener);
+    }
+    
+    /**
+     * Get the primitive store backing every cryptocurrency view
+     * @return Market state of this service
+     */
+    public MarketState getMarketState() {
+        return marketState;
+    }
+    
+    /**
+     * Get the engine driving price updates
+     * @return Tick engine for this market
+     */
+    public TickEngine getTickEngine() {
+        return tickEngine;
+    }
+    
+    /**
+     * Get the exchange trading this market, creating it on first use.
+     * Once created, its market maker re-quotes every traded book whose price moved after each tick.
+     * @return Exchange for this market
+     */
+    public synchronized Exchange getExchange() {
+        if (exchange == null) {
+            exchange = new Exchange(marketState);
+            tickEngine.addListener(exchange);
+        }
+        return exchange;
+    }
+    
+    /**
+     * Get the current market data
+     * @return ObservableMap of crypto symbols to their data
+     */
+    public ObservableMap<String, Cryptocurrency> getMarketData() {
+        return marketData;
+    }
+    
+    /**
+     * Get cryptocurrency by symbol
+     * @param symbol Cryptocurrency symbol
+     * @return Cryptocurrency object or null if not found
+     */
+    public Cryptocurrency getCryptocurrency(String symbol) {
+        return marketData.get(symbol);
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.cryptoui.model;
+
+import com.cryptoui.exchange.OrderBook;
+
+/**
+ * Outcome of an order placed with {@link Exchange#placeOrder}: what rests on the book
+ * and what the order itself filled when it was submitted.
+ */
+public final class OrderResult {
+    private final long orderId;
+    private final double filled;
+    private final double cost;
+    
+    OrderResult(long orderId, double filled, double cost) {
+        this.orderId = orderId;
+        this.filled = filled;
+        this.cost = cost;
+    }
+    
+    /**
+     * Get the id of the resting remainder, {@link OrderBook#NO_ORDER} if nothing rests,
+     * or {@link Exchange#REJECTED} if the account could not cover the order
+     */
+    public long getOrderId() {
+        return orderId;
+    }
+    
+    public boolean isRejected() {
+        return orderId == Exchange.REJECTED;
+    }
+    
+    /**
+     * Get the amount filled on submission, not counting later fills of a resting remainder
+     */
+    public double getFilled() {
+        return filled;
+    }
+    
+    /**
+     * Get the cash paid or received for the amount filled on submission
+     */
+    public double getCost() {
+        return cost;
+    }
+}
@@ -0,0 +1,148 @@
+package com.cryptoui.model;
+
+import com.cryptoui.market.Fixed;
+import com.cryptoui.market.MarketListener;
+import com.cryptoui.market.MarketSnapshot;
+import com.cryptoui.market.MarketState;
+
+import java.util.Arrays;
+
+/**
+ * Keeps every attached user's portfolio value up to date incrementally.
+ * When a symbol's price moves or one of its positions changes, only the holders of
+ * that symbol are re-valued, so reading a user's portfolio value is O(1) instead of a
+ * walk over all holdings.
+ * <p>
+ * Values are {@link Fixed} units. Each holding remembers the value it last contributed
+ * and the user's total is adjusted by the difference to its new quantity * mark price,
+ * so however many updates are applied the total equals a full valuation exactly.
+ * <p>
+ * Each symbol has its own lock, held while its holders are re-marked or one of its
+ * positions changes.
+ */
+public class PortfolioValuator implements MarketListener {
+    private final MarketState marketState;
+    private final Object[] locks;
+    
+    // Per symbol id, guarded by locks[id]
+    private final long[] marks;
+    private final Holding[][] holders;
+    private final int[] holderCounts;
+    
+    public PortfolioValuator(MarketState marketState) {
+        int capacity = marketState.capacity();
+        this.marketState = marketState;
+        this.locks = new Object[capacity];
+        this.marks = new long[capacity];
+        this.holders = new Holding[capacity][];
+        this.holderCounts = new int[capacity];
+        for (int id = 0; id < capacity; id++) {
+            locks[id] = new Object();
+            holders[id] = new Holding[0];
+        }
+    }
+    
+    /**
+     * Start valuing a user's portfolio. Should be called before the user trades.
+     * @param user User to track
+     */
+    public void attach(User user) {
+        user.attachValuator(this);
+    }
+    
+    /**
+     * Re-mark every symbol whose price moved in this tick
+     */
+    @Override
+    public void onSnapshot(MarketSnapshot snapshot) {
+        for (int id = 0; id < snapshot.size(); id++) {
+            long price = Fixed.of(snapshot.getPrice(id));
+            synchronized (locks[id]) {
+                if (marks[id] != price) {
+                    markLocked(id, price);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Re-mark a single symbol, for callers that move prices without publishing
+     * snapshots, such as backtests
+     * @param id Interned symbol id
+     * @param price New mark price
+     */
+    public void mark(int id, double price) {
+        long units = Fixed.of(price);
+        synchronized (locks[id]) {
+            if (marks[id] != units) {
+                markLocked(id, units);
+            }
+        }
+    }
+    
+    /**
+     * Apply a change in quantity of one position; called by {@link User} after the
+     * holding itself has been updated
+     * @param quantityDelta Change in fixed-point units
+     */
+    void onTrade(Holding holding, long quantityDelta) {
+        int id = marketState.idOf(holding.symbol);
+        if (id < 0) {
+            // Unlisted symbols carry no value
+            return;
+        }
+        
+        synchronized (locks[id]) {
+            if (marks[id] == 0) {
+                // First position in this symbol since startup; mark it at the live price
+                markLocked(id, marketState.getPriceFixed(id));
+            }
+            if (!holding.indexed && quantityDelta > 0) {
+                addHolderLocked(id, holding);
+            }
+            holding.markedUnits += quantityDelta;
+            revalueLocked(holding, marks[id]);
+        }
+    }
+    
+    private void markLocked(int id, long price) {
+        Holding[] symbolHolders = holders[id];
+        int count = holderCounts[id];
+        int live = 0;
+        
+        for (int i = 0; i < count; i++) {
+            Holding holding = symbolHolders[i];
+            if (holding.markedUnits > 0) {
+                revalueLocked(holding, price);
+                // Compact closed positions out of the holder list as we go
+                symbolHolders[live++] = holding;
+            } else {
+                holding.indexed = false;
+            }
+        }
+        Arrays.fill(symbolHolders, live, count, null);
+        holderCounts[id] = live;
+        marks[id] = price;
+    }
+    
+    /**
+     * Move a holding's contribution to its marked units at a price
+     */
+    private static void revalueLocked(Holding holding, long price) {
+        long value = Fixed.multiply(holding.markedUnits, price);
+        holding.owner.addPortfolioValue(value - holding.markedValue);
+        holding.markedValue = value;
+    }
+    
+    private void addHolderLocked(int id, Holding holding) {
+        Holding[] symbolHolders = holders[id];
+        int count = holderCounts[id];
+        if (count == symbolHolders.length) {
+            symbolHolders = Arrays.copyOf(symbolHolders, Math.max(4, count * 2));
+            holders[id] = symbolHolders;
+        }
+        symbolHolders[count] = holding;
+        holderCounts[id] = count + 1;
+        holding.indexed = true;
+    }
+}
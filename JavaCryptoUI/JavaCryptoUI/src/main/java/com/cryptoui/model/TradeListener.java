@@ -0,0 +1,21 @@
+package com.cryptoui.model;
+
+import com.cryptoui.model.Transaction.TransactionType;
+
+/**
+ * Receives the fills settled by an {@link Exchange} for user accounts.
+ * Called on the thread that matched the order while the symbol's book is locked,
+ * so implementations should hand slow work off to another thread.
+ */
+public interface TradeListener {
+    
+    /**
+     * Handle one settled fill
+     * @param user Account that traded
+     * @param symbol Cryptocurrency symbol
+     * @param side Whether the account bought or sold
+     * @param amount Filled amount
+     * @param price Fill price per unit
+     */
+    void onTrade(User user, String symbol, TransactionType side, double amount, double price);
+}
@@ -1,152 +1,337 @@
-package com.cryptoui.model;
-
-import javafx.beans.property.DoubleProperty;
-import javafx.beans.property.SimpleDoubleProperty;
-import javafx.beans.property.SimpleStringProperty;
-import javafx.beans.property.StringProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableMap;
-
-import java.util.HashMap;
-import java.util.Map;
-
-/**
- * Model class for a user with JavaFX properties for data binding
- */
-public class User {
-    private final StringProperty username;
-    private final DoubleProperty balance;
-    private final ObservableMap<String, Double> portfolio;
-    
-    private static final double DEFAULT_BALANCE = 10000.0;
-    
-    public User(String username) {
-        this.username = new SimpleStringProperty(username);
-        this.balance = new SimpleDoubleProperty(DEFAULT_BALANCE);
-        this.portfolio = FXCollections.observableHashMap();
-    }
-    
-    /**
-     * Buy cryptocurrency
-     * @param symbol Cryptocurrency symbol
-     * @param amount Amount to buy
-     * @param price Current price per unit
-     * @return true if purchase was successful, false otherwise
-     */
-    public boolean buyCrypto(String symbol, double amount, double price) {
-        double totalCost = amount * price;
-        
-        // Check if user has enough balance
-        if (getBalance() < totalCost) {
-            return false;
-        }
-        
-        // Update balance
-        setBalance(getBalance() - totalCost);
-        
-        // Update portfolio
-        if (portfolio.containsKey(symbol)) {
-            portfolio.put(symbol, portfolio.get(symbol) + amount);
-        } else {
-            portfolio.put(symbol, amount);
-        }
-        
-        return true;
-    }
-    
-    /**
-     * Sell cryptocurrency
-     * @param symbol Cryptocurrency symbol
-     * @param amount Amount to sell
-     * @param price Current price per unit
-     * @return true if sale was successful, false otherwise
-     */
-    public boolean sellCrypto(String symbol, double amount, double price) {
-        // Check if user has the cryptocurrency and enough amount
-        if (!portfolio.containsKey(symbol) || portfolio.get(symbol) < amount) {
-            return false;
-        }
-        
-        // Update balance
-        double saleValue = amount * price;
-        setBalance(getBalance() + saleValue);
-        
-        // Update portfolio
-        double newAmount = portfolio.get(symbol) - amount;
-        if (newAmount <= 0) {
-            portfolio.remove(symbol);
-        } else {
-            portfolio.put(symbol, newAmount);
-        }
-        
-        return true;
-    }
-    
-    /**
-     * Get the amount of a specific cryptocurrency owned
-     * @param symbol Cryptocurrency symbol
-     * @return Amount owned or 0 if none
-     */
-    public double getCryptoAmount(String symbol) {
-        return portfolio.getOrDefault(symbol, 0.0);
-    }
-    
-    /**
-     * Reset user's account (for simulation purposes)
-     */
-    public void resetAccount() {
-        setBalance(DEFAULT_BALANCE);
-        portfolio.clear();
-    }
-    
-    // JavaFX property getters
-    public StringProperty usernameProperty() {
-        return username;
-    }
-    
-    public DoubleProperty balanceProperty() {
-        return balance;
-    }
-    
-    public ObservableMap<String, Double> getPortfolio() {
-        return portfolio;
-    }
-    
-    // Standard getters and setters
-    public String getUsername() {
-        return username.get();
-    }
-    
-    public void setUsername(String username) {
-        this.username.set(username);
-    }
-    
-    public double getBalance() {
-        return balance.get();
-    }
-    
-    public void setBalance(double balance) {
-        this.balance.set(balance);
-    }
-    
-    /**
-     * Calculate total portfolio value
-     * @param cryptoMap Map of cryptocurrency symbols to their data
-     * @return Total value of the portfolio
-     */
-    public double getPortfolioValue(Map<String, Cryptocurrency> cryptoMap) {
-        double totalValue = 0.0;
-        
-        for (Map.Entry<String, Double> entry : portfolio.entrySet()) {
-            String symbol = entry.getKey();
-            double amount = entry.getValue();
-            
-            if (cryptoMap.containsKey(symbol)) {
-                double price = cryptoMap.get(symbol).getPrice();
-                totalValue += amount * price;
-            }
-        }
-        
-        return totalValue;
-    }
-} 
\ No newline at end of file
+package com.cryptoui.model;
+
+import com.cryptoui.market.Fixed;
+import com.cryptoui.market.MarketState;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Model class for a user's trading account.
+ * Balance and holdings are {@link Fixed} units updated with compare-and-set, so orders
+ * may be submitted from any number of threads without overdrawing or double-selling,
+ * and the balance always equals the deposits plus the exact sum of the trades.
+ * The double methods convert at the boundary; the unit methods do not round at all.
+ */
+public class User {
+    private final StringProperty username;
+    
+    // Cash balance in fixed-point units
+    private final AtomicLong balance;
+    
+    // Amount held per symbol; entries are zeroed rather than removed
+    // so that a concurrent buy can never add to a holding that was just dropped
+    private final ConcurrentHashMap<String, Holding> holdings;
+    
+    // Portfolio value in fixed-point units, maintained by the attached valuator
+    private final AtomicLong portfolioValue;
+    private volatile PortfolioValuator valuator;
+    
+    private static final long DEFAULT_BALANCE = Fixed.of(10000.0);
+    
+    public User(String username) {
+        this.username = new SimpleStringProperty(username);
+        this.balance = new AtomicLong(DEFAULT_BALANCE);
+        this.holdings = new ConcurrentHashMap<>();
+        this.portfolioValue = new AtomicLong();
+    }
+    
+    /**
+     * Buy cryptocurrency
+     * @param symbol Cryptocurrency symbol
+     * @param amount Amount to buy
+     * @param price Current price per unit
+     * @return true if purchase was successful, false otherwise
+     */
+    public boolean buyCrypto(String symbol, double amount, double price) {
+        return buyUnits(symbol, Fixed.of(amount), Fixed.of(price));
+    }
+    
+    /**
+     * Buy cryptocurrency at a fixed-point amount and price.
+     * The cost is rounded up to the unit if the two do not respect a symbol scale.
+     * @return true if purchase was successful, false otherwise
+     */
+    public boolean buyUnits(String symbol, long amount, long price) {
+        // Debit the balance first; the CAS fails the order if funds ran out meanwhile
+        if (!debitCash(Fixed.multiplyUp(amount, price))) {
+            return false;
+        }
+        creditCrypto(symbol, amount);
+        return true;
+    }
+    
+    /**
+     * Sell cryptocurrency
+     * @param symbol Cryptocurrency symbol
+     * @param amount Amount to sell
+     * @param price Current price per unit
+     * @return true if sale was successful, false otherwise
+     */
+    public boolean sellCrypto(String symbol, double amount, double price) {
+        return sellUnits(symbol, Fixed.of(amount), Fixed.of(price));
+    }
+    
+    /**
+     * Sell cryptocurrency at a fixed-point amount and price.
+     * The proceeds are rounded down to the unit if the two do not respect a symbol scale.
+     * @return true if sale was successful, false otherwise
+     */
+    public boolean sellUnits(String symbol, long amount, long price) {
+        if (!debitCrypto(symbol, amount)) {
+            return false;
+        }
+        creditCash(Fixed.multiply(amount, price));
+        return true;
+    }
+    
+    /**
+     * Take cash out of the balance, e.g. to commit it to an open order
+     * @param amount Fixed-point units
+     * @return false if the balance does not cover the amount
+     */
+    boolean debitCash(long amount) {
+        return addIfAtLeast(balance, -amount);
+    }
+    
+    void creditCash(long amount) {
+        balance.addAndGet(amount);
+    }
+    
+    /**
+     * Take an amount out of a holding, e.g. to commit it to an open order
+     * @return false if the holding does not cover the amount
+     */
+    boolean debitCrypto(String symbol, long amount) {
+        Holding holding = holdings.get(symbol);
+        if (holding == null || !addIfAtLeast(holding.amount, -amount)) {
+            return false;
+        }
+        
+        PortfolioValuator v = valuator;
+        if (v != null) {
+            v.onTrade(holding, -amount);
+        }
+        return true;
+    }
+    
+    void creditCrypto(String symbol, long amount) {
+        // Crediting a holding cannot fail
+        Holding holding = holdings.computeIfAbsent(symbol, s -> new Holding(this, s));
+        holding.amount.addAndGet(amount);
+        
+        PortfolioValuator v = valuator;
+        if (v != null) {
+            v.onTrade(holding, amount);
+        }
+    }
+    
+    /**
+     * Deposit cash into the account
+     * @param amount Amount to add to the balance
+     * @throws IllegalArgumentException if the amount is not positive
+     */
+    public void deposit(double amount) {
+        long units = Fixed.of(amount);
+        if (units <= 0) {
+            throw new IllegalArgumentException("Deposit amount must be positive");
+        }
+        balance.addAndGet(units);
+    }
+    
+    /**
+     * Get the amount of a specific cryptocurrency owned
+     * @param symbol Cryptocurrency symbol
+     * @return Amount owned or 0 if none
+     */
+    public double getCryptoAmount(String symbol) {
+        return Fixed.toDouble(getCryptoUnits(symbol));
+    }
+    
+    /**
+     * Get the amount of a specific cryptocurrency owned
+     * @return Fixed-point units owned or 0 if none
+     */
+    public long getCryptoUnits(String symbol) {
+        Holding holding = holdings.get(symbol);
+        return holding == null ? 0 : holding.amount.get();
+    }
+    
+    /**
+     * Reset user's account (for simulation purposes)
+     */
+    public void resetAccount() {
+        setBalanceUnits(DEFAULT_BALANCE);
+        PortfolioValuator v = valuator;
+        for (Holding holding : holdings.values()) {
+            long cleared = holding.amount.getAndSet(0);
+            if (v != null && cleared != 0) {
+                v.onTrade(holding, -cleared);
+            }
+        }
+    }
+    
+    // JavaFX property getters
+    public StringProperty usernameProperty() {
+        return username;
+    }
+    
+    /**
+     * Get a point-in-time copy of the non-empty holdings
+     * @return Unmodifiable map of symbols to amounts owned
+     */
+    public Map<String, Double> getPortfolio() {
+        Map<String, Double> portfolio = new HashMap<>();
+        for (Map.Entry<String, Holding> entry : holdings.entrySet()) {
+            double amount = entry.getValue().getAmount();
+            if (amount > 0) {
+                portfolio.put(entry.getKey(), amount);
+            }
+        }
+        return Collections.unmodifiableMap(portfolio);
+    }
+    
+    // Standard getters and setters
+    public String getUsername() {
+        return username.get();
+    }
+    
+    public void setUsername(String username) {
+        this.username.set(username);
+    }
+    
+    public double getBalance() {
+        return Fixed.toDouble(balance.get());
+    }
+    
+    public void setBalance(double balance) {
+        this.balance.set(Fixed.of(balance));
+    }
+    
+    /**
+     * Get the cash balance in fixed-point units
+     */
+    public long getBalanceUnits() {
+        return balance.get();
+    }
+    
+    public void setBalanceUnits(long balance) {
+        this.balance.set(balance);
+    }
+    
+    /**
+     * Get the portfolio value maintained incrementally by the attached
+     * {@link PortfolioValuator}; O(1) regardless of the number of holdings
+     * @return Portfolio value at the latest marked prices
+     * @throws IllegalStateException if no valuator is attached
+     */
+    public double getPortfolioValue() {
+        return Fixed.toDouble(getPortfolioValueUnits());
+    }
+    
+    /**
+     * Get the portfolio value maintained by the attached {@link PortfolioValuator}
+     * @return Fixed-point units at the latest marked prices
+     * @throws IllegalStateException if no valuator is attached
+     */
+    public long getPortfolioValueUnits() {
+        if (valuator == null) {
+            throw new IllegalStateException("No portfolio valuator attached to " + getUsername());
+        }
+        return portfolioValue.get();
+    }
+    
+    /**
+     * Register with a valuator, pricing in any holdings the user already has
+     */
+    synchronized void attachValuator(PortfolioValuator valuator) {
+        if (this.valuator == valuator) {
+            return;
+        }
+        if (this.valuator != null) {
+            throw new IllegalStateException("A portfolio valuator is already attached to " + getUsername());
+        }
+        this.valuator = valuator;
+        for (Holding holding : holdings.values()) {
+            long amount = holding.amount.get();
+            if (amount != 0) {
+                valuator.onTrade(holding, amount);
+            }
+        }
+    }
+    
+    void addPortfolioValue(long delta) {
+        portfolioValue.addAndGet(delta);
+    }
+    
+    /**
+     * Calculate total portfolio value from a consistent set of prices.
+     * The valuation is retried if a tick lands while it is in progress.
+     * @param marketState Market state holding the current prices
+     * @return Total value of the portfolio
+     */
+    public double getPortfolioValue(MarketState marketState) {
+        double totalValue;
+        long stamp;
+        do {
+            stamp = marketState.beginRead();
+            totalValue = 0.0;
+            
+            for (Map.Entry<String, Holding> entry : holdings.entrySet()) {
+                double amount = entry.getValue().getAmount();
+                if (amount <= 0) continue;
+                
+                int id = marketState.idOf(entry.getKey());
+                if (id >= 0) {
+                    totalValue += amount * marketState.peekPrice(id);
+                }
+            }
+        } while (!marketState.validate(stamp));
+        
+        return totalValue;
+    }
+    
+    /**
+     * Calculate total portfolio value.
+     * Each price is read atomically, but prices of different symbols may come from
+     * different ticks; use {@link #getPortfolioValue(MarketState)} for a consistent total.
+     * @param cryptoMap Map of cryptocurrency symbols to their data
+     * @return Total value of the portfolio
+     */
+    public double getPortfolioValue(Map<String, Cryptocurrency> cryptoMap) {
+        double totalValue = 0.0;
+        
+        for (Map.Entry<String, Holding> entry : holdings.entrySet()) {
+            double amount = entry.getValue().getAmount();
+            Cryptocurrency crypto = cryptoMap.get(entry.getKey());
+            
+            if (amount > 0 && crypto != null) {
+                totalValue += amount * crypto.getPrice();
+            }
+        }
+        
+        return totalValue;
+    }
+    
+    /**
+     * Atomically add a (negative) delta unless the result would drop below zero
+     * @return false if the cell did not hold enough to cover the delta
+     */
+    private static boolean addIfAtLeast(AtomicLong cell, long delta) {
+        long current;
+        long updated;
+        do {
+            current = cell.get();
+            updated = current + delta;
+            if (updated < 0) {
+                return false;
+            }
+        } while (!cell.compareAndSet(current, updated));
+        return true;
+    }
+}
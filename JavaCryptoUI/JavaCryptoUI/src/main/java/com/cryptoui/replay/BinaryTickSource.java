@@ -0,0 +1,157 @@
+package com.cryptoui.replay;
+
+import com.cryptoui.market.MarketState;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Tick source over a memory-mapped file written by {@link BinaryTickWriter}.
+ * <p>
+ * Records have a fixed width and are read in place from the mapped pages, and symbols
+ * are resolved once from the file's symbol table, so each tick costs three reads.
+ * This is the fastest format to replay; convert CSV recordings with
+ * {@link BinaryTickWriter#writeAll}.
+ */
+public class BinaryTickSource implements TickSource {
+    private static final long WINDOW_RECORDS = MappedFile.DEFAULT_WINDOW / BinaryTickWriter.RECORD_SIZE;
+    private static final int UNRESOLVED = -2;
+    
+    private final MappedFile file;
+    private final SymbolListing listing;
+    private final String[] symbols;
+    // Market ids by symbol table index; resolved on first use, -1 if the market was full
+    private final int[] symbolIds;
+    private final long recordCount;
+    private ByteBuffer buffer;
+    private long recordsRead;
+    private int position;
+    private long skipped;
+    
+    private long timeMillis;
+    private int symbolId;
+    private double price;
+    
+    public BinaryTickSource(Path path, MarketState marketState) throws IOException {
+        this(path, SymbolListing.into(marketState), WINDOW_RECORDS);
+    }
+    
+    public BinaryTickSource(Path path, SymbolListing listing) throws IOException {
+        this(path, listing, WINDOW_RECORDS);
+    }
+    
+    /**
+     * Open a binary tick file
+     * @param path File to replay
+     * @param listing Resolves recorded symbols, listing new ones
+     * @param windowRecords Records mapped at a time
+     * @throws IOException if the file is not a tick file of a supported version
+     */
+    public BinaryTickSource(Path path, SymbolListing listing, long windowRecords) throws IOException {
+        this.file = new MappedFile(path, windowRecords * BinaryTickWriter.RECORD_SIZE, BinaryTickWriter.HEADER_SIZE);
+        this.listing = listing;
+        try {
+            if (file.size() < BinaryTickWriter.HEADER_SIZE) {
+                throw new IOException("Not a tick file: " + path);
+            }
+            ByteBuffer header = file.map(0, BinaryTickWriter.HEADER_SIZE);
+            if (header.getInt(0) != BinaryTickWriter.MAGIC) {
+                throw new IOException("Not a tick file: " + path);
+            }
+            if (header.getInt(4) != BinaryTickWriter.VERSION) {
+                throw new IOException("Unsupported tick file version " + header.getInt(4) + ": " + path);
+            }
+            this.recordCount = header.getLong(8);
+            long tableOffset = header.getLong(16);
+            int symbolCount = header.getInt(24);
+            if (tableOffset != BinaryTickWriter.HEADER_SIZE + recordCount * BinaryTickWriter.RECORD_SIZE
+                    || tableOffset > file.size()) {
+                throw new IOException("Corrupt tick file header: " + path);
+            }
+            
+            ByteBuffer table = file.map(tableOffset, file.size() - tableOffset);
+            symbols = new String[symbolCount];
+            symbolIds = new int[symbolCount];
+            for (int i = 0; i < symbolCount; i++) {
+                byte[] bytes = new byte[table.get() & 0xFF];
+                table.get(bytes);
+                symbols[i] = new String(bytes, StandardCharsets.UTF_8);
+                symbolIds[i] = UNRESOLVED;
+            }
+            this.buffer = file.buffer();
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        } catch (RuntimeException e) {
+            // Truncated symbol table or out-of-range offsets
+            file.close();
+            throw new IOException("Corrupt tick file: " + path, e);
+        }
+    }
+    
+    @Override
+    public boolean next() throws IOException {
+        while (recordsRead < recordCount) {
+            if (position + BinaryTickWriter.RECORD_SIZE > buffer.limit()) {
+                file.remap(file.base() + position);
+                buffer = file.buffer();
+                position = 0;
+            }
+            int record = position;
+            position += BinaryTickWriter.RECORD_SIZE;
+            recordsRead++;
+            
+            int index = buffer.getInt(record + 16);
+            double value = buffer.getDouble(record + 8);
+            int id = index >= 0 && index < symbolIds.length ? symbolIds[index] : -1;
+            if (id == UNRESOLVED && value > 0) {
+                // First tick of the symbol; list it at this price if it is new
+                id = listing.list(symbols[index], value);
+                symbolIds[index] = id;
+            }
+            if (id < 0) {
+                skipped++;
+                continue;
+            }
+            timeMillis = buffer.getLong(record);
+            price = value;
+            symbolId = id;
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Get the number of ticks in the file, including skipped ones
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+    
+    @Override
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+    
+    @Override
+    public int getSymbolId() {
+        return symbolId;
+    }
+    
+    @Override
+    public double getPrice() {
+        return price;
+    }
+    
+    @Override
+    public long getSkipped() {
+        return skipped;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
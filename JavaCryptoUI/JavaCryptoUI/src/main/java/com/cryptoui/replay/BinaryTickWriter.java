@@ -0,0 +1,165 @@
+package com.cryptoui.replay;
+
+import com.cryptoui.market.MarketState;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes ticks in the binary replay format read by {@link BinaryTickSource}.
+ * <p>
+ * The file is big-endian:
+ * <pre>
+ *  0  int    magic "CRTK"
+ *  4  int    version
+ *  8  long   record count
+ * 16  long   offset of the symbol table
+ * 24  int    symbol count
+ * 28  int    reserved
+ * 32  records, {@value #RECORD_SIZE} bytes each:
+ *      long   time (epoch millis)
+ *      double price
+ *      int    symbol index
+ *      int    reserved
+ *     symbol table: per symbol a length byte and its UTF-8 bytes
+ * </pre>
+ * Symbols are stored once, in the table written on {@link #close()}, so records have a
+ * fixed width and can be read in place. A file that was never closed has a zero record
+ * count and replays as empty.
+ */
+public class BinaryTickWriter implements AutoCloseable {
+    public static final int MAGIC = 0x4352544B;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 32;
+    public static final int RECORD_SIZE = 24;
+    
+    private static final int BUFFER_RECORDS = 4096;
+    
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * RECORD_SIZE);
+    private final Map<String, Integer> symbolIndexes = new HashMap<>();
+    private final List<String> symbols = new ArrayList<>();
+    private long recordCount;
+    private long lastTime = Long.MIN_VALUE;
+    
+    /**
+     * Create a tick file, replacing any existing file
+     * @param path File to write
+     */
+    public BinaryTickWriter(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                        StandardOpenOption.TRUNCATE_EXISTING);
+        // Placeholder header; the counts are filled in on close
+        channel.write(ByteBuffer.allocate(HEADER_SIZE));
+    }
+    
+    /**
+     * Append a tick
+     * @param epochMillis Time of the tick; must not be older than the previous tick
+     * @param symbol Cryptocurrency symbol, at most 255 UTF-8 bytes
+     * @param price Price per unit
+     * @throws IllegalArgumentException if the tick is out of order or the symbol too long
+     * @throws UncheckedIOException if the write fails
+     */
+    public void write(long epochMillis, String symbol, double price) {
+        if (epochMillis < lastTime) {
+            throw new IllegalArgumentException("Ticks must be written in time order");
+        }
+        int index = indexOf(symbol);
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.putLong(epochMillis).putDouble(price).putInt(index).putInt(0);
+        lastTime = epochMillis;
+        recordCount++;
+    }
+    
+    /**
+     * Copy every remaining tick of a source, e.g. to convert a CSV recording
+     * @param source Ticks to copy
+     * @param marketState Market the source resolves symbols against
+     * @return Number of ticks written
+     */
+    public long writeAll(TickSource source, MarketState marketState) throws IOException {
+        long written = 0;
+        while (source.next()) {
+            write(source.getTimeMillis(), marketState.getSymbol(source.getSymbolId()), source.getPrice());
+            written++;
+        }
+        return written;
+    }
+    
+    public long getRecordCount() {
+        return recordCount;
+    }
+    
+    /**
+     * Write the symbol table and header, then close the file
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            long tableOffset = HEADER_SIZE + recordCount * RECORD_SIZE;
+            int tableSize = 0;
+            for (String symbol : symbols) {
+                tableSize += 1 + symbol.getBytes(StandardCharsets.UTF_8).length;
+            }
+            ByteBuffer table = ByteBuffer.allocate(tableSize);
+            for (String symbol : symbols) {
+                byte[] bytes = symbol.getBytes(StandardCharsets.UTF_8);
+                table.put((byte) bytes.length).put(bytes);
+            }
+            table.flip();
+            writeFully(table, tableOffset);
+            
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putLong(recordCount).putLong(tableOffset)
+                  .putInt(symbols.size()).putInt(0).flip();
+            writeFully(header, 0);
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+    
+    private int indexOf(String symbol) {
+        Integer index = symbolIndexes.get(symbol);
+        if (index != null) {
+            return index;
+        }
+        if (symbol.getBytes(StandardCharsets.UTF_8).length > 255) {
+            throw new IllegalArgumentException("Symbol is too long: " + symbol);
+        }
+        symbolIndexes.put(symbol, symbols.size());
+        symbols.add(symbol);
+        return symbols.size() - 1;
+    }
+    
+    private void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+    
+    private void writeFully(ByteBuffer source, long position) throws IOException {
+        while (source.hasRemaining()) {
+            position += channel.write(source, position);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.cryptoui.replay;
+
+import com.cryptoui.market.MarketState;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Tick source over a memory-mapped CSV file of {@code epochMillis,symbol,price} lines.
+ * <p>
+ * Lines are parsed straight from the mapped pages: no line Strings, no split, and no
+ * per-field parsing objects. Further columns, blank lines and a header line are ignored.
+ * Lines that cannot be parsed are counted as skipped.
+ */
+public class CsvTickSource implements TickSource {
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18
+    };
+    
+    private final MappedFile file;
+    private final SymbolResolver symbols;
+    private ByteBuffer buffer;
+    private int position;
+    private long skipped;
+    
+    private long timeMillis;
+    private int symbolId;
+    private double price;
+    
+    // Parse results of the field being read
+    private int fieldEnd;
+    private boolean fieldValid;
+    
+    public CsvTickSource(Path path, MarketState marketState) throws IOException {
+        this(path, SymbolListing.into(marketState), MappedFile.DEFAULT_WINDOW);
+    }
+    
+    public CsvTickSource(Path path, SymbolListing listing) throws IOException {
+        this(path, listing, MappedFile.DEFAULT_WINDOW);
+    }
+    
+    /**
+     * Open a CSV tick file
+     * @param path File to replay
+     * @param listing Resolves recorded symbols, listing new ones
+     * @param window Bytes mapped at a time; must exceed the longest line
+     */
+    public CsvTickSource(Path path, SymbolListing listing, long window) throws IOException {
+        this.file = new MappedFile(path, window);
+        this.symbols = new SymbolResolver(listing);
+        this.buffer = file.buffer();
+    }
+    
+    @Override
+    public boolean next() throws IOException {
+        while (true) {
+            int limit = buffer.limit();
+            int end = indexOf(buffer, (byte) '\n', position, limit);
+            if (end < 0) {
+                if (!file.isLastWindow()) {
+                    if (position == 0) {
+                        throw new IOException("Line at offset " + file.base() + " is longer than the mapping window");
+                    }
+                    // Line crosses the window; map again from its start
+                    file.remap(file.base() + position);
+                    buffer = file.buffer();
+                    position = 0;
+                    continue;
+                }
+                if (position >= limit) {
+                    return false;
+                }
+                end = limit;
+            }
+            
+            int start = position;
+            position = Math.min(end + 1, limit);
+            int lineEnd = end;
+            while (lineEnd > start && isSpace(buffer.get(lineEnd - 1))) {
+                lineEnd--;
+            }
+            if (lineEnd == start) {
+                continue;
+            }
+            if (parseLine(start, lineEnd)) {
+                return true;
+            }
+        }
+    }
+    
+    private boolean parseLine(int start, int end) {
+        long time = parseLong(start, end);
+        if (!fieldValid) {
+            if (file.base() == 0 && start == 0) {
+                // Header
+                return false;
+            }
+            skipped++;
+            return false;
+        }
+        
+        int symbolStart = skipSpaces(fieldEnd + 1, end);
+        int symbolEnd = indexOf(buffer, (byte) ',', symbolStart, end);
+        if (fieldEnd >= end || symbolEnd < 0) {
+            skipped++;
+            return false;
+        }
+        int trimmedEnd = symbolEnd;
+        while (trimmedEnd > symbolStart && isSpace(buffer.get(trimmedEnd - 1))) {
+            trimmedEnd--;
+        }
+        double value = parseDouble(skipSpaces(symbolEnd + 1, end), end);
+        if (!fieldValid || !(value > 0)) {
+            skipped++;
+            return false;
+        }
+        int id = symbols.resolve(buffer, symbolStart, trimmedEnd, value);
+        if (id < 0) {
+            skipped++;
+            return false;
+        }
+        timeMillis = time;
+        symbolId = id;
+        price = value;
+        return true;
+    }
+    
+    /**
+     * Parse a decimal integer field; sets fieldEnd to the delimiter or line end
+     */
+    private long parseLong(int from, int end) {
+        long value = 0;
+        int i = skipSpaces(from, end);
+        int digitsStart = i;
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                break;
+            }
+            value = value * 10 + digit;
+        }
+        fieldValid = i > digitsStart;
+        i = skipSpaces(i, end);
+        fieldValid &= i == end || buffer.get(i) == ',';
+        fieldEnd = i;
+        return value;
+    }
+    
+    /**
+     * Parse a decimal number field; exponents and very long mantissas fall back to
+     * {@link Double#parseDouble}
+     */
+    private double parseDouble(int from, int end) {
+        int i = from;
+        boolean negative = i < end && buffer.get(i) == '-';
+        if (negative || (i < end && buffer.get(i) == '+')) {
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (fraction) {
+                    fractionDigits++;
+                }
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        int fieldStop = indexOf(buffer, (byte) ',', i, end);
+        fieldStop = fieldStop < 0 ? end : fieldStop;
+        int trimmed = skipSpaces(i, fieldStop);
+        fieldValid = digits > 0;
+        fieldEnd = fieldStop;
+        
+        if (trimmed != fieldStop || digits > 18) {
+            return slowParseDouble(from, fieldStop);
+        }
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+    
+    private double slowParseDouble(int from, int to) {
+        byte[] bytes = new byte[to - from];
+        for (int i = from; i < to; i++) {
+            bytes[i - from] = buffer.get(i);
+        }
+        try {
+            fieldValid = true;
+            return Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII).trim());
+        } catch (NumberFormatException e) {
+            fieldValid = false;
+            return Double.NaN;
+        }
+    }
+    
+    private int skipSpaces(int from, int end) {
+        while (from < end && isSpace(buffer.get(from))) {
+            from++;
+        }
+        return from;
+    }
+    
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+    
+    static int indexOf(ByteBuffer buffer, byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    @Override
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+    
+    @Override
+    public int getSymbolId() {
+        return symbolId;
+    }
+    
+    @Override
+    public double getPrice() {
+        return price;
+    }
+    
+    @Override
+    public long getSkipped() {
+        return skipped;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
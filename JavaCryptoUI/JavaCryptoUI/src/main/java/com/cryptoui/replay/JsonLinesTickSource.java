@@ -0,0 +1,142 @@
+package com.cryptoui.replay;
+
+import com.cryptoui.market.MarketState;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Tick source over a JSON-lines file with one object per line, e.g.
+ * {@code {"time":1700000000000,"symbol":"BTC","price":42150.75}}.
+ * The short keys {@code t}, {@code s} and {@code p} are accepted too, and other keys
+ * are ignored.
+ * <p>
+ * Objects are read with Gson's streaming {@link JsonReader}, so no tree or binding
+ * objects are built, but JSON is still several times slower to replay than CSV or the
+ * binary format. Objects missing a field are counted as skipped.
+ */
+public class JsonLinesTickSource implements TickSource {
+    private final JsonReader reader;
+    private final SymbolListing listing;
+    private long skipped;
+    
+    private long timeMillis;
+    private int symbolId;
+    private double price;
+    
+    public JsonLinesTickSource(Path path, MarketState marketState) throws IOException {
+        this(path, SymbolListing.into(marketState));
+    }
+    
+    public JsonLinesTickSource(Path path, SymbolListing listing) throws IOException {
+        this(Files.newBufferedReader(path, StandardCharsets.UTF_8), listing);
+    }
+    
+    public JsonLinesTickSource(Reader input, SymbolListing listing) {
+        this.reader = new JsonReader(input);
+        // Lenient mode reads a stream of top-level values
+        this.reader.setLenient(true);
+        this.listing = listing;
+    }
+    
+    @Override
+    public boolean next() throws IOException {
+        try {
+            while (reader.peek() != JsonToken.END_DOCUMENT) {
+                if (readTick()) {
+                    return true;
+                }
+                skipped++;
+            }
+            return false;
+        } catch (IllegalStateException | NumberFormatException | JsonParseException e) {
+            throw new IOException("Malformed tick stream", e);
+        }
+    }
+    
+    private boolean readTick() throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return false;
+        }
+        long time = Long.MIN_VALUE;
+        String symbol = null;
+        double value = Double.NaN;
+        
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            JsonToken token = reader.peek();
+            switch (name) {
+                case "t":
+                case "time":
+                    if (token == JsonToken.NUMBER) {
+                        time = reader.nextLong();
+                        continue;
+                    }
+                    break;
+                case "s":
+                case "symbol":
+                    if (token == JsonToken.STRING) {
+                        symbol = reader.nextString();
+                        continue;
+                    }
+                    break;
+                case "p":
+                case "price":
+                    if (token == JsonToken.NUMBER || token == JsonToken.STRING) {
+                        value = reader.nextDouble();
+                        continue;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            reader.skipValue();
+        }
+        reader.endObject();
+        
+        if (time == Long.MIN_VALUE || symbol == null || !(value > 0)) {
+            return false;
+        }
+        int id = listing.list(symbol, value);
+        if (id < 0) {
+            return false;
+        }
+        timeMillis = time;
+        symbolId = id;
+        price = value;
+        return true;
+    }
+    
+    @Override
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+    
+    @Override
+    public int getSymbolId() {
+        return symbolId;
+    }
+    
+    @Override
+    public double getPrice() {
+        return price;
+    }
+    
+    @Override
+    public long getSkipped() {
+        return skipped;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,87 @@
+package com.cryptoui.replay;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only file mapped one window at a time, so files larger than a single
+ * {@link MappedByteBuffer} can be scanned in place. Sources read straight from the
+ * mapped pages and move the window forward when they reach its end.
+ */
+final class MappedFile implements Closeable {
+    static final long DEFAULT_WINDOW = 1L << 28;
+    
+    private final FileChannel channel;
+    private final long size;
+    private final long window;
+    private MappedByteBuffer buffer;
+    private long base;
+    
+    MappedFile(Path path, long window) throws IOException {
+        this(path, window, 0);
+    }
+    
+    /**
+     * Open a file and map its first window
+     * @param start File offset of the first window
+     */
+    MappedFile(Path path, long window, long start) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.window = window;
+        try {
+            remap(Math.min(start, size));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Map the window starting at a file offset
+     * @param position File offset the buffer's index 0 will refer to
+     */
+    void remap(long position) throws IOException {
+        base = position;
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(window, size - position));
+    }
+    
+    /**
+     * Map a range outside the current window, e.g. a file header or footer
+     */
+    MappedByteBuffer map(long position, long length) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+    }
+    
+    MappedByteBuffer buffer() {
+        return buffer;
+    }
+    
+    /**
+     * Get the file offset of the buffer's index 0
+     */
+    long base() {
+        return base;
+    }
+    
+    long size() {
+        return size;
+    }
+    
+    /**
+     * Check whether the current window reaches the end of the file
+     */
+    boolean isLastWindow() {
+        return base + buffer.limit() >= size;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        buffer = null;
+        channel.close();
+    }
+}
@@ -0,0 +1,221 @@
+package com.cryptoui.replay;
+
+import com.cryptoui.market.MarketListener;
+import com.cryptoui.market.MarketSnapshot;
+import com.cryptoui.market.MarketState;
+
+import java.io.IOException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays recorded ticks into a {@link MarketState} in place of the simulated prices.
+ * <p>
+ * Each tick sets its symbol's price; a {@link MarketSnapshot} is published whenever the
+ * recorded time crosses a snapshot boundary, so listeners see the market as it was at
+ * that time. Replay is paced against the wall clock at a configurable multiple of real
+ * time, or runs unpaced at {@link #MAX_SPEED}, limited only by how fast the source reads
+ * and the listeners consume snapshots.
+ * <p>
+ * The replay owns its source and closes it when the replay ends.
+ */
+public class MarketReplay {
+    /** Replay as fast as possible, without pacing */
+    public static final double MAX_SPEED = Double.POSITIVE_INFINITY;
+    
+    private final MarketState marketState;
+    private final TickSource source;
+    private final MarketListener sink;
+    
+    private volatile double speed = 1;
+    private volatile long snapshotIntervalMillis;
+    private volatile boolean running;
+    private volatile long currentTimeMillis = Long.MIN_VALUE;
+    private volatile long ticksReplayed;
+    private volatile long snapshotsPublished;
+    private Thread thread;
+    
+    /**
+     * Create a replay
+     * @param marketState Market to write prices into
+     * @param source Recorded ticks, resolved against the same market
+     * @param sink Receives each snapshot on the replay thread, e.g. a tick engine's publisher
+     */
+    public MarketReplay(MarketState marketState, TickSource source, MarketListener sink) {
+        this.marketState = marketState;
+        this.source = source;
+        this.sink = sink;
+    }
+    
+    /**
+     * Set the replay speed; may be changed while replaying
+     * @param speed Multiple of real time, e.g. 1 for real time, or {@link #MAX_SPEED}
+     * @throws IllegalArgumentException if the speed is not positive
+     */
+    public void setSpeed(double speed) {
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("Replay speed must be positive");
+        }
+        this.speed = speed;
+    }
+    
+    public double getSpeed() {
+        return speed;
+    }
+    
+    /**
+     * Set how much recorded time a snapshot covers
+     * @param millis Recorded milliseconds between snapshots, or 0 for a snapshot at every
+     *               distinct tick time
+     */
+    public void setSnapshotIntervalMillis(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Snapshot interval must not be negative");
+        }
+        this.snapshotIntervalMillis = millis;
+    }
+    
+    /**
+     * Replay on a background daemon thread
+     * @throws IllegalStateException if the replay is already running
+     */
+    public synchronized void start() {
+        if (running) {
+            throw new IllegalStateException("Replay is already running");
+        }
+        running = true;
+        thread = new Thread(() -> {
+            try {
+                replay();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }, "market-replay");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    /**
+     * Replay on the calling thread until the source is exhausted or {@link #stop()} is called
+     * @throws IllegalStateException if the replay is already running
+     */
+    public void run() throws IOException {
+        synchronized (this) {
+            if (running) {
+                throw new IllegalStateException("Replay is already running");
+            }
+            running = true;
+        }
+        replay();
+    }
+    
+    /**
+     * Stop replaying and wait for a background replay to finish
+     */
+    public void stop() {
+        Thread current;
+        synchronized (this) {
+            running = false;
+            current = thread;
+        }
+        if (current != null && current != Thread.currentThread()) {
+            LockSupport.unpark(current);
+            try {
+                current.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    public boolean isRunning() {
+        return running;
+    }
+    
+    /**
+     * Get the recorded time of the last replayed tick, e.g. as the clock of a candle
+     * aggregator or strategy
+     * @return Epoch milliseconds, or Long.MIN_VALUE before the first tick
+     */
+    public long getCurrentTimeMillis() {
+        return currentTimeMillis;
+    }
+    
+    public long getTicksReplayed() {
+        return ticksReplayed;
+    }
+    
+    public long getSnapshotsPublished() {
+        return snapshotsPublished;
+    }
+    
+    /**
+     * Get the number of ticks the source skipped
+     */
+    public long getSkipped() {
+        return source.getSkipped();
+    }
+    
+    private void replay() throws IOException {
+        long ticks = 0;
+        long nextSnapshot = Long.MIN_VALUE;
+        boolean pending = false;
+        
+        // Pacing origin; reset whenever the speed changes
+        double pacedSpeed = Double.NaN;
+        long originNanos = 0;
+        long originMillis = 0;
+        
+        try {
+            while (running && source.next()) {
+                long time = source.getTimeMillis();
+                if (pending && time >= nextSnapshot) {
+                    publish();
+                    pending = false;
+                }
+                
+                double currentSpeed = speed;
+                if (currentSpeed != MAX_SPEED) {
+                    if (currentSpeed != pacedSpeed) {
+                        pacedSpeed = currentSpeed;
+                        originNanos = System.nanoTime();
+                        originMillis = time;
+                    }
+                    long due = originNanos + (long) ((time - originMillis) * 1_000_000.0 / currentSpeed);
+                    long wait;
+                    while (running && (wait = due - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(this, wait);
+                    }
+                } else {
+                    pacedSpeed = Double.NaN;
+                }
+                
+                marketState.setPrice(source.getSymbolId(), source.getPrice());
+                currentTimeMillis = time;
+                ticksReplayed = ++ticks;
+                if (!pending) {
+                    long interval = snapshotIntervalMillis;
+                    nextSnapshot = interval == 0 ? time + 1 : Math.floorDiv(time, interval) * interval + interval;
+                    pending = true;
+                }
+            }
+            if (pending) {
+                publish();
+            }
+        } finally {
+            synchronized (this) {
+                running = false;
+            }
+            source.close();
+        }
+    }
+    
+    private void publish() {
+        long sequence = snapshotsPublished + 1;
+        snapshotsPublished = sequence;
+        try {
+            sink.onSnapshot(marketState.snapshot(sequence, System.nanoTime()));
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.cryptoui.replay;
+
+import com.cryptoui.market.MarketState;
+
+/**
+ * Resolves the symbols of recorded ticks to interned ids, listing the ones the market
+ * has not seen yet. Called on the thread reading the recording, once per distinct
+ * symbol for CSV and binary files.
+ */
+@FunctionalInterface
+public interface SymbolListing {
+    
+    /**
+     * Look up a symbol, listing it at a price if it is new
+     * @param symbol Recorded symbol
+     * @param price First recorded price of the symbol, always positive
+     * @return Symbol id, or -1 if the symbol is new and the market is full
+     */
+    int list(String symbol, double price);
+    
+    /**
+     * List new symbols straight into a market state, named after their symbol.
+     * Suits markets without a UI, such as backtests; a {@link com.cryptoui.model.MarketService}
+     * lists them itself so they also reach its market data.
+     */
+    static SymbolListing into(MarketState marketState) {
+        return (symbol, price) -> {
+            int id = marketState.idOf(symbol);
+            if (id >= 0) {
+                return id;
+            }
+            synchronized (marketState) {
+                // Listing takes the same lock, so no other source lists the symbol in between
+                id = marketState.idOf(symbol);
+                if (id < 0 && marketState.size() < marketState.capacity()) {
+                    id = marketState.add(symbol, symbol, "", price, 0, 0);
+                }
+                return id;
+            }
+        };
+    }
+}
@@ -0,0 +1,97 @@
+package com.cryptoui.replay;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Maps symbol bytes read from a file to interned symbol ids without creating a String
+ * per tick. Each distinct symbol is decoded and passed to the {@link SymbolListing}
+ * once, which lists it at its first recorded price if it is new; after that it is
+ * found by hashing and comparing the bytes in place. Symbols that cannot be listed
+ * because the market is full resolve to -1.
+ */
+final class SymbolResolver {
+    private final SymbolListing listing;
+    private byte[][] keys = new byte[16][];
+    private int[] ids = new int[16];
+    private int[] hashes = new int[16];
+    private int size;
+    
+    SymbolResolver(SymbolListing listing) {
+        this.listing = listing;
+    }
+    
+    /**
+     * Resolve the symbol stored in a buffer range
+     * @param buffer Buffer holding the symbol; its position is not changed
+     * @param from Index of the first byte
+     * @param to Index after the last byte
+     * @param price Price of the tick, at which a new symbol is listed
+     * @return Symbol id, or -1 if the symbol is new and the market is full
+     */
+    int resolve(ByteBuffer buffer, int from, int to, double price) {
+        int hash = 1;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + buffer.get(i);
+        }
+        int mask = keys.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            byte[] key = keys[slot];
+            if (key == null) {
+                byte[] bytes = new byte[to - from];
+                for (int i = from; i < to; i++) {
+                    bytes[i - from] = buffer.get(i);
+                }
+                return insert(slot, hash, bytes, price);
+            }
+            if (hashes[slot] == hash && matches(key, buffer, from, to)) {
+                return ids[slot];
+            }
+        }
+    }
+    
+    private int insert(int slot, int hash, byte[] bytes, double price) {
+        int id = listing.list(new String(bytes, StandardCharsets.UTF_8), price);
+        keys[slot] = bytes;
+        hashes[slot] = hash;
+        ids[slot] = id;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+        return id;
+    }
+    
+    private void grow() {
+        byte[][] oldKeys = keys;
+        int[] oldIds = ids;
+        int[] oldHashes = hashes;
+        keys = new byte[oldKeys.length * 2][];
+        ids = new int[keys.length];
+        hashes = new int[keys.length];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == null) {
+                continue;
+            }
+            int slot = oldHashes[i] & mask;
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            ids[slot] = oldIds[i];
+            hashes[slot] = oldHashes[i];
+        }
+    }
+    
+    private static boolean matches(byte[] key, ByteBuffer buffer, int from, int to) {
+        if (key.length != to - from) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] != buffer.get(from + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
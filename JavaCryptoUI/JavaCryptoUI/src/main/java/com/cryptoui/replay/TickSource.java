@@ -0,0 +1,76 @@
+package com.cryptoui.replay;
+
+import com.cryptoui.market.MarketState;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Forward-only stream of recorded ticks, read one at a time into the source itself.
+ * <p>
+ * Each call to {@link #next()} replaces the current tick, so sources can read ticks
+ * without allocating. A symbol that is not listed in the market is listed at its first
+ * recorded price. Ticks are skipped and counted only when they are malformed or their
+ * symbol is new and the market is full. Ticks must be in time order.
+ */
+public interface TickSource extends Closeable {
+    
+    /**
+     * Open a recording, choosing the format by file extension: {@code .csv} for CSV,
+     * {@code .jsonl} or {@code .ndjson} for JSON lines, anything else for the binary format
+     * @param path File to replay
+     * @param marketState Market whose symbols the ticks are resolved against and new
+     *                    symbols are listed in
+     */
+    static TickSource open(Path path, MarketState marketState) throws IOException {
+        return open(path, SymbolListing.into(marketState));
+    }
+    
+    /**
+     * Open a recording, choosing the format as {@link #open(Path, MarketState)} does
+     * @param path File to replay
+     * @param listing Resolves recorded symbols, listing new ones
+     */
+    static TickSource open(Path path, SymbolListing listing) throws IOException {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return new CsvTickSource(path, listing);
+        }
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            return new JsonLinesTickSource(path, listing);
+        }
+        return new BinaryTickSource(path, listing);
+    }
+    
+    /**
+     * Advance to the next tick that is not skipped
+     * @return false once the data is exhausted
+     */
+    boolean next() throws IOException;
+    
+    /**
+     * Get the time of the current tick
+     * @return Epoch milliseconds
+     */
+    long getTimeMillis();
+    
+    /**
+     * Get the symbol of the current tick
+     * @return Interned symbol id in the market being replayed into
+     */
+    int getSymbolId();
+    
+    /**
+     * Get the price of the current tick
+     * @return Price per unit
+     */
+    double getPrice();
+    
+    /**
+     * Get the number of ticks skipped so far
+     * @return Malformed ticks plus ticks of new symbols that found the market full
+     */
+    long getSkipped();
+}
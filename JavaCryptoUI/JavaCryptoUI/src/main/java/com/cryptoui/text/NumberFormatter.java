@@ -0,0 +1,210 @@
+package com.cryptoui.text;
+
+import com.cryptoui.market.Fixed;
+
+/**
+ * Fixed-decimal number formatting without {@link java.util.Formatter}.
+ * <p>
+ * A formatter has a prefix (e.g. {@code "$"}), a number of decimals, optional
+ * thousands grouping and a suffix (e.g. {@code "%"}), and writes a value straight into
+ * a caller's char array: {@code -1234.5} with the {@link #currency()} settings becomes
+ * {@code "-$1,234.50"}. Values are rounded to the nearest last digit, halves up.
+ * {@link #formatTo} keeps no state and is safe to share across threads.
+ * <p>
+ * {@link #text(double)} returns a String for UI labels and cells and reuses the last
+ * one when the value has not changed, so redrawing an unchanged value allocates
+ * nothing. The text methods use a buffer owned by the formatter and must only be
+ * called from one thread, normally the JavaFX Application Thread.
+ */
+public final class NumberFormatter {
+    private static final long[] POWERS = new long[19];
+    // Values at or above this many scaled units fall back to Double.toString
+    private static final double MAX_SCALED = 0x1p62;
+    
+    static {
+        POWERS[0] = 1;
+        for (int i = 1; i < POWERS.length; i++) {
+            POWERS[i] = POWERS[i - 1] * 10;
+        }
+    }
+    
+    private final String prefix;
+    private final int decimals;
+    private final boolean grouping;
+    private final String suffix;
+    private final int maxLength;
+    
+    // Text state, confined to one thread
+    private char[] buffer;
+    private long lastBits;
+    private String lastLabel;
+    private String lastText;
+    
+    /**
+     * Create a formatter
+     * @param prefix Text written before the number and after any minus sign
+     * @param decimals Digits after the decimal point, from 0 to {@link Fixed#DECIMALS}
+     * @param grouping true to separate thousands with commas
+     * @param suffix Text written after the number
+     * @throws IllegalArgumentException if the decimals are out of range
+     */
+    public NumberFormatter(String prefix, int decimals, boolean grouping, String suffix) {
+        if (decimals < 0 || decimals > Fixed.DECIMALS) {
+            throw new IllegalArgumentException("Decimals must be between 0 and " + Fixed.DECIMALS);
+        }
+        this.prefix = prefix;
+        this.decimals = decimals;
+        this.grouping = grouping;
+        this.suffix = suffix;
+        // Sign, up to 19 digits with 6 separators, the point and the decimals
+        this.maxLength = 1 + prefix.length() + 19 + 6 + 1 + decimals + suffix.length();
+    }
+    
+    /**
+     * Dollars with two decimals and grouping, e.g. {@code $27,086.50}
+     */
+    public static NumberFormatter currency() {
+        return new NumberFormatter("$", 2, true, "");
+    }
+    
+    /**
+     * Percentages with two decimals, e.g. {@code -1.25%}
+     */
+    public static NumberFormatter percent() {
+        return new NumberFormatter("", 2, false, "%");
+    }
+    
+    /**
+     * Plain amounts with a fixed number of decimals, e.g. {@code 0.500000}
+     */
+    public static NumberFormatter amount(int decimals) {
+        return new NumberFormatter("", decimals, false, "");
+    }
+    
+    /**
+     * Get the most characters {@link #formatTo} writes for a finite value in range
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+    
+    /**
+     * Write a value into a char array
+     * @param dest Array with at least {@link #getMaxLength()} chars free at the offset
+     * @return Offset just past the last char written
+     */
+    public int formatTo(double value, char[] dest, int offset) {
+        double scaled = Math.abs(value) * POWERS[decimals];
+        if (!(scaled < MAX_SCALED)) {
+            // NaN, infinite or beyond the digits a long can hold
+            String text = Double.toString(value);
+            text.getChars(0, text.length(), dest, offset);
+            return offset + text.length();
+        }
+        return write(Math.round(scaled), value < 0, dest, offset);
+    }
+    
+    /**
+     * Write a {@link Fixed} value into a char array, rounded exactly to the decimals
+     * @param dest Array with at least {@link #getMaxLength()} chars free at the offset
+     * @return Offset just past the last char written
+     */
+    public int formatUnitsTo(long units, char[] dest, int offset) {
+        long rounded = Fixed.round(units, decimals);
+        long scaled = rounded / POWERS[Fixed.DECIMALS - decimals];
+        return write(Math.abs(scaled), scaled < 0, dest, offset);
+    }
+    
+    /**
+     * Format a value, reusing the previous String if the value is unchanged
+     */
+    public String text(double value) {
+        return text(value, "");
+    }
+    
+    /**
+     * Format a value followed by a label, e.g. an amount and its symbol, reusing the
+     * previous String if neither changed
+     */
+    public String text(double value, String label) {
+        long bits = Double.doubleToLongBits(value);
+        if (lastText != null && bits == lastBits && label.equals(lastLabel)) {
+            return lastText;
+        }
+        char[] chars = buffer(label.length());
+        int end = formatTo(value, chars, 0);
+        return remember(bits, label, chars, end);
+    }
+    
+    /**
+     * Format a {@link Fixed} value, reusing the previous String if the value is unchanged
+     */
+    public String textUnits(long units) {
+        // A null label marks the cached text as formatted from units
+        if (lastText != null && units == lastBits && lastLabel == null) {
+            return lastText;
+        }
+        char[] chars = buffer(0);
+        int end = formatUnitsTo(units, chars, 0);
+        return remember(units, null, chars, end);
+    }
+    
+    private char[] buffer(int labelLength) {
+        int needed = maxLength + labelLength + 1;
+        if (buffer == null || buffer.length < needed) {
+            buffer = new char[needed];
+        }
+        return buffer;
+    }
+    
+    private String remember(long key, String label, char[] chars, int end) {
+        if (label != null && !label.isEmpty()) {
+            chars[end++] = ' ';
+            label.getChars(0, label.length(), chars, end);
+            end += label.length();
+        }
+        lastBits = key;
+        lastLabel = label;
+        lastText = new String(chars, 0, end);
+        return lastText;
+    }
+    
+    /**
+     * Write a non-negative number of 10^-decimals units with sign, prefix and suffix
+     */
+    private int write(long scaled, boolean negative, char[] dest, int offset) {
+        int pos = offset;
+        if (negative && scaled != 0) {
+            dest[pos++] = '-';
+        }
+        prefix.getChars(0, prefix.length(), dest, pos);
+        pos += prefix.length();
+        
+        long whole = scaled / POWERS[decimals];
+        long fraction = scaled % POWERS[decimals];
+        int digits = digitCount(whole);
+        for (int i = digits - 1; i >= 0; i--) {
+            dest[pos++] = (char) ('0' + (whole / POWERS[i]) % 10);
+            if (grouping && i > 0 && i % 3 == 0) {
+                dest[pos++] = ',';
+            }
+        }
+        if (decimals > 0) {
+            dest[pos++] = '.';
+            for (int i = decimals - 1; i >= 0; i--) {
+                dest[pos++] = (char) ('0' + (fraction / POWERS[i]) % 10);
+            }
+        }
+        
+        suffix.getChars(0, suffix.length(), dest, pos);
+        return pos + suffix.length();
+    }
+    
+    private static int digitCount(long value) {
+        int digits = 1;
+        while (digits < POWERS.length && value >= POWERS[digits]) {
+            digits++;
+        }
+        return digits;
+    }
+}
@@ -0,0 +1,364 @@
+package com.cryptoui.triggers;
+
+import com.cryptoui.exchange.OrderBook;
+import com.cryptoui.exchange.OrderType;
+import com.cryptoui.market.MarketListener;
+import com.cryptoui.market.MarketSnapshot;
+import com.cryptoui.market.MarketState;
+import com.cryptoui.model.Exchange;
+import com.cryptoui.model.Transaction.TransactionType;
+import com.cryptoui.model.User;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Price alerts, triggers and conditional orders evaluated against the tick stream.
+ * <p>
+ * Each symbol keeps its resting triggers in a {@link TriggerBook} whose thresholds are
+ * sorted by distance from the price, so a tick only visits the triggers it actually
+ * crosses: a symbol with millions of resting triggers and nothing crossed costs two
+ * comparisons per tick, and symbols without triggers are not visited at all.
+ * <p>
+ * A fired trigger is removed and either only notifies the {@link AlertListener}s or
+ * first places an order for its account on the {@link Exchange}. Conditional orders
+ * (stops, stop-limits, take-profits and trailing stops) are triggers that place a
+ * market or limit order; trailing stops follow the price in their own index, so they
+ * cost no more per tick than fixed levels. Orders are placed after the symbol's
+ * triggers are unlocked, so listeners and order fills may add or cancel triggers freely.
+ */
+public class AlertEngine implements MarketListener {
+    private final MarketState marketState;
+    private final Exchange exchange;
+    private final AtomicReferenceArray<TriggerBook> books;
+    private final List<AlertListener> listeners = new CopyOnWriteArrayList<>();
+    
+    // Ids of the symbols that have ever had a trigger, in the order they got one
+    private volatile int[] activeIds = new int[0];
+    
+    // Owner ids used in the books
+    private final Map<User, Integer> ownerIds = new ConcurrentHashMap<>();
+    private volatile User[] owners = new User[0];
+    
+    // Triggers fired by the tick being evaluated; confined to the tick thread
+    private final FiredTriggers fired = new FiredTriggers();
+    
+    public AlertEngine(MarketState marketState, Exchange exchange) {
+        this.marketState = marketState;
+        this.exchange = exchange;
+        this.books = new AtomicReferenceArray<>(marketState.capacity());
+    }
+    
+    /**
+     * Add an alert that only notifies the listeners
+     * @param user Account the alert belongs to
+     * @param symbol Cryptocurrency symbol
+     * @param condition Price condition
+     * @param value Price level, or the percentage for {@link Condition#MOVE_PERCENT}
+     * @return Id of the new alert
+     * @throws IllegalArgumentException if the symbol is not listed or the value is not positive
+     */
+    public long addAlert(User user, String symbol, Condition condition, double value) {
+        return addTrigger(user, symbol, condition, value, TriggerAction.NOTIFY, 0);
+    }
+    
+    /**
+     * Add a trigger. A condition that already holds fires on the next tick.
+     * @param user Account the trigger belongs to and trades for
+     * @param symbol Cryptocurrency symbol
+     * @param condition Price condition
+     * @param value Price level, or the percentage for {@link Condition#MOVE_PERCENT},
+     *              measured from the current price
+     * @param action What to do when the condition holds
+     * @param amount Amount of the market order placed by {@link TriggerAction#BUY} and
+     *               {@link TriggerAction#SELL}; ignored for notifications
+     * @return Id of the new trigger
+     * @throws IllegalArgumentException if the symbol is not listed, the value is not
+     *         positive or the order amount is below the symbol's lot
+     * @throws ArithmeticException if the order amount is not finite or too large
+     */
+    public long addTrigger(User user, String symbol, Condition condition, double value,
+                           TriggerAction action, double amount) {
+        int id = symbolId(symbol);
+        if (!(value > 0) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("Trigger value must be positive");
+        }
+        if (action != TriggerAction.NOTIFY) {
+            // Refuse now what the exchange would refuse when the trigger fires
+            exchange.validateOrder(symbol, OrderType.MARKET, 0, amount);
+        }
+        
+        double upper = 0;
+        double lower = 0;
+        switch (condition) {
+            case ABOVE:
+                upper = value;
+                break;
+            case BELOW:
+                lower = value;
+                break;
+            case MOVE_PERCENT:
+                double price = marketState.getPrice(id);
+                if (!(price > 0)) {
+                    throw new IllegalArgumentException("Symbol has no price yet: " + symbol);
+                }
+                upper = price * (1 + value / 100);
+                lower = price * (1 - value / 100);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown condition: " + condition);
+        }
+        
+        int owner = ownerOf(user);
+        TriggerBook book = book(id);
+        synchronized (book) {
+            return book.add(owner, upper, lower, action, amount, 0);
+        }
+    }
+    
+    /**
+     * Place a conditional order. Nothing is reserved while it rests, so the order it
+     * places is rejected if the account cannot cover it by then.
+     * @param user Account the order belongs to and trades for
+     * @param symbol Cryptocurrency symbol
+     * @param side Buy or sell
+     * @param type Kind of conditional order
+     * @param triggerPrice Stop or target price, or for {@link ConditionalOrderType#TRAILING_STOP}
+     *                     the trail in price units
+     * @param limitPrice Limit price of the order placed by {@link ConditionalOrderType#STOP_LIMIT};
+     *                   ignored otherwise
+     * @param amount Amount to trade
+     * @return Id of the conditional order, cancelled with {@link #cancelTrigger}
+     * @throws IllegalArgumentException if the symbol is not listed, a price is not positive
+     *         or the amount is below the symbol's lot
+     * @throws ArithmeticException if the amount or limit price is not finite, or they or
+     *         their product are too large
+     */
+    public long placeConditionalOrder(User user, String symbol, TransactionType side,
+                                      ConditionalOrderType type, double triggerPrice,
+                                      double limitPrice, double amount) {
+        int id = symbolId(symbol);
+        if (!(triggerPrice > 0) || Double.isInfinite(triggerPrice)) {
+            throw new IllegalArgumentException("Trigger price must be positive");
+        }
+        // Refuse now what the exchange would refuse when the order fires
+        boolean stopLimit = type == ConditionalOrderType.STOP_LIMIT;
+        exchange.validateOrder(symbol, stopLimit ? OrderType.LIMIT : OrderType.MARKET, limitPrice, amount);
+        
+        boolean buy = side == TransactionType.BUY;
+        TriggerAction action = buy ? TriggerAction.BUY : TriggerAction.SELL;
+        double upper = 0;
+        double lower = 0;
+        double limit = stopLimit ? limitPrice : 0;
+        switch (type) {
+            case STOP:
+            case STOP_LIMIT:
+                // A stop-limit triggers like a stop
+                if (buy) {
+                    upper = triggerPrice;
+                } else {
+                    lower = triggerPrice;
+                }
+                break;
+            case TAKE_PROFIT:
+                if (buy) {
+                    lower = triggerPrice;
+                } else {
+                    upper = triggerPrice;
+                }
+                break;
+            case TRAILING_STOP:
+                // Buy stops trail the lowest price and sell stops the highest
+                double price = marketState.getPrice(id);
+                if (!(price > 0)) {
+                    throw new IllegalArgumentException("Symbol has no price yet: " + symbol);
+                }
+                return addTrailing(user, id, buy, triggerPrice, price, action, amount);
+            default:
+                throw new IllegalArgumentException("Unknown conditional order type: " + type);
+        }
+        
+        int owner = ownerOf(user);
+        TriggerBook book = book(id);
+        synchronized (book) {
+            return book.add(owner, upper, lower, action, amount, limit);
+        }
+    }
+    
+    /**
+     * Cancel a resting trigger, alert or conditional order
+     * @param user Account that added the trigger
+     * @param symbol Cryptocurrency symbol
+     * @param triggerId Id returned when the trigger was added
+     * @return false if the trigger already fired, was cancelled or belongs to another account
+     */
+    public boolean cancelTrigger(User user, String symbol, long triggerId) {
+        int id = symbolId(symbol);
+        Integer owner = ownerIds.get(user);
+        TriggerBook book = books.get(id);
+        if (owner == null || book == null) {
+            return false;
+        }
+        synchronized (book) {
+            return book.cancel(triggerId, owner);
+        }
+    }
+    
+    /**
+     * Cancel every resting trigger, alert and conditional order of an account
+     * @return Number cancelled
+     */
+    public int cancelAll(User user) {
+        Integer owner = ownerIds.get(user);
+        if (owner == null) {
+            return 0;
+        }
+        int cancelled = 0;
+        for (int id : activeIds) {
+            TriggerBook book = books.get(id);
+            synchronized (book) {
+                cancelled += book.cancelAll(owner);
+            }
+        }
+        return cancelled;
+    }
+    
+    /**
+     * Get the number of resting triggers, alerts and conditional orders of a symbol
+     */
+    public int getTriggerCount(String symbol) {
+        TriggerBook book = books.get(symbolId(symbol));
+        if (book == null) {
+            return 0;
+        }
+        synchronized (book) {
+            return book.getTriggerCount();
+        }
+    }
+    
+    public void addAlertListener(AlertListener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeAlertListener(AlertListener listener) {
+        listeners.remove(listener);
+    }
+    
+    /**
+     * Fire the triggers crossed by the tick's prices
+     */
+    @Override
+    public void onSnapshot(MarketSnapshot snapshot) {
+        int[] ids = activeIds;
+        for (int id : ids) {
+            if (id >= snapshot.size()) {
+                continue;
+            }
+            double price = snapshot.getPrice(id);
+            if (!(price > 0)) {
+                continue;
+            }
+            
+            TriggerBook book = books.get(id);
+            fired.clear();
+            synchronized (book) {
+                book.evaluate(price, fired);
+            }
+            for (int i = 0; i < fired.size(); i++) {
+                act(snapshot.getSymbol(id), price, i);
+            }
+        }
+    }
+    
+    /**
+     * Place the order of one fired trigger, if any, and notify the listeners.
+     * The trigger is already out of its book, so an order that fails is reported
+     * with no order id rather than stopping the triggers fired after it.
+     */
+    private void act(String symbol, double price, int index) {
+        User user = owners[fired.getOwner(index)];
+        TriggerAction action = fired.getAction(index);
+        long orderId = OrderBook.NO_ORDER;
+        if (action != TriggerAction.NOTIFY) {
+            TransactionType side = action == TriggerAction.BUY ? TransactionType.BUY : TransactionType.SELL;
+            double limit = fired.getLimit(index);
+            OrderType type = limit > 0 ? OrderType.LIMIT : OrderType.MARKET;
+            try {
+                orderId = exchange.submitOrder(user, symbol, side, type, limit, fired.getAmount(index));
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+        
+        long triggerId = fired.getId(index);
+        for (AlertListener listener : listeners) {
+            try {
+                listener.onAlert(user, symbol, triggerId, action, price, orderId);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+    
+    private long addTrailing(User user, int id, boolean rising, double trail, double price,
+                             TriggerAction action, double amount) {
+        int owner = ownerOf(user);
+        TriggerBook book = book(id);
+        synchronized (book) {
+            return book.addTrailing(owner, rising, trail, price, action, amount, 0);
+        }
+    }
+    
+    private int symbolId(String symbol) {
+        int id = marketState.idOf(symbol);
+        if (id < 0) {
+            throw new IllegalArgumentException("Symbol is not listed: " + symbol);
+        }
+        return id;
+    }
+    
+    private TriggerBook book(int id) {
+        TriggerBook book = books.get(id);
+        return book != null ? book : activate(id);
+    }
+    
+    /**
+     * Create a symbol's book and start evaluating it on every tick
+     */
+    private synchronized TriggerBook activate(int id) {
+        TriggerBook book = books.get(id);
+        if (book != null) {
+            return book;
+        }
+        book = new TriggerBook();
+        books.set(id, book);
+        int[] current = activeIds;
+        int[] grown = Arrays.copyOf(current, current.length + 1);
+        grown[current.length] = id;
+        activeIds = grown;
+        return book;
+    }
+    
+    private int ownerOf(User user) {
+        Integer owner = ownerIds.get(user);
+        return owner != null ? owner : register(user);
+    }
+    
+    private synchronized int register(User user) {
+        Integer owner = ownerIds.get(user);
+        if (owner != null) {
+            return owner;
+        }
+        User[] current = owners;
+        int id = current.length;
+        User[] grown = Arrays.copyOf(current, id + 1);
+        grown[id] = user;
+        owners = grown;
+        ownerIds.put(user, id);
+        return id;
+    }
+}
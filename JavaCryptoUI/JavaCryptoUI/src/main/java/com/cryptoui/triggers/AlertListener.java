@@ -0,0 +1,24 @@
+package com.cryptoui.triggers;
+
+import com.cryptoui.model.User;
+
+/**
+ * Receives the triggers fired by an {@link AlertEngine}.
+ * Called on the thread that delivered the tick, so implementations that touch UI
+ * state must hand off to the UI thread themselves.
+ */
+public interface AlertListener {
+    
+    /**
+     * Handle one fired trigger
+     * @param user Account that added the trigger
+     * @param symbol Cryptocurrency symbol
+     * @param triggerId Id returned when the trigger was added
+     * @param action What the trigger did
+     * @param price Price that satisfied the condition
+     * @param orderId Result of {@link com.cryptoui.model.Exchange#submitOrder} for orders,
+     *                {@link com.cryptoui.exchange.OrderBook#NO_ORDER} for notifications and
+     *                for orders the exchange refused with an exception
+     */
+    void onAlert(User user, String symbol, long triggerId, TriggerAction action, double price, long orderId);
+}
@@ -0,0 +1,14 @@
+package com.cryptoui.triggers;
+
+/**
+ * Price condition of a trigger. Each trigger fires once, on the first tick that
+ * satisfies it, and is then removed.
+ */
+public enum Condition {
+    /** The price is at or above a level */
+    ABOVE,
+    /** The price is at or below a level */
+    BELOW,
+    /** The price has moved up or down by a percentage of its price when the trigger was added */
+    MOVE_PERCENT
+}
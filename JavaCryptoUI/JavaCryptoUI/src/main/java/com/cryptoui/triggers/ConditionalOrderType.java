@@ -0,0 +1,16 @@
+package com.cryptoui.triggers;
+
+/**
+ * Kind of a conditional order. A conditional order rests outside the order book until
+ * its trigger is reached, then submits a regular order and is removed.
+ */
+public enum ConditionalOrderType {
+    /** Market order once the price reaches the stop: rising for a buy, falling for a sell */
+    STOP,
+    /** Limit order once the price reaches the stop: rising for a buy, falling for a sell */
+    STOP_LIMIT,
+    /** Market order once the price reaches the target: falling for a buy, rising for a sell */
+    TAKE_PROFIT,
+    /** Market order once the price moves a trail against its best level since the order was placed */
+    TRAILING_STOP
+}
@@ -0,0 +1,64 @@
+package com.cryptoui.triggers;
+
+import java.util.Arrays;
+
+/**
+ * Reusable buffer of the triggers fired by one evaluation, copied out of their
+ * {@link TriggerBook} so they can be acted on after the book is unlocked.
+ * Confined to the thread evaluating the books.
+ */
+final class FiredTriggers {
+    private static final TriggerAction[] ACTIONS = TriggerAction.values();
+    
+    private long[] ids = new long[16];
+    private int[] owners = new int[16];
+    private byte[] actions = new byte[16];
+    private double[] amounts = new double[16];
+    private double[] limits = new double[16];
+    private int size;
+    
+    void clear() {
+        size = 0;
+    }
+    
+    void add(long id, int owner, byte action, double amount, double limit) {
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            owners = Arrays.copyOf(owners, capacity);
+            actions = Arrays.copyOf(actions, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            limits = Arrays.copyOf(limits, capacity);
+        }
+        ids[size] = id;
+        owners[size] = owner;
+        actions[size] = action;
+        amounts[size] = amount;
+        limits[size] = limit;
+        size++;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    long getId(int index) {
+        return ids[index];
+    }
+    
+    int getOwner(int index) {
+        return owners[index];
+    }
+    
+    TriggerAction getAction(int index) {
+        return ACTIONS[actions[index]];
+    }
+    
+    double getAmount(int index) {
+        return amounts[index];
+    }
+    
+    double getLimit(int index) {
+        return limits[index];
+    }
+}
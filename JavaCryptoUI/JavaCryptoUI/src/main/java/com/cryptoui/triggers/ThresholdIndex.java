@@ -0,0 +1,181 @@
+package com.cryptoui.triggers;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ * Thresholds of one crossing direction for one symbol, each tagged with an id.
+ * <p>
+ * Entries are sorted by key in descending order, where the key is the threshold for
+ * rising crossings and the negated threshold for falling ones, so the threshold
+ * nearest the price is always last. A tick pops the crossed suffix and stops at the
+ * first threshold that was not crossed: a tick that crosses nothing costs one
+ * comparison however many thresholds rest. New entries are buffered and merged in one
+ * pass before the next crossing check, so bulk registration stays O(n log n).
+ * <p>
+ * Not thread-safe; callers must serialize access.
+ */
+final class ThresholdIndex {
+    private static final int INITIAL_SIZE = 16;
+    
+    private final boolean rising;
+    
+    // Sorted entries, nearest threshold last
+    private double[] keys = new double[INITIAL_SIZE];
+    private long[] ids = new long[INITIAL_SIZE];
+    private int size;
+    
+    // Entries added since the last merge, in arrival order
+    private double[] pendingKeys = new double[INITIAL_SIZE];
+    private long[] pendingIds = new long[INITIAL_SIZE];
+    private int pendingSize;
+    
+    /**
+     * @param rising true for thresholds crossed by the price rising to or above them,
+     *               false for thresholds crossed by the price falling to or below them
+     */
+    ThresholdIndex(boolean rising) {
+        this.rising = rising;
+    }
+    
+    void add(double threshold, long id) {
+        if (pendingSize == pendingKeys.length) {
+            pendingKeys = Arrays.copyOf(pendingKeys, pendingSize * 2);
+            pendingIds = Arrays.copyOf(pendingIds, pendingSize * 2);
+        }
+        pendingKeys[pendingSize] = keyOf(threshold);
+        pendingIds[pendingSize] = id;
+        pendingSize++;
+    }
+    
+    /**
+     * Remove every entry crossed at a price
+     * @param out Receives the ids of the crossed entries, nearest threshold first
+     * @return Number of ids written, at most {@code out.length}; call again while the
+     *         result equals {@code out.length}
+     */
+    int drainCrossed(double price, long[] out) {
+        if (pendingSize > 0) {
+            merge();
+        }
+        double key = keyOf(price);
+        int count = 0;
+        while (size > 0 && keys[size - 1] <= key && count < out.length) {
+            out[count++] = ids[--size];
+        }
+        return count;
+    }
+    
+    /**
+     * Drop entries whose ids are no longer live, e.g. cancelled triggers
+     * @return Number of entries dropped
+     */
+    int compact(LongPredicate live) {
+        if (pendingSize > 0) {
+            merge();
+        }
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (live.test(ids[i])) {
+                keys[kept] = keys[i];
+                ids[kept] = ids[i];
+                kept++;
+            }
+        }
+        int dropped = size - kept;
+        size = kept;
+        return dropped;
+    }
+    
+    /**
+     * Get the number of entries, including any not yet merged
+     */
+    int size() {
+        return size + pendingSize;
+    }
+    
+    private double keyOf(double threshold) {
+        return rising ? threshold : -threshold;
+    }
+    
+    /**
+     * Sort the pending entries and merge them into the sorted ones, from the back
+     */
+    private void merge() {
+        sortDescending(pendingKeys, pendingIds, 0, pendingSize - 1);
+        int total = size + pendingSize;
+        if (total > keys.length) {
+            int capacity = Math.max(total, keys.length * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+        }
+        int i = size - 1;
+        int j = pendingSize - 1;
+        for (int k = total - 1; j >= 0; k--) {
+            // On ties indexed entries stay nearer the end, so older thresholds pop first
+            if (i >= 0 && keys[i] <= pendingKeys[j]) {
+                keys[k] = keys[i];
+                ids[k] = ids[i];
+                i--;
+            } else {
+                keys[k] = pendingKeys[j];
+                ids[k] = pendingIds[j];
+                j--;
+            }
+        }
+        size = total;
+        pendingSize = 0;
+    }
+    
+    /**
+     * Quicksort of parallel key and id arrays by descending key
+     */
+    private static void sortDescending(double[] keys, long[] ids, int low, int high) {
+        while (low < high) {
+            if (high - low < 16) {
+                for (int i = low + 1; i <= high; i++) {
+                    double key = keys[i];
+                    long id = ids[i];
+                    int j = i - 1;
+                    while (j >= low && keys[j] < key) {
+                        keys[j + 1] = keys[j];
+                        ids[j + 1] = ids[j];
+                        j--;
+                    }
+                    keys[j + 1] = key;
+                    ids[j + 1] = id;
+                }
+                return;
+            }
+            double pivot = keys[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (keys[i] > pivot) {
+                    i++;
+                }
+                while (keys[j] < pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    double key = keys[i];
+                    keys[i] = keys[j];
+                    keys[j] = key;
+                    long id = ids[i];
+                    ids[i] = ids[j];
+                    ids[j] = id;
+                    i++;
+                    j--;
+                }
+            }
+            // Recurse into the smaller part to bound the stack depth
+            if (j - low < high - i) {
+                sortDescending(keys, ids, low, j);
+                low = i;
+            } else {
+                sortDescending(keys, ids, i, high);
+                high = j;
+            }
+        }
+    }
+}
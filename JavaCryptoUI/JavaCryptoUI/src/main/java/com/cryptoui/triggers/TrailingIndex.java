@@ -0,0 +1,407 @@
+package com.cryptoui.triggers;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ * Trailing stops of one crossing direction for one symbol, each tagged with an id.
+ * <p>
+ * A falling stop follows the highest price seen since it was added and fires when the
+ * price drops its trail below that peak; a rising stop mirrors this below the lowest
+ * price. Working with keys that are the price for falling stops and the negated price
+ * for rising ones, a stop fires once the key is at most its peak key minus its trail.
+ * <p>
+ * Every stop added at the same key shares a peak from then on, so stops are kept in
+ * groups, one per distinct peak, on a stack ordered by peak with the lowest on top.
+ * A new high merges the groups it passes into one in amortized constant time, each
+ * group's trails sit in a pairing heap so the nearest is at its root, and the groups'
+ * levels sit in a max-heap. A tick that sets no new high and crosses nothing therefore
+ * costs two comparisons however many stops rest. Stale heap entries are skipped when
+ * reached and rebuilt away once they outnumber the groups.
+ * <p>
+ * Not thread-safe; callers must serialize access.
+ */
+final class TrailingIndex {
+    private static final int NIL = -1;
+    private static final int INITIAL_SIZE = 16;
+    // Level heap entries tolerated beyond one per group before it is rebuilt
+    private static final int MIN_REBUILD = 64;
+    
+    private final boolean rising;
+    
+    // Pairing heap nodes by trail, nearest first; sibling links the free nodes
+    private long[] nodeIds = new long[INITIAL_SIZE];
+    private double[] trails = new double[INITIAL_SIZE];
+    private int[] children = new int[INITIAL_SIZE];
+    private int[] siblings = new int[INITIAL_SIZE];
+    private int nodesUsed;
+    private int freeNode = NIL;
+    private int size;
+    
+    // Groups of stops sharing a peak; roots link the free groups
+    private double[] peaks = new double[INITIAL_SIZE];
+    private int[] roots = new int[INITIAL_SIZE];
+    private int[] versions = new int[INITIAL_SIZE];
+    private int groupsUsed;
+    private int freeGroup = NIL;
+    
+    // Groups by peak, highest at the bottom
+    private int[] stack = new int[INITIAL_SIZE];
+    private int stackSize;
+    
+    // Max-heap of group levels; an entry is stale once its group's version moves on
+    private double[] levels = new double[INITIAL_SIZE];
+    private int[] levelGroups = new int[INITIAL_SIZE];
+    private int[] levelVersions = new int[INITIAL_SIZE];
+    private int heapSize;
+    
+    // Scratch for walking a group's heap during compaction
+    private int[] walk = new int[INITIAL_SIZE];
+    
+    /**
+     * @param rising true for stops that fire when the price rises a trail above its
+     *               lowest point, false for stops that fire when it falls a trail below
+     *               its highest point
+     */
+    TrailingIndex(boolean rising) {
+        this.rising = rising;
+    }
+    
+    /**
+     * Add a stop
+     * @param trail Distance from the peak at which the stop fires, in price units
+     * @param id Id reported when the stop fires
+     * @param price Current price, the stop's first peak
+     */
+    void add(double trail, long id, double price) {
+        double key = keyOf(price);
+        advance(key);
+        
+        int node = allocateNode(id, trail);
+        int group;
+        if (stackSize > 0 && peaks[stack[stackSize - 1]] == key) {
+            group = stack[stackSize - 1];
+        } else {
+            group = allocateGroup(key);
+            push(group);
+        }
+        roots[group] = meld(roots[group], node);
+        if (roots[group] == node) {
+            // The new stop is the group's nearest, so its level rose
+            versions[group]++;
+            pushLevel(group);
+        }
+        size++;
+    }
+    
+    /**
+     * Move the peaks to a price and remove every stop it crosses
+     * @param out Receives the ids of the crossed stops
+     * @return Number of ids written, at most {@code out.length}; call again while the
+     *         result equals {@code out.length}
+     */
+    int drainCrossed(double price, long[] out) {
+        double key = keyOf(price);
+        advance(key);
+        
+        int count = 0;
+        while (heapSize > 0 && levels[0] >= key && count < out.length) {
+            int group = levelGroups[0];
+            int version = levelVersions[0];
+            popLevel();
+            if (versions[group] != version) {
+                continue;
+            }
+            
+            int root = roots[group];
+            double peak = peaks[group];
+            while (root != NIL && count < out.length && peak - trails[root] >= key) {
+                out[count++] = nodeIds[root];
+                root = popRoot(root);
+                size--;
+            }
+            roots[group] = root;
+            versions[group]++;
+            if (root != NIL) {
+                pushLevel(group);
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Drop stops whose ids are no longer live, e.g. cancelled orders
+     * @return Number of stops dropped
+     */
+    int compact(LongPredicate live) {
+        int dropped = 0;
+        int kept = 0;
+        for (int i = 0; i < stackSize; i++) {
+            int group = stack[i];
+            int root = NIL;
+            int pending = 0;
+            if (roots[group] != NIL) {
+                walk[pending++] = roots[group];
+            }
+            while (pending > 0) {
+                int node = walk[--pending];
+                int child = children[node];
+                while (child != NIL) {
+                    if (pending == walk.length) {
+                        walk = Arrays.copyOf(walk, pending * 2);
+                    }
+                    walk[pending++] = child;
+                    child = siblings[child];
+                }
+                children[node] = NIL;
+                siblings[node] = NIL;
+                if (live.test(nodeIds[node])) {
+                    root = meld(root, node);
+                } else {
+                    releaseNode(node);
+                    dropped++;
+                }
+            }
+            
+            if (root == NIL) {
+                releaseGroup(group);
+            } else {
+                roots[group] = root;
+                stack[kept++] = group;
+            }
+        }
+        stackSize = kept;
+        size -= dropped;
+        rebuildLevels();
+        return dropped;
+    }
+    
+    /**
+     * Get the number of stops
+     */
+    int size() {
+        return size;
+    }
+    
+    private double keyOf(double price) {
+        return rising ? -price : price;
+    }
+    
+    /**
+     * Raise every peak below a key to it, merging the groups that now share it
+     */
+    private void advance(double key) {
+        if (stackSize == 0 || peaks[stack[stackSize - 1]] > key) {
+            return;
+        }
+        int root = NIL;
+        while (stackSize > 0 && peaks[stack[stackSize - 1]] <= key) {
+            int group = stack[--stackSize];
+            root = meld(root, roots[group]);
+            releaseGroup(group);
+        }
+        if (root != NIL) {
+            int group = allocateGroup(key);
+            roots[group] = root;
+            push(group);
+            pushLevel(group);
+        }
+    }
+    
+    /**
+     * Link two heaps whose roots have no siblings
+     * @return Root of the linked heap
+     */
+    private int meld(int a, int b) {
+        if (a == NIL) {
+            return b;
+        }
+        if (b == NIL) {
+            return a;
+        }
+        if (trails[b] < trails[a]) {
+            int swap = a;
+            a = b;
+            b = swap;
+        }
+        siblings[b] = children[a];
+        children[a] = b;
+        return a;
+    }
+    
+    /**
+     * Remove a heap's root, pairing its children left to right and linking the pairs
+     * right to left
+     * @return Root of the remaining heap
+     */
+    private int popRoot(int root) {
+        int next = children[root];
+        releaseNode(root);
+        
+        int pairs = NIL;
+        while (next != NIL) {
+            int a = next;
+            int b = siblings[a];
+            if (b == NIL) {
+                siblings[a] = pairs;
+                pairs = a;
+                break;
+            }
+            next = siblings[b];
+            siblings[a] = NIL;
+            siblings[b] = NIL;
+            int paired = meld(a, b);
+            siblings[paired] = pairs;
+            pairs = paired;
+        }
+        
+        int result = NIL;
+        while (pairs != NIL) {
+            int pair = pairs;
+            pairs = siblings[pair];
+            siblings[pair] = NIL;
+            result = meld(result, pair);
+        }
+        return result;
+    }
+    
+    private void push(int group) {
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+        stack[stackSize++] = group;
+    }
+    
+    private void pushLevel(int group) {
+        if (heapSize > 2 * stackSize + MIN_REBUILD) {
+            // Mostly stale entries; the rebuild includes this group
+            rebuildLevels();
+            return;
+        }
+        if (heapSize == levels.length) {
+            levels = Arrays.copyOf(levels, heapSize * 2);
+            levelGroups = Arrays.copyOf(levelGroups, heapSize * 2);
+            levelVersions = Arrays.copyOf(levelVersions, heapSize * 2);
+        }
+        double level = peaks[group] - trails[roots[group]];
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (levels[parent] >= level) {
+                break;
+            }
+            moveLevel(parent, i);
+            i = parent;
+        }
+        levels[i] = level;
+        levelGroups[i] = group;
+        levelVersions[i] = versions[group];
+    }
+    
+    private void popLevel() {
+        heapSize--;
+        if (heapSize == 0) {
+            return;
+        }
+        double level = levels[heapSize];
+        int group = levelGroups[heapSize];
+        int version = levelVersions[heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && levels[child + 1] > levels[child]) {
+                child++;
+            }
+            if (levels[child] <= level) {
+                break;
+            }
+            moveLevel(child, i);
+            i = child;
+        }
+        levels[i] = level;
+        levelGroups[i] = group;
+        levelVersions[i] = version;
+    }
+    
+    private void moveLevel(int from, int to) {
+        levels[to] = levels[from];
+        levelGroups[to] = levelGroups[from];
+        levelVersions[to] = levelVersions[from];
+    }
+    
+    /**
+     * Replace the level heap with one current entry per group, dropping emptied groups
+     */
+    private void rebuildLevels() {
+        heapSize = 0;
+        int kept = 0;
+        for (int i = 0; i < stackSize; i++) {
+            int group = stack[i];
+            if (roots[group] == NIL) {
+                releaseGroup(group);
+            } else {
+                stack[kept++] = group;
+            }
+        }
+        stackSize = kept;
+        for (int i = 0; i < stackSize; i++) {
+            int group = stack[i];
+            versions[group]++;
+            pushLevel(group);
+        }
+    }
+    
+    private int allocateNode(long id, double trail) {
+        int node = freeNode;
+        if (node != NIL) {
+            freeNode = siblings[node];
+        } else {
+            if (nodesUsed == nodeIds.length) {
+                int capacity = nodesUsed * 2;
+                nodeIds = Arrays.copyOf(nodeIds, capacity);
+                trails = Arrays.copyOf(trails, capacity);
+                children = Arrays.copyOf(children, capacity);
+                siblings = Arrays.copyOf(siblings, capacity);
+            }
+            node = nodesUsed++;
+        }
+        nodeIds[node] = id;
+        trails[node] = trail;
+        children[node] = NIL;
+        siblings[node] = NIL;
+        return node;
+    }
+    
+    private void releaseNode(int node) {
+        siblings[node] = freeNode;
+        freeNode = node;
+    }
+    
+    private int allocateGroup(double peak) {
+        int group = freeGroup;
+        if (group != NIL) {
+            freeGroup = roots[group];
+        } else {
+            if (groupsUsed == peaks.length) {
+                int capacity = groupsUsed * 2;
+                peaks = Arrays.copyOf(peaks, capacity);
+                roots = Arrays.copyOf(roots, capacity);
+                versions = Arrays.copyOf(versions, capacity);
+            }
+            group = groupsUsed++;
+        }
+        peaks[group] = peak;
+        roots[group] = NIL;
+        return group;
+    }
+    
+    private void releaseGroup(int group) {
+        // Versions only grow, so entries left in the level heap never match a reuse
+        versions[group]++;
+        roots[group] = freeGroup;
+        freeGroup = group;
+    }
+}
@@ -0,0 +1,13 @@
+package com.cryptoui.triggers;
+
+/**
+ * What a trigger does when it fires
+ */
+public enum TriggerAction {
+    /** Only notify the {@link AlertListener}s */
+    NOTIFY,
+    /** Place a market buy for the trigger's account, then notify */
+    BUY,
+    /** Place a market sell for the trigger's account, then notify */
+    SELL
+}
@@ -0,0 +1,254 @@
+package com.cryptoui.triggers;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ * Resting triggers of a single symbol.
+ * <p>
+ * Triggers live in a pool of parallel primitive arrays, and their thresholds in two
+ * {@link ThresholdIndex}es: one for levels crossed from below and one for levels
+ * crossed from above. A percent-move trigger has an entry in each and fires on
+ * whichever is crossed first. Trailing triggers follow the price in two
+ * {@link TrailingIndex}es instead. Cancelled and fired triggers leave their other
+ * entries behind; they are skipped when reached and swept out once they outnumber the
+ * live entries.
+ * <p>
+ * Trigger ids carry a generation, like order ids, so a stale id never resolves to a
+ * reused slot. Not thread-safe; callers must serialize access to a book.
+ */
+final class TriggerBook {
+    private static final int NIL = -1;
+    private static final int INITIAL_TRIGGERS = 64;
+    private static final int DRAIN_BATCH = 256;
+    // Dead index entries tolerated before a sweep is considered
+    private static final int MIN_SWEEP = 1024;
+    
+    // Trigger pool, indexed by slot; ids are 0 for free slots
+    private long[] triggerIds = new long[INITIAL_TRIGGERS];
+    private int[] owners = new int[INITIAL_TRIGGERS];
+    private byte[] actions = new byte[INITIAL_TRIGGERS];
+    private double[] amounts = new double[INITIAL_TRIGGERS];
+    private double[] limits = new double[INITIAL_TRIGGERS];
+    private byte[] entries = new byte[INITIAL_TRIGGERS];
+    private int[] generations = new int[INITIAL_TRIGGERS];
+    private int[] nextFree = new int[INITIAL_TRIGGERS];
+    private int slotsUsed;
+    private int freeSlot = NIL;
+    private int liveTriggers;
+    
+    private final ThresholdIndex rising = new ThresholdIndex(true);
+    private final ThresholdIndex falling = new ThresholdIndex(false);
+    private final TrailingIndex trailingUp = new TrailingIndex(true);
+    private final TrailingIndex trailingDown = new TrailingIndex(false);
+    private final LongPredicate live = this::isLive;
+    private int deadEntries;
+    
+    // Ids popped from an index, waiting to be resolved
+    private final long[] crossed = new long[DRAIN_BATCH];
+    
+    /**
+     * Add a trigger
+     * @param owner Owner id reported when the trigger fires
+     * @param upper Level that fires the trigger when reached from below, or 0 for none
+     * @param lower Level that fires the trigger when reached from above, or 0 for none
+     * @param action Action reported when the trigger fires
+     * @param amount Order amount reported when the trigger fires
+     * @param limit Order limit price reported when the trigger fires, or 0 for a market order
+     * @return Id of the new trigger
+     */
+    long add(int owner, double upper, double lower, TriggerAction action, double amount, double limit) {
+        int slot = allocate(owner, action, amount, limit);
+        long triggerId = triggerIds[slot];
+        if (upper > 0) {
+            rising.add(upper, triggerId);
+            entries[slot]++;
+        }
+        if (lower > 0) {
+            falling.add(lower, triggerId);
+            entries[slot]++;
+        }
+        return triggerId;
+    }
+    
+    /**
+     * Add a trigger that trails the price
+     * @param owner Owner id reported when the trigger fires
+     * @param rising true to fire when the price rises a trail above its lowest point since
+     *               now, false to fire when it falls a trail below its highest point
+     * @param trail Distance in price units
+     * @param price Current price
+     * @param action Action reported when the trigger fires
+     * @param amount Order amount reported when the trigger fires
+     * @param limit Order limit price reported when the trigger fires, or 0 for a market order
+     * @return Id of the new trigger
+     */
+    long addTrailing(int owner, boolean rising, double trail, double price,
+                     TriggerAction action, double amount, double limit) {
+        int slot = allocate(owner, action, amount, limit);
+        long triggerId = triggerIds[slot];
+        (rising ? trailingUp : trailingDown).add(trail, triggerId, price);
+        entries[slot] = 1;
+        return triggerId;
+    }
+    
+    /**
+     * Cancel a trigger
+     * @return false if the trigger is not live or belongs to another owner
+     */
+    boolean cancel(long triggerId, int owner) {
+        int slot = liveSlot(triggerId);
+        if (slot == NIL || owners[slot] != owner) {
+            return false;
+        }
+        deadEntries += entries[slot];
+        release(slot);
+        sweepIfNeeded();
+        return true;
+    }
+    
+    /**
+     * Cancel every trigger of an owner. Visits the whole pool, so it is meant for rare
+     * events such as an account reset.
+     * @return Number of triggers cancelled
+     */
+    int cancelAll(int owner) {
+        int cancelled = 0;
+        for (int slot = 0; slot < slotsUsed; slot++) {
+            if (triggerIds[slot] != 0 && owners[slot] == owner) {
+                deadEntries += entries[slot];
+                release(slot);
+                cancelled++;
+            }
+        }
+        sweepIfNeeded();
+        return cancelled;
+    }
+    
+    /**
+     * Fire every trigger whose condition holds at a price, removing it from the book
+     * @param fired Receives the fired triggers, after any already in it
+     * @return Number of triggers fired
+     */
+    int evaluate(double price, FiredTriggers fired) {
+        int before = fired.size();
+        drain(rising, price, fired);
+        drain(falling, price, fired);
+        drainTrailing(trailingUp, price, fired);
+        drainTrailing(trailingDown, price, fired);
+        int count = fired.size() - before;
+        if (count > 0) {
+            sweepIfNeeded();
+        }
+        return count;
+    }
+    
+    boolean isLive(long triggerId) {
+        return liveSlot(triggerId) != NIL;
+    }
+    
+    int getTriggerCount() {
+        return liveTriggers;
+    }
+    
+    private void drain(ThresholdIndex index, double price, FiredTriggers fired) {
+        int count;
+        do {
+            count = index.drainCrossed(price, crossed);
+            fire(count, fired);
+        } while (count == crossed.length);
+    }
+    
+    private void drainTrailing(TrailingIndex index, double price, FiredTriggers fired) {
+        int count;
+        do {
+            count = index.drainCrossed(price, crossed);
+            fire(count, fired);
+        } while (count == crossed.length);
+    }
+    
+    /**
+     * Fire the live triggers among the ids just popped from an index
+     */
+    private void fire(int count, FiredTriggers fired) {
+        for (int i = 0; i < count; i++) {
+            int slot = liveSlot(crossed[i]);
+            if (slot == NIL) {
+                // Left behind by a cancelled trigger or the other side of a fired one
+                deadEntries--;
+            } else {
+                fired.add(triggerIds[slot], owners[slot], actions[slot], amounts[slot], limits[slot]);
+                // The entry just popped is gone; any other entry of the trigger is now dead
+                deadEntries += entries[slot] - 1;
+                release(slot);
+            }
+        }
+    }
+    
+    /**
+     * Sweep dead entries out of the indexes once they outnumber the live ones, so
+     * cancelled triggers cost memory and merge time only temporarily
+     */
+    private void sweepIfNeeded() {
+        int indexed = rising.size() + falling.size() + trailingUp.size() + trailingDown.size();
+        if (deadEntries > MIN_SWEEP && deadEntries > indexed - deadEntries) {
+            deadEntries -= rising.compact(live) + falling.compact(live)
+                + trailingUp.compact(live) + trailingDown.compact(live);
+        }
+    }
+    
+    /**
+     * Take a free slot and fill in a new trigger without index entries
+     */
+    private int allocate(int owner, TriggerAction action, double amount, double limit) {
+        int slot = freeSlot;
+        if (slot != NIL) {
+            freeSlot = nextFree[slot];
+        } else {
+            slot = grow();
+        }
+        triggerIds[slot] = ((long) generations[slot] << 32) | slot;
+        owners[slot] = owner;
+        actions[slot] = (byte) action.ordinal();
+        amounts[slot] = amount;
+        limits[slot] = limit;
+        entries[slot] = 0;
+        liveTriggers++;
+        return slot;
+    }
+    
+    private int grow() {
+        if (slotsUsed == triggerIds.length) {
+            int capacity = triggerIds.length * 2;
+            triggerIds = Arrays.copyOf(triggerIds, capacity);
+            owners = Arrays.copyOf(owners, capacity);
+            actions = Arrays.copyOf(actions, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            limits = Arrays.copyOf(limits, capacity);
+            entries = Arrays.copyOf(entries, capacity);
+            generations = Arrays.copyOf(generations, capacity);
+            nextFree = Arrays.copyOf(nextFree, capacity);
+        }
+        int slot = slotsUsed++;
+        generations[slot] = 1;
+        return slot;
+    }
+    
+    private void release(int slot) {
+        triggerIds[slot] = 0;
+        // Bump the generation so stale ids of this slot no longer resolve; never reach 0
+        int generation = (generations[slot] + 1) & Integer.MAX_VALUE;
+        generations[slot] = generation == 0 ? 1 : generation;
+        nextFree[slot] = freeSlot;
+        freeSlot = slot;
+        liveTriggers--;
+    }
+    
+    private int liveSlot(long triggerId) {
+        int slot = (int) triggerId;
+        if (triggerId == 0 || slot < 0 || slot >= slotsUsed || triggerIds[slot] != triggerId) {
+            return NIL;
+        }
+        return slot;
+    }
+}
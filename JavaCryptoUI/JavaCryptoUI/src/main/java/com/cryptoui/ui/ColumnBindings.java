@@ -0,0 +1,30 @@
+package com.cryptoui.ui;
+
+import javafx.beans.value.ObservableValue;
+import javafx.scene.control.TableColumn;
+
+import java.util.function.Function;
+
+/**
+ * Typed cell value bindings for table columns.
+ * A column is bound to a method reference that returns the row's property, e.g.
+ * {@code bind(priceColumn, MarketRow::priceProperty)}, instead of a
+ * {@link javafx.scene.control.cell.PropertyValueFactory} that looks the getter up by
+ * name through reflection. The accessor is checked at compile time, each cell update
+ * is a direct call, and the row classes need not be opened to {@code javafx.base},
+ * so the bindings also work in a jlink image.
+ */
+public final class ColumnBindings {
+    
+    private ColumnBindings() {
+    }
+    
+    /**
+     * Bind a column to one property of its rows
+     * @param column Column to bind
+     * @param property Accessor returning the property shown in the column
+     */
+    public static <S, T> void bind(TableColumn<S, T> column, Function<S, ObservableValue<T>> property) {
+        column.setCellValueFactory(cell -> property.apply(cell.getValue()));
+    }
+}
@@ -0,0 +1,211 @@
+package com.cryptoui.ui;
+
+/**
+ * Price series that keeps only a min/max summary of its points, for charting.
+ * <p>
+ * Points fall into buckets of a fixed number of consecutive points, and each bucket
+ * keeps just its lowest and highest point, so spikes survive decimation. Appending is
+ * O(1): only the newest bucket changes. When the buckets run out the bucket size
+ * doubles by merging neighbours, until the series spans its window; after that the
+ * oldest bucket is dropped for each new one. Memory depends only on the bucket count,
+ * so a window of millions of points costs a few thousand buckets.
+ * <p>
+ * Not thread-safe; callers synchronize on the series.
+ */
+public final class DecimatedSeries {
+    private final int bucketCapacity;
+    private final int mask;
+    private final long windowPoints;
+    
+    private long[] minTimes;
+    private double[] minValues;
+    private long[] maxTimes;
+    private double[] maxValues;
+    
+    // Spare columns the buckets are merged into when the bucket size doubles
+    private long[] spareMinTimes;
+    private double[] spareMinValues;
+    private long[] spareMaxTimes;
+    private double[] spareMaxValues;
+    
+    private long bucketSize = 1;
+    private long pointCount;
+    private long firstBucket;
+    private long lastTime = Long.MIN_VALUE;
+    private double lastValue = Double.NaN;
+    
+    /**
+     * Create an empty series
+     * @param buckets Number of buckets, rounded up to a power of two
+     * @param windowPoints Number of most recent points the series spans
+     */
+    public DecimatedSeries(int buckets, long windowPoints) {
+        if (buckets < 2 || windowPoints < 1) {
+            throw new IllegalArgumentException("Series needs at least two buckets and one point");
+        }
+        this.bucketCapacity = Integer.highestOneBit(buckets - 1) << 1;
+        this.mask = bucketCapacity - 1;
+        this.windowPoints = windowPoints;
+        
+        this.minTimes = new long[bucketCapacity];
+        this.minValues = new double[bucketCapacity];
+        this.maxTimes = new long[bucketCapacity];
+        this.maxValues = new double[bucketCapacity];
+        this.spareMinTimes = new long[bucketCapacity];
+        this.spareMinValues = new double[bucketCapacity];
+        this.spareMaxTimes = new long[bucketCapacity];
+        this.spareMaxValues = new double[bucketCapacity];
+    }
+    
+    /**
+     * Add a point. Points older than the newest one are ignored.
+     * @param epochMillis Time of the point
+     * @param value Price at that time
+     */
+    public void append(long epochMillis, double value) {
+        if (epochMillis < lastTime || Double.isNaN(value)) {
+            return;
+        }
+        long sequence = pointCount++;
+        long bucket = sequence / bucketSize;
+        
+        if (bucket - firstBucket >= bucketCapacity) {
+            if (bucketSize * bucketCapacity < windowPoints) {
+                doubleBucketSize();
+                bucket = sequence / bucketSize;
+            } else {
+                firstBucket = bucket - bucketCapacity + 1;
+            }
+        }
+        
+        int slot = (int) bucket & mask;
+        if (sequence % bucketSize == 0) {
+            minTimes[slot] = epochMillis;
+            minValues[slot] = value;
+            maxTimes[slot] = epochMillis;
+            maxValues[slot] = value;
+        } else if (value < minValues[slot]) {
+            minTimes[slot] = epochMillis;
+            minValues[slot] = value;
+        } else if (value > maxValues[slot]) {
+            maxTimes[slot] = epochMillis;
+            maxValues[slot] = value;
+        }
+        lastTime = epochMillis;
+        lastValue = value;
+    }
+    
+    /**
+     * Remove every point
+     */
+    public void clear() {
+        bucketSize = 1;
+        pointCount = 0;
+        firstBucket = 0;
+        lastTime = Long.MIN_VALUE;
+        lastValue = Double.NaN;
+    }
+    
+    /**
+     * Copy the retained minimum and maximum points in time order
+     * @param times Receives the times; needs room for {@link #maxPoints()} entries
+     * @param values Receives the prices
+     * @return Number of points copied
+     */
+    public int copyPoints(long[] times, double[] values) {
+        int count = 0;
+        long lastBucket = pointCount == 0 ? firstBucket - 1 : (pointCount - 1) / bucketSize;
+        for (long bucket = firstBucket; bucket <= lastBucket; bucket++) {
+            int slot = (int) bucket & mask;
+            boolean minFirst = minTimes[slot] <= maxTimes[slot];
+            times[count] = minFirst ? minTimes[slot] : maxTimes[slot];
+            values[count++] = minFirst ? minValues[slot] : maxValues[slot];
+            if (minValues[slot] != maxValues[slot]) {
+                times[count] = minFirst ? maxTimes[slot] : minTimes[slot];
+                values[count++] = minFirst ? maxValues[slot] : minValues[slot];
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Get the most points {@link #copyPoints} can return
+     */
+    public int maxPoints() {
+        return 2 * bucketCapacity;
+    }
+    
+    /**
+     * Get the number of points appended since the series was cleared
+     */
+    public long getPointCount() {
+        return pointCount;
+    }
+    
+    /**
+     * Get the number of consecutive points summarized by each bucket
+     */
+    public long getBucketSize() {
+        return bucketSize;
+    }
+    
+    public boolean isEmpty() {
+        return pointCount == 0;
+    }
+    
+    public long getLastTime() {
+        return lastTime;
+    }
+    
+    public double getLastValue() {
+        return lastValue;
+    }
+    
+    /**
+     * Merge neighbouring buckets into the spare columns and swap them in
+     */
+    private void doubleBucketSize() {
+        long lastBucket = (pointCount - 2) / bucketSize;
+        long mergedFirst = firstBucket >>> 1;
+        long mergedLast = lastBucket >>> 1;
+        
+        for (long merged = mergedFirst; merged <= mergedLast; merged++) {
+            int target = (int) merged & mask;
+            long left = Math.max(merged << 1, firstBucket);
+            long right = Math.min((merged << 1) + 1, lastBucket);
+            int slot = (int) left & mask;
+            
+            spareMinTimes[target] = minTimes[slot];
+            spareMinValues[target] = minValues[slot];
+            spareMaxTimes[target] = maxTimes[slot];
+            spareMaxValues[target] = maxValues[slot];
+            if (right > left) {
+                slot = (int) right & mask;
+                if (minValues[slot] < spareMinValues[target]) {
+                    spareMinTimes[target] = minTimes[slot];
+                    spareMinValues[target] = minValues[slot];
+                }
+                if (maxValues[slot] > spareMaxValues[target]) {
+                    spareMaxTimes[target] = maxTimes[slot];
+                    spareMaxValues[target] = maxValues[slot];
+                }
+            }
+        }
+        
+        long[] times = minTimes;
+        minTimes = spareMinTimes;
+        spareMinTimes = times;
+        times = maxTimes;
+        maxTimes = spareMaxTimes;
+        spareMaxTimes = times;
+        double[] values = minValues;
+        minValues = spareMinValues;
+        spareMinValues = values;
+        values = maxValues;
+        maxValues = spareMaxValues;
+        spareMaxValues = values;
+        
+        bucketSize <<= 1;
+        firstBucket = mergedFirst;
+    }
+}
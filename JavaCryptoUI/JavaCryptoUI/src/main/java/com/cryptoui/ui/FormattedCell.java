@@ -0,0 +1,54 @@
+package com.cryptoui.ui;
+
+import com.cryptoui.text.NumberFormatter;
+import javafx.scene.control.TableCell;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+
+/**
+ * Table cell that renders a number with its own {@link NumberFormatter}.
+ * The text is only rebuilt when the cell is given a different value, so re-rendering
+ * an unchanged row, or recycling the cell onto a row with the same value, formats and
+ * allocates nothing. Optionally colors values by sign.
+ * Must only be used on the JavaFX Application Thread.
+ */
+public class FormattedCell<S, T extends Number> extends TableCell<S, T> {
+    private final NumberFormatter formatter;
+    private final Paint gain;
+    private final Paint loss;
+    
+    /**
+     * Create a cell without sign coloring
+     */
+    public FormattedCell(NumberFormatter formatter) {
+        this(formatter, null, null);
+    }
+    
+    /**
+     * Create a cell that colors non-negative and negative values
+     */
+    public FormattedCell(NumberFormatter formatter, Paint gain, Paint loss) {
+        this.formatter = formatter;
+        this.gain = gain;
+        this.loss = loss;
+    }
+    
+    @Override
+    protected void updateItem(T item, boolean empty) {
+        super.updateItem(item, empty);
+        if (empty || item == null) {
+            setText(null);
+            if (gain != null) {
+                setTextFill(Color.BLACK);
+            }
+        } else {
+            double value = item.doubleValue();
+            // The formatter returns the same String for the same value, which the
+            // text property ignores
+            setText(formatter.text(value));
+            if (gain != null) {
+                setTextFill(value >= 0 ? gain : loss);
+            }
+        }
+    }
+}
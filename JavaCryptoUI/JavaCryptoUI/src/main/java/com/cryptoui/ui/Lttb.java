@@ -0,0 +1,83 @@
+package com.cryptoui.ui;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling.
+ * <p>
+ * Keeps the first and last points and, from each bucket in between, the point that
+ * forms the largest triangle with the point kept from the previous bucket and the
+ * average of the next bucket. The result keeps the visual shape of the line,
+ * including its peaks, with far fewer points.
+ */
+final class Lttb {
+    private Lttb() {
+    }
+    
+    /**
+     * Downsample points ordered by x
+     * @param xs Point x values
+     * @param ys Point y values
+     * @param count Number of input points
+     * @param threshold Number of points to keep, at least 3
+     * @param outXs Receives the kept x values; may not alias the input
+     * @param outYs Receives the kept y values
+     * @return Number of points kept
+     */
+    static int downsample(long[] xs, double[] ys, int count, int threshold,
+                          long[] outXs, double[] outYs) {
+        if (threshold < 3 || count <= threshold) {
+            System.arraycopy(xs, 0, outXs, 0, count);
+            System.arraycopy(ys, 0, outYs, 0, count);
+            return count;
+        }
+        
+        double bucketWidth = (double) (count - 2) / (threshold - 2);
+        long origin = xs[0];
+        int kept = 0;
+        int selected = 0;
+        outXs[kept] = xs[0];
+        outYs[kept++] = ys[0];
+        
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            // Average of the next bucket, or the last point for the final bucket
+            int nextStart = (int) ((bucket + 1) * bucketWidth) + 1;
+            int nextEnd = Math.min((int) ((bucket + 2) * bucketWidth) + 1, count);
+            double averageX = 0;
+            double averageY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageX += xs[i] - origin;
+                averageY += ys[i];
+            }
+            int nextCount = nextEnd - nextStart;
+            if (nextCount > 0) {
+                averageX /= nextCount;
+                averageY /= nextCount;
+            } else {
+                averageX = xs[count - 1] - origin;
+                averageY = ys[count - 1];
+            }
+            
+            int start = (int) (bucket * bucketWidth) + 1;
+            int end = nextStart;
+            double anchorX = xs[selected] - origin;
+            double anchorY = ys[selected];
+            double largestArea = -1;
+            int largest = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((anchorX - averageX) * (ys[i] - anchorY)
+                                       - (anchorX - (xs[i] - origin)) * (averageY - anchorY));
+                if (area > largestArea) {
+                    largestArea = area;
+                    largest = i;
+                }
+            }
+            
+            outXs[kept] = xs[largest];
+            outYs[kept++] = ys[largest];
+            selected = largest;
+        }
+        
+        outXs[kept] = xs[count - 1];
+        outYs[kept++] = ys[count - 1];
+        return kept;
+    }
+}
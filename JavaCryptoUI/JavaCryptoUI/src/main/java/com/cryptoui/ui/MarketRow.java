@@ -0,0 +1,88 @@
+package com.cryptoui.ui;
+
+import com.cryptoui.market.MarketState;
+import com.cryptoui.model.Cryptocurrency;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+
+/**
+ * Table row for the market view with JavaFX properties for data binding.
+ * Values are copied from the underlying {@link Cryptocurrency} only when the
+ * {@link RenderScheduler} reports the row dirty, so unchanged rows never re-render.
+ * Must only be used on the JavaFX Application Thread.
+ */
+public class MarketRow {
+    private final Cryptocurrency crypto;
+    private final ReadOnlyStringWrapper symbol;
+    private final ReadOnlyStringWrapper name;
+    private final ReadOnlyDoubleWrapper price;
+    private final ReadOnlyDoubleWrapper change24h;
+    
+    public MarketRow(Cryptocurrency crypto) {
+        this.crypto = crypto;
+        this.symbol = new ReadOnlyStringWrapper(crypto.getSymbol());
+        this.name = new ReadOnlyStringWrapper(crypto.getName());
+        this.price = new ReadOnlyDoubleWrapper(crypto.getPrice());
+        this.change24h = new ReadOnlyDoubleWrapper(crypto.getChange24h());
+    }
+    
+    /**
+     * Copy the latest values from the model; bound cells update only if a value changed.
+     * Price and change are read under one stamp so they always come from the same tick.
+     */
+    public void sync() {
+        MarketState state = crypto.getState();
+        int id = crypto.getId();
+        double newPrice;
+        double newChange;
+        long stamp;
+        do {
+            stamp = state.beginRead();
+            newPrice = state.peekPrice(id);
+            newChange = state.peekChange24h(id);
+        } while (!state.validate(stamp));
+        
+        price.set(newPrice);
+        change24h.set(newChange);
+    }
+    
+    public Cryptocurrency getCryptocurrency() {
+        return crypto;
+    }
+    
+    // JavaFX property getters
+    public ReadOnlyStringProperty symbolProperty() {
+        return symbol.getReadOnlyProperty();
+    }
+    
+    public ReadOnlyStringProperty nameProperty() {
+        return name.getReadOnlyProperty();
+    }
+    
+    public ReadOnlyDoubleProperty priceProperty() {
+        return price.getReadOnlyProperty();
+    }
+    
+    public ReadOnlyDoubleProperty change24hProperty() {
+        return change24h.getReadOnlyProperty();
+    }
+    
+    // Standard getters
+    public String getSymbol() {
+        return symbol.get();
+    }
+    
+    public String getName() {
+        return name.get();
+    }
+    
+    public double getPrice() {
+        return price.get();
+    }
+    
+    public double getChange24h() {
+        return change24h.get();
+    }
+}
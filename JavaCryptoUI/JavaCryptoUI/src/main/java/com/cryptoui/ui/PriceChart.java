@@ -0,0 +1,229 @@
+package com.cryptoui.ui;
+
+import com.cryptoui.market.MarketListener;
+import com.cryptoui.market.MarketSnapshot;
+import com.cryptoui.text.NumberFormatter;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.TextAlignment;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Line chart of one symbol's price, drawn on a single {@link Canvas}.
+ * <p>
+ * Every tick of the charted symbol is appended to a {@link DecimatedSeries} on the tick
+ * thread, which reduces any number of points to a bounded min/max summary as they
+ * arrive. A redraw copies that summary, thins it to about two points per pixel with
+ * {@link Lttb} and strokes one path, so drawing cost depends on the chart width, not
+ * on how many ticks it spans. Redraws that would paint the same data at the same size
+ * are skipped.
+ * <p>
+ * {@link #redraw()} must be called on the JavaFX Application Thread; the other methods
+ * are thread-safe.
+ */
+public class PriceChart extends Region implements MarketListener {
+    private static final int BUCKETS = 2048;
+    private static final long WINDOW_POINTS = 1L << 22;
+    private static final double PADDING = 8;
+    private static final Color BACKGROUND = Color.WHITE;
+    private static final Color GRID = Color.web("#e2e8f0");
+    private static final Color LINE = Color.web("#2b6cb0");
+    private static final Color LABEL = Color.web("#718096");
+    
+    private final Canvas canvas = new Canvas();
+    private final DecimatedSeries series = new DecimatedSeries(BUCKETS, WINDOW_POINTS);
+    
+    private volatile LongSupplier clock = System::currentTimeMillis;
+    
+    // Guarded by series
+    private int symbolId = -1;
+    private long version;
+    
+    // FX thread only; reused between redraws
+    private final long[] pointTimes = new long[series.maxPoints()];
+    private final double[] pointValues = new double[series.maxPoints()];
+    private long[] drawTimes = new long[0];
+    private double[] drawValues = new double[0];
+    private long drawnVersion = -1;
+    private final NumberFormatter highFormat = NumberFormatter.currency();
+    private final NumberFormatter lowFormat = NumberFormatter.currency();
+    private double drawnWidth;
+    private double drawnHeight;
+    
+    public PriceChart() {
+        getChildren().add(canvas);
+        getStyleClass().add("price-chart");
+    }
+    
+    /**
+     * Switch the chart to another symbol, discarding the points of the previous one
+     * @param id Interned symbol id, or -1 to chart nothing
+     */
+    public void setSymbol(int id) {
+        setSymbol(id, new long[0], new double[0], 0);
+    }
+    
+    /**
+     * Switch the chart to another symbol and seed it with historical points, e.g. candle
+     * closes. Ticks arriving meanwhile are appended after the seed, never between points.
+     * @param id Interned symbol id, or -1 to chart nothing
+     * @param times Point times in epoch milliseconds, oldest first
+     * @param prices Point prices
+     * @param count Number of points to add
+     */
+    public void setSymbol(int id, long[] times, double[] prices, int count) {
+        synchronized (series) {
+            symbolId = id;
+            series.clear();
+            for (int i = 0; i < count; i++) {
+                series.append(times[i], prices[i]);
+            }
+            version++;
+        }
+    }
+    
+    /**
+     * Set the source of tick times, e.g. the recorded time of a replay
+     * @param clock Supplier of epoch milliseconds
+     */
+    public void setClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+    
+    /**
+     * Append the charted symbol's price from each tick
+     */
+    @Override
+    public void onSnapshot(MarketSnapshot snapshot) {
+        long now = clock.getAsLong();
+        synchronized (series) {
+            int id = symbolId;
+            if (id >= 0 && id < snapshot.size()) {
+                series.append(now, snapshot.getPrice(id));
+                version++;
+            }
+        }
+    }
+    
+    /**
+     * Get the number of ticks and points the chart currently spans
+     */
+    public long getPointCount() {
+        synchronized (series) {
+            return series.getPointCount();
+        }
+    }
+    
+    /**
+     * Repaint the chart if its data or size changed since the last repaint
+     */
+    public void redraw() {
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        
+        int count;
+        synchronized (series) {
+            if (version == drawnVersion && width == drawnWidth && height == drawnHeight) {
+                return;
+            }
+            drawnVersion = version;
+            count = series.copyPoints(pointTimes, pointValues);
+        }
+        drawnWidth = width;
+        drawnHeight = height;
+        
+        int threshold = Math.max(3, (int) (2 * width));
+        if (drawTimes.length < Math.min(count, threshold)) {
+            drawTimes = new long[Math.min(pointTimes.length, threshold)];
+            drawValues = new double[drawTimes.length];
+        }
+        int drawCount = Lttb.downsample(pointTimes, pointValues, count, threshold, drawTimes, drawValues);
+        paint(drawCount, width, height);
+    }
+    
+    @Override
+    protected void layoutChildren() {
+        double width = snapSizeX(getWidth());
+        double height = snapSizeY(getHeight());
+        if (canvas.getWidth() != width || canvas.getHeight() != height) {
+            canvas.setWidth(width);
+            canvas.setHeight(height);
+            redraw();
+        }
+    }
+    
+    @Override
+    protected double computePrefWidth(double height) {
+        return 400;
+    }
+    
+    @Override
+    protected double computePrefHeight(double width) {
+        return 200;
+    }
+    
+    private void paint(int count, double width, double height) {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.setFill(BACKGROUND);
+        gc.fillRect(0, 0, width, height);
+        
+        double top = PADDING;
+        double bottom = height - PADDING;
+        gc.setStroke(GRID);
+        gc.setLineWidth(1);
+        for (int line = 0; line <= 4; line++) {
+            double y = snapPositionY(top + (bottom - top) * line / 4) + 0.5;
+            gc.strokeLine(0, y, width, y);
+        }
+        if (count == 0) {
+            return;
+        }
+        
+        double low = Double.POSITIVE_INFINITY;
+        double high = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            low = Math.min(low, drawValues[i]);
+            high = Math.max(high, drawValues[i]);
+        }
+        double range = high - low;
+        if (range <= 0) {
+            // Flat line; centre it
+            range = Math.max(Math.abs(high) * 0.01, 1e-9);
+            low -= range / 2;
+            high += range / 2;
+        }
+        
+        long firstTime = drawTimes[0];
+        long span = Math.max(1, drawTimes[count - 1] - firstTime);
+        double xScale = width / span;
+        double yScale = (bottom - top) / range;
+        
+        gc.setStroke(LINE);
+        gc.setLineWidth(1.5);
+        gc.beginPath();
+        for (int i = 0; i < count; i++) {
+            double x = count == 1 ? width : (drawTimes[i] - firstTime) * xScale;
+            double y = bottom - (drawValues[i] - low) * yScale;
+            if (i == 0) {
+                gc.moveTo(x, y);
+            } else {
+                gc.lineTo(x, y);
+            }
+        }
+        gc.stroke();
+        
+        gc.setFill(LABEL);
+        gc.setTextAlign(TextAlignment.RIGHT);
+        gc.setTextBaseline(VPos.TOP);
+        gc.fillText(highFormat.text(high), width - PADDING, top);
+        gc.setTextBaseline(VPos.BOTTOM);
+        gc.fillText(lowFormat.text(low), width - PADDING, bottom);
+    }
+}
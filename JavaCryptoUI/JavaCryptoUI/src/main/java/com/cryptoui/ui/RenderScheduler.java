@@ -0,0 +1,122 @@
+package com.cryptoui.ui;
+
+import com.cryptoui.market.MarketListener;
+import com.cryptoui.market.MarketSnapshot;
+import javafx.application.Platform;
+
+import java.util.BitSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Coalesces market changes into UI frames.
+ * Producers mark symbol ids dirty from any thread; the first mark after a frame
+ * posts a single flush to the UI thread, and every mark that arrives before the
+ * flush runs is folded into that same frame.
+ */
+public class RenderScheduler implements MarketListener {
+    private final AtomicLongArray dirtyWords;
+    private final AtomicBoolean framePending = new AtomicBoolean();
+    private final Consumer<BitSet> frameHandler;
+    private final Executor uiExecutor;
+    
+    // UI-thread only; reused between frames
+    private final BitSet frame;
+    
+    // Tick-thread only; used to detect which rows changed between snapshots
+    private MarketSnapshot lastSnapshot;
+    
+    /**
+     * Create a scheduler that renders on the JavaFX Application Thread
+     * @param capacity Number of symbol ids that can be tracked
+     * @param frameHandler Called on the FX thread with the ids that changed since the last frame
+     */
+    public RenderScheduler(int capacity, Consumer<BitSet> frameHandler) {
+        this(capacity, frameHandler, Platform::runLater);
+    }
+    
+    /**
+     * Create a scheduler that renders on a custom executor
+     * @param capacity Number of symbol ids that can be tracked
+     * @param frameHandler Called on the executor with the ids that changed since the last frame
+     * @param uiExecutor Executor standing in for the UI thread
+     */
+    public RenderScheduler(int capacity, Consumer<BitSet> frameHandler, Executor uiExecutor) {
+        this.dirtyWords = new AtomicLongArray((capacity + 63) >>> 6);
+        this.frame = new BitSet(capacity);
+        this.frameHandler = frameHandler;
+        this.uiExecutor = uiExecutor;
+    }
+    
+    /**
+     * Record that a symbol changed and schedule a frame if none is pending
+     * @param id Interned symbol id
+     */
+    public void markDirty(int id) {
+        setBit(id);
+        requestFrame();
+    }
+    
+    /**
+     * Marks every row whose price or 24h change differs from the previous snapshot
+     */
+    @Override
+    public void onSnapshot(MarketSnapshot snapshot) {
+        MarketSnapshot previous = lastSnapshot;
+        int previousSize = previous == null ? 0 : previous.size();
+        boolean changed = false;
+        
+        for (int id = 0; id < snapshot.size(); id++) {
+            if (id >= previousSize
+                    || snapshot.getPrice(id) != previous.getPrice(id)
+                    || snapshot.getChange24h(id) != previous.getChange24h(id)) {
+                setBit(id);
+                changed = true;
+            }
+        }
+        lastSnapshot = snapshot;
+        
+        if (changed) {
+            requestFrame();
+        }
+    }
+    
+    private void setBit(int id) {
+        int word = id >>> 6;
+        long mask = 1L << id;
+        long current;
+        do {
+            current = dirtyWords.get(word);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!dirtyWords.compareAndSet(word, current, current | mask));
+    }
+    
+    private void requestFrame() {
+        if (framePending.compareAndSet(false, true)) {
+            uiExecutor.execute(this::flush);
+        }
+    }
+    
+    private void flush() {
+        // Clear the flag before draining so marks racing with the drain schedule a new frame
+        framePending.set(false);
+        
+        frame.clear();
+        for (int word = 0; word < dirtyWords.length(); word++) {
+            long bits = dirtyWords.getAndSet(word, 0L);
+            while (bits != 0) {
+                int bit = Long.numberOfTrailingZeros(bits);
+                frame.set((word << 6) + bit);
+                bits &= bits - 1;
+            }
+        }
+        
+        if (!frame.isEmpty()) {
+            frameHandler.accept(frame);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.cryptoui.ui;
+
+import com.cryptoui.history.TransactionEntry;
+import com.cryptoui.history.TransactionLog;
+import com.cryptoui.model.Transaction.TransactionType;
+import javafx.collections.ObservableListBase;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Observable, newest-first list view over a {@link TransactionLog} for a TableView.
+ * Entries are created on demand for the rows the table asks for, so the list can front
+ * millions of records while holding none of them on heap.
+ * Must only be used on the JavaFX Application Thread.
+ */
+public class TransactionHistoryList extends ObservableListBase<TransactionEntry> {
+    private final TransactionLog log;
+    
+    public TransactionHistoryList(TransactionLog log) {
+        this.log = log;
+    }
+    
+    /**
+     * Record a transaction at the top of the list
+     * @return The new entry
+     */
+    public TransactionEntry add(long epochNanos, int symbolId, TransactionType type, double amount, double price) {
+        boolean full = log.size() == log.capacity();
+        TransactionEntry evicted = full ? new TransactionEntry(log, log.getFirstSequence()) : null;
+        
+        long sequence = log.append(epochNanos, symbolId, type, amount, price);
+        
+        beginChange();
+        if (evicted != null) {
+            nextRemove(log.size() - 1, evicted);
+        }
+        nextAdd(0, 1);
+        endChange();
+        return new TransactionEntry(log, sequence);
+    }
+    
+    /**
+     * Remove every transaction
+     */
+    @Override
+    public void clear() {
+        int size = log.size();
+        if (size == 0) {
+            return;
+        }
+        List<TransactionEntry> removed = removedView(log.getLastSequence(), size);
+        log.clear();
+        
+        beginChange();
+        nextRemove(0, removed);
+        endChange();
+    }
+    
+    /**
+     * Get the entry at a row, where row 0 is the newest transaction
+     */
+    @Override
+    public TransactionEntry get(int index) {
+        int size = log.size();
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return new TransactionEntry(log, log.getLastSequence() - index);
+    }
+    
+    @Override
+    public int size() {
+        return log.size();
+    }
+    
+    public TransactionLog getLog() {
+        return log;
+    }
+    
+    private List<TransactionEntry> removedView(long newest, int size) {
+        if (size == 0) {
+            return Collections.emptyList();
+        }
+        // Lazy view so clearing millions of rows does not materialise them
+        return new AbstractList<TransactionEntry>() {
+            @Override
+            public TransactionEntry get(int index) {
+                return new TransactionEntry(log, newest - index);
+            }
+            
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
@@ -0,0 +1,99 @@
+package com.cryptoui.ui;
+
+import com.cryptoui.history.TransactionEntry;
+import com.cryptoui.text.NumberFormatter;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+
+/**
+ * Small direct-mapped cache of materialized transaction table rows.
+ * A row's cell text is formatted once, when the row first scrolls into view, with
+ * formatters shared by the cache; totals are formatted from exact fixed-point values. Its
+ * observable values are reused for every later render of that row. Transaction records
+ * never change, so a cached row stays valid until another sequence maps to its slot.
+ * Must only be used on the JavaFX Application Thread.
+ */
+public class TransactionRowCache {
+    private final Row[] slots;
+    private final int mask;
+    private final NumberFormatter amountFormat = NumberFormatter.amount(6);
+    private final NumberFormatter priceFormat = NumberFormatter.currency();
+    private final NumberFormatter totalFormat = NumberFormatter.currency();
+    
+    /**
+     * Create a cache
+     * @param size Number of rows to keep, rounded up to a power of two; should exceed
+     *             the number of rows visible at once
+     */
+    public TransactionRowCache(int size) {
+        int capacity = 1;
+        while (capacity < size) {
+            capacity <<= 1;
+        }
+        this.slots = new Row[capacity];
+        this.mask = capacity - 1;
+    }
+    
+    /**
+     * Get the materialized row for an entry, formatting it on a cache miss
+     * @param entry Transaction entry
+     * @return Cached row
+     */
+    public Row get(TransactionEntry entry) {
+        long sequence = entry.getSequence();
+        int slot = (int) (sequence & mask);
+        Row row = slots[slot];
+        if (row == null || row.sequence != sequence) {
+            row = new Row(entry, this);
+            slots[slot] = row;
+        }
+        return row;
+    }
+    
+    /**
+     * Formatted, immutable cell values of one transaction
+     */
+    public static final class Row {
+        private final long sequence;
+        private final ReadOnlyStringWrapper time;
+        private final ReadOnlyStringWrapper type;
+        private final ReadOnlyStringWrapper symbol;
+        private final ReadOnlyStringWrapper amount;
+        private final ReadOnlyStringWrapper price;
+        private final ReadOnlyStringWrapper total;
+        
+        private Row(TransactionEntry entry, TransactionRowCache cache) {
+            this.sequence = entry.getSequence();
+            this.time = new ReadOnlyStringWrapper(entry.getFormattedTimestamp());
+            this.type = new ReadOnlyStringWrapper(entry.getTypeAsString());
+            this.symbol = new ReadOnlyStringWrapper(entry.getCryptoSymbol());
+            this.amount = new ReadOnlyStringWrapper(cache.amountFormat.text(entry.getAmount()));
+            this.price = new ReadOnlyStringWrapper(cache.priceFormat.text(entry.getPrice()));
+            this.total = new ReadOnlyStringWrapper(cache.totalFormat.textUnits(entry.getTotalValueUnits()));
+        }
+        
+        public ReadOnlyStringProperty timeProperty() {
+            return time.getReadOnlyProperty();
+        }
+        
+        public ReadOnlyStringProperty typeProperty() {
+            return type.getReadOnlyProperty();
+        }
+        
+        public ReadOnlyStringProperty symbolProperty() {
+            return symbol.getReadOnlyProperty();
+        }
+        
+        public ReadOnlyStringProperty amountProperty() {
+            return amount.getReadOnlyProperty();
+        }
+        
+        public ReadOnlyStringProperty priceProperty() {
+            return price.getReadOnlyProperty();
+        }
+        
+        public ReadOnlyStringProperty totalProperty() {
+            return total.getReadOnlyProperty();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+@echo off
+rem Start the simulator on the bundled runtime, with the AppCDS archive when present.
+rem Extra JVM options can be passed in CRYPTOUI_OPTS, e.g. set CRYPTOUI_OPTS=-Dcryptoui.feed.port=7420
+set HOME_DIR=%~dp0..
+set CDS_OPTS=
+if exist "%HOME_DIR%\lib\cryptoui.jsa" set CDS_OPTS=-XX:SharedArchiveFile="%HOME_DIR%\lib\cryptoui.jsa" -Xshare:auto
+"%HOME_DIR%\bin\java" %CDS_OPTS% %CRYPTOUI_OPTS% -cp "%HOME_DIR%\app\java-crypto-ui.jar" com.cryptoui.CryptoUiApplication %*
@@ -0,0 +1,84 @@
+package com.cryptoui.model;
+
+import com.cryptoui.replay.TickSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MarketServiceReplayTest {
+    private static final long TICK_NANOS = TimeUnit.SECONDS.toNanos(1);
+    
+    @TempDir
+    Path dir;
+    
+    @Test
+    void replayListsUnseenSymbolInMarketData() throws IOException {
+        MarketService service = new MarketService(1, TICK_NANOS, 16);
+        Path recording = write("ticks.csv",
+            "time,symbol,price\n1,BTC,42000\n2,XYZ,5.25\n3,XYZ,5.5\n");
+        
+        try (TickSource source = TickSource.open(recording, service::listRecordedSymbol)) {
+            assertTrue(source.next());
+            assertEquals("BTC", service.getMarketState().getSymbol(source.getSymbolId()));
+            assertTrue(source.next());
+            int id = source.getSymbolId();
+            assertTrue(source.next());
+            assertEquals(id, source.getSymbolId());
+            assertFalse(source.next());
+            assertEquals(0, source.getSkipped());
+            
+            Cryptocurrency listed = service.getCryptocurrency("XYZ");
+            assertNotNull(listed);
+            assertEquals(id, listed.getId());
+            assertEquals(5.25, listed.getPrice());
+        }
+    }
+    
+    @Test
+    void replaySkipsUnseenSymbolWhenMarketIsFull() throws IOException {
+        // Room for exactly the five symbols the service lists itself
+        MarketService service = new MarketService(1, TICK_NANOS, 5);
+        Path recording = write("ticks.jsonl",
+            "{\"t\":1,\"s\":\"XYZ\",\"p\":5}\n{\"t\":2,\"s\":\"ETH\",\"p\":2300}\n");
+        
+        try (TickSource source = TickSource.open(recording, service::listRecordedSymbol)) {
+            assertTrue(source.next());
+            assertEquals("ETH", service.getMarketState().getSymbol(source.getSymbolId()));
+            assertFalse(source.next());
+            assertEquals(1, source.getSkipped());
+        }
+        assertFalse(service.getMarketData().containsKey("XYZ"));
+        assertEquals(5, service.getMarketData().size());
+    }
+    
+    @Test
+    void listedSymbolReachesMarketDataThroughExecutor() {
+        MarketService service = new MarketService(1, TICK_NANOS, 16);
+        Runnable[] pending = new Runnable[1];
+        service.setMarketDataExecutor(task -> pending[0] = task);
+        
+        int id = service.listRecordedSymbol("XYZ", 5);
+        assertEquals(id, service.getMarketState().idOf("XYZ"));
+        assertFalse(service.getMarketData().containsKey("XYZ"));
+        
+        pending[0].run();
+        assertEquals(id, service.getCryptocurrency("XYZ").getId());
+        assertEquals(id, service.listRecordedSymbol("XYZ", 6));
+    }
+    
+    private Path write(String name, String content) throws IOException {
+        Path path = dir.resolve(name);
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+}
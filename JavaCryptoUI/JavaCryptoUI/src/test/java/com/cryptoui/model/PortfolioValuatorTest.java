@@ -0,0 +1,76 @@
+package com.cryptoui.model;
+
+import com.cryptoui.market.Fixed;
+import com.cryptoui.market.MarketState;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PortfolioValuatorTest {
+    private static final String[] SYMBOLS = { "BTC", "ETH", "SOL", "DOGE", "SHIB" };
+    private static final double[] PRICES = { 42000, 2300, 95.5, 0.089, 0.00002 };
+    
+    @Test
+    void incrementalValueMatchesFullValuationAfterManyUpdates() {
+        MarketState marketState = new MarketState(SYMBOLS.length);
+        for (int i = 0; i < SYMBOLS.length; i++) {
+            marketState.add(SYMBOLS[i], SYMBOLS[i], "", PRICES[i], 0, 0);
+        }
+        marketState.seed(42);
+        PortfolioValuator valuator = new PortfolioValuator(marketState);
+        
+        User[] users = new User[8];
+        for (int u = 0; u < users.length; u++) {
+            users[u] = new User("trader" + u);
+            users[u].setBalanceUnits(Long.MAX_VALUE / 4);
+            valuator.attach(users[u]);
+        }
+        
+        Random random = new Random(7);
+        for (int step = 1; step <= 20_000; step++) {
+            marketState.beforeTick();
+            marketState.tick(0, marketState.size());
+            marketState.afterTick();
+            valuator.onSnapshot(marketState.snapshot(step, 0));
+            
+            User user = users[random.nextInt(users.length)];
+            int id = random.nextInt(SYMBOLS.length);
+            // Amounts off the symbols' lots, so trade values are not round numbers
+            long amount = 1 + random.nextInt(1_000_000_000);
+            long price = marketState.getPriceFixed(id);
+            if (random.nextBoolean()) {
+                user.buyUnits(SYMBOLS[id], amount, price);
+            } else {
+                user.sellUnits(SYMBOLS[id], Math.min(amount, user.getCryptoUnits(SYMBOLS[id])), price);
+            }
+        }
+        
+        for (User user : users) {
+            long expected = 0;
+            for (int id = 0; id < SYMBOLS.length; id++) {
+                expected += Fixed.multiply(user.getCryptoUnits(SYMBOLS[id]), marketState.getPriceFixed(id));
+            }
+            assertEquals(expected, user.getPortfolioValueUnits(), user.getUsername());
+            assertEquals(user.getPortfolioValue(marketState), user.getPortfolioValue(), 1e-6, user.getUsername());
+        }
+    }
+    
+    @Test
+    void attachPricesInExistingHoldings() {
+        MarketState marketState = new MarketState(2);
+        int id = marketState.add("ETH", "Ethereum", "", 2300, 0, 0);
+        User user = new User("trader");
+        user.buyCrypto("ETH", 1.5, 2000);
+        
+        PortfolioValuator valuator = new PortfolioValuator(marketState);
+        valuator.attach(user);
+        assertEquals(Fixed.of(3450), user.getPortfolioValueUnits());
+        
+        valuator.mark(id, 2400);
+        assertEquals(Fixed.of(3600), user.getPortfolioValueUnits());
+        user.sellCrypto("ETH", 1.5, 2400);
+        assertEquals(0, user.getPortfolioValueUnits());
+    }
+}